@@ -0,0 +1,33 @@
+#!/bin/sh
+# Compiles the simulation into a jar and creates a class data sharing archive
+# from a training run over the bundled scenarios. The archive lets the JVM map
+# the classes of the simulation instead of loading and verifying them again.
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BUILD="$ROOT/build"
+JAR="$BUILD/traffic-simulation.jar"
+ARCHIVE="$BUILD/traffic-simulation.jsa"
+MAIN=edu.kit.kastel.trafficsimulation.Main
+
+rm -rf "$BUILD/classes"
+mkdir -p "$BUILD/classes"
+javac -d "$BUILD/classes" $(find "$ROOT/src" -name '*.java')
+jar --create --file "$JAR" --main-class "$MAIN" -C "$BUILD/classes" .
+
+# Every command is run once, so all classes it needs end up in the archive
+{
+    for scenario in "$ROOT"/files/*/; do
+        echo "load $scenario"
+        echo "simulate 100"
+        echo "position 0"
+        echo "engine synchronous"
+        echo "simulate 10"
+        echo "engine sequential"
+        echo "routing time"
+        echo "routing length"
+    done
+    echo "quit"
+} | java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" "$ROOT/files/basic" > /dev/null
+
+echo "Created $ARCHIVE"
@@ -0,0 +1,9 @@
+#!/bin/sh
+# Starts the simulation with the class data sharing archive created by
+# build-cds.sh. All arguments are passed on, so a path to configuration files
+# can be given to load it before the first command is read.
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BUILD="$ROOT/build"
+
+exec java -XX:SharedArchiveFile="$BUILD/traffic-simulation.jsa" -jar "$BUILD/traffic-simulation.jar" "$@"
@@ -1,5 +1,8 @@
 package edu.kit.kastel.trafficsimulation;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import edu.kit.kastel.trafficsimulation.io.InputSystem;
 import edu.kit.kastel.trafficsimulation.simulation.Simulation;
 
@@ -13,6 +16,9 @@ import edu.kit.kastel.trafficsimulation.simulation.Simulation;
  */
 public final class Main {
 
+    private static final String LOAD_COMMAND = "load %s";
+    private static final String MESSAGE_STARTUP_TIME = "Time to first READY: %d ms";
+
     private Main() {
 
     }
@@ -20,15 +26,23 @@ public final class Main {
     /**
      * This is a traffic simulation program. It can read network configuration from
      * files and then simulate a number of ticks. It can be controlled via commands
-     * on the command line.
+     * on the command line. If a path to configuration files is given as the first
+     * command line argument, the network is loaded before the first command is
+     * read and the time from the start of the process to the end of loading is
+     * printed to the error stream.
      * 
-     * @param args Command line arguments, they do not have any effect on this
-     *             program
+     * @param args Command line arguments, optionally the path to configuration
+     *             files to be loaded
      */
     public static void main(String[] args) {
 
         Simulation simulation = new Simulation();
         InputSystem inputSystem = new InputSystem();
+        if (args.length > 0) {
+            inputSystem.execute(LOAD_COMMAND.formatted(args[0]), simulation);
+            ProcessHandle.current().info().startInstant().ifPresent(start -> System.err.println(
+                    MESSAGE_STARTUP_TIME.formatted(Duration.between(start, Instant.now()).toMillis())));
+        }
         inputSystem.loop(simulation);
     }
 }
@@ -0,0 +1,177 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Car;
+import edu.kit.kastel.trafficsimulation.simulation.EngineMode;
+import edu.kit.kastel.trafficsimulation.simulation.Network;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkBuilder;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSerializer;
+
+/**
+ * This is a differential harness that runs two engines in lockstep on random
+ * networks and reports the first tick at which the states of the networks
+ * diverge. Every network is generated twice from the same seed, once for each
+ * engine, and the serialized states of both are compared after every tick.
+ * <p>
+ * An engine that should compute the same result as another engine, like the
+ * vectorized and the synchronous engine, must pass this harness before it is
+ * used. The networks have streets with at most two lanes, so every engine can
+ * update them.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class EngineDifferential {
+
+    private static final String ERROR_USAGE = "Usage: EngineDifferential <reference engine> <candidate engine> "
+            + "[<networks> <ticks> <seed>]";
+    private static final String MESSAGE_AGREED = "%d networks agreed for %d ticks";
+    private static final String MESSAGE_DIVERGED = "Network %d (seed %d, %d nodes, %d cars) diverged at tick %d";
+    private static final String MESSAGE_CAR = "Car %d: %s with %s, %s with %s";
+    private static final String MESSAGE_NODES = "All cars agree, the signal phases of the nodes diverged";
+    private static final String CAR_STATE = "street %d, lane %d, position %d, speed %d";
+
+    private static final int DEFAULT_NUMBER_NETWORKS = 50;
+    private static final int DEFAULT_TICKS = 500;
+    private static final long DEFAULT_SEED = 1;
+    private static final int MIN_NUMBER_NODES = 3;
+    private static final int MAX_NUMBER_NODES = 40;
+    private static final int MAX_NUMBER_STREETS = 4;
+    private static final int[] DURATIONS = {0, 0, 3, 5, 7, 10};
+    private static final int[] LENGTHS = {20, 40, 100, 250, 600};
+    private static final int MAX_NUMBER_LANES = 2;
+    private static final int MIN_SPEED_LIMIT = 5;
+    private static final int MAX_SPEED_LIMIT = 40;
+    private static final int MIN_TARGET_SPEED = 20;
+    private static final int MAX_TARGET_SPEED = 40;
+    private static final int MAX_ACCELERATION = 10;
+    private static final int CAR_SPACING = 10;
+    private static final int EXIT_DIVERGED = 1;
+
+    private EngineDifferential() {
+
+    }
+
+    /**
+     * This method runs the harness. The names of the reference engine and the
+     * candidate engine must be given as command line arguments, as in the
+     * engine command. Optionally the number of networks, the number of ticks
+     * and the seed of the first network can be given. The process exits with
+     * status {@value #EXIT_DIVERGED} if the engines diverge.
+     * 
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 5) {
+            System.err.println(ERROR_USAGE);
+            return;
+        }
+        try {
+            EngineMode reference = EngineMode.valueOf(args[0].toUpperCase(Locale.ROOT));
+            EngineMode candidate = EngineMode.valueOf(args[1].toUpperCase(Locale.ROOT));
+            int numberOfNetworks = args.length == 5 ? Integer.parseInt(args[2]) : DEFAULT_NUMBER_NETWORKS;
+            int ticks = args.length == 5 ? Integer.parseInt(args[3]) : DEFAULT_TICKS;
+            long seed = args.length == 5 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+            for (int i = 0; i < numberOfNetworks; i++) {
+                if (!compare(i, seed + i, ticks, reference, candidate)) {
+                    System.exit(EXIT_DIVERGED);
+                }
+            }
+            System.out.println(MESSAGE_AGREED.formatted(numberOfNetworks, ticks));
+        } catch (FailedBuildException | IOException | ParseException | IllegalArgumentException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    private static boolean compare(int index, long seed, int ticks, EngineMode reference, EngineMode candidate)
+            throws FailedBuildException, IOException, ParseException {
+        Network referenceNetwork = createNetwork(seed, reference);
+        Network candidateNetwork = createNetwork(seed, candidate);
+        for (int tick = 1; tick <= ticks; tick++) {
+            referenceNetwork.simulate(1);
+            candidateNetwork.simulate(1);
+            if (!Arrays.equals(getState(referenceNetwork), getState(candidateNetwork))) {
+                System.out.println(MESSAGE_DIVERGED.formatted(index, seed, countNodes(seed),
+                        referenceNetwork.getNumberOfCars(), tick));
+                System.out.println(describeDivergence(referenceNetwork, candidateNetwork, reference, candidate));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describeDivergence(Network referenceNetwork, Network candidateNetwork,
+            EngineMode reference, EngineMode candidate) throws ParseException {
+        // Cars never leave the generated networks, so their IDs stay 0 to n - 1
+        for (int id = 0; id < referenceNetwork.getNumberOfCars(); id++) {
+            String referenceState = describe(referenceNetwork.getCar(id));
+            String candidateState = describe(candidateNetwork.getCar(id));
+            if (!referenceState.equals(candidateState)) {
+                return MESSAGE_CAR.formatted(id, referenceState, reference, candidateState, candidate);
+            }
+        }
+        return MESSAGE_NODES;
+    }
+
+    private static String describe(Car car) {
+        return CAR_STATE.formatted(car.getStreet().getId(), car.getLane(), car.getPosition(), car.getSpeed());
+    }
+
+    private static int countNodes(long seed) {
+        return MIN_NUMBER_NODES + new Random(seed).nextInt(MAX_NUMBER_NODES - MIN_NUMBER_NODES + 1);
+    }
+
+    private static Network createNetwork(long seed, EngineMode engineMode) throws FailedBuildException {
+        Random random = new Random(seed);
+        int numberOfNodes = MIN_NUMBER_NODES + random.nextInt(MAX_NUMBER_NODES - MIN_NUMBER_NODES + 1);
+        NetworkBuilder builder = new NetworkBuilder();
+        for (int i = 0; i < numberOfNodes; i++) {
+            builder.addNode(i, DURATIONS[random.nextInt(DURATIONS.length)]);
+        }
+        // A ring gives every node an incoming and an outgoing street
+        int[] outgoing = new int[numberOfNodes];
+        int[] incoming = new int[numberOfNodes];
+        int[] lengths = new int[numberOfNodes * MAX_NUMBER_STREETS];
+        int numberOfStreets = 0;
+        for (int i = 0; i < numberOfNodes * 2; i++) {
+            int start = i < numberOfNodes ? i : random.nextInt(numberOfNodes);
+            int end = i < numberOfNodes ? (i + 1) % numberOfNodes : random.nextInt(numberOfNodes);
+            if (start == end || outgoing[start] == MAX_NUMBER_STREETS || incoming[end] == MAX_NUMBER_STREETS) {
+                continue;
+            }
+            lengths[numberOfStreets] = LENGTHS[random.nextInt(LENGTHS.length)];
+            builder.connect(start, end, lengths[numberOfStreets], 1 + random.nextInt(MAX_NUMBER_LANES),
+                    MIN_SPEED_LIMIT + random.nextInt(MAX_SPEED_LIMIT - MIN_SPEED_LIMIT + 1));
+            outgoing[start]++;
+            incoming[end]++;
+            numberOfStreets++;
+        }
+        int id = 0;
+        for (int street = 0; street < numberOfStreets; street++) {
+            int numberOfCars = random.nextInt(lengths[street] / CAR_SPACING + 1);
+            for (int i = 0; i < numberOfCars; i++) {
+                int destination = random.nextBoolean() ? random.nextInt(numberOfNodes) : Car.NO_DESTINATION;
+                builder.putCar(id++, street, MIN_TARGET_SPEED + random.nextInt(MAX_TARGET_SPEED - MIN_TARGET_SPEED + 1),
+                        1 + random.nextInt(MAX_ACCELERATION), destination);
+            }
+        }
+        Network network = builder.build();
+        network.setEngineMode(engineMode);
+        return network;
+    }
+
+    private static byte[] getState(Network network) throws IOException {
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        NetworkSerializer.writeState(new DataOutputStream(state), network);
+        return state.toByteArray();
+    }
+
+}
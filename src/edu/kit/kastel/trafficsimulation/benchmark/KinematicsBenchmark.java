@@ -0,0 +1,117 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.simulation.Car;
+import edu.kit.kastel.trafficsimulation.simulation.EngineMode;
+import edu.kit.kastel.trafficsimulation.simulation.Network;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkBuilder;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSerializer;
+
+/**
+ * This is a benchmark that compares the synchronous engine with and without
+ * vectorized car kinematics on a ring of dense streets. Both engines simulate
+ * the same network, the time per tick is printed for each of them and the
+ * states of both networks are compared afterwards.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class KinematicsBenchmark {
+
+    private static final String ERROR_USAGE = "Usage: KinematicsBenchmark [<streets> <cars per street> <ticks>]";
+    private static final String ERROR_DIFFERENT_STATES = "Error: The engines computed different states. ";
+    private static final String RESULT = "%-11s %,12d ns per tick";
+    private static final String SPEEDUP = "Speedup     %12.2f";
+
+    private static final int DEFAULT_NUMBER_STREETS = 16;
+    private static final int DEFAULT_CARS_PER_STREET = 600;
+    private static final int DEFAULT_TICKS = 2000;
+    private static final int WARM_UP_TICKS = 500;
+    private static final int STREET_LENGTH = 10000;
+    private static final int NUMBER_LANES = 2;
+    private static final int SPEED_LIMIT = 40;
+    private static final int MIN_TARGET_SPEED = 20;
+    private static final int MAX_TARGET_SPEED = 40;
+    private static final int MAX_ACCELERATION = 10;
+    private static final long SEED = 42;
+
+    private KinematicsBenchmark() {
+
+    }
+
+    /**
+     * This method runs the benchmark. Optionally the number of streets, the
+     * number of cars per street and the number of measured ticks can be given as
+     * command line arguments.
+     * 
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        int numberOfStreets = DEFAULT_NUMBER_STREETS;
+        int carsPerStreet = DEFAULT_CARS_PER_STREET;
+        int ticks = DEFAULT_TICKS;
+        try {
+            if (args.length == 3) {
+                numberOfStreets = Integer.parseInt(args[0]);
+                carsPerStreet = Integer.parseInt(args[1]);
+                ticks = Integer.parseInt(args[2]);
+            } else if (args.length != 0) {
+                System.err.println(ERROR_USAGE);
+                return;
+            }
+            Network scalar = createRing(numberOfStreets, carsPerStreet, EngineMode.SYNCHRONOUS);
+            Network vectorized = createRing(numberOfStreets, carsPerStreet, EngineMode.VECTORIZED);
+            long scalarTime = measure(scalar, ticks);
+            long vectorizedTime = measure(vectorized, ticks);
+            System.out.println(RESULT.formatted(EngineMode.SYNCHRONOUS, scalarTime));
+            System.out.println(RESULT.formatted(EngineMode.VECTORIZED, vectorizedTime));
+            System.out.println(SPEEDUP.formatted((double) scalarTime / vectorizedTime));
+            if (!Arrays.equals(getState(scalar), getState(vectorized))) {
+                System.err.println(ERROR_DIFFERENT_STATES);
+            }
+        } catch (FailedBuildException | IOException | NumberFormatException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    private static Network createRing(int numberOfStreets, int carsPerStreet, EngineMode engineMode)
+            throws FailedBuildException {
+        NetworkBuilder builder = new NetworkBuilder();
+        for (int i = 0; i < numberOfStreets; i++) {
+            builder.addNode(i, 0);
+        }
+        for (int i = 0; i < numberOfStreets; i++) {
+            builder.connect(i, (i + 1) % numberOfStreets, STREET_LENGTH, NUMBER_LANES, SPEED_LIMIT);
+        }
+        // Both networks get the same cars
+        Random random = new Random(SEED);
+        for (int i = 0; i < numberOfStreets * carsPerStreet; i++) {
+            int targetSpeed = MIN_TARGET_SPEED + random.nextInt(MAX_TARGET_SPEED - MIN_TARGET_SPEED + 1);
+            int acceleration = 1 + random.nextInt(MAX_ACCELERATION);
+            builder.putCar(i, i % numberOfStreets, targetSpeed, acceleration, Car.NO_DESTINATION);
+        }
+        Network network = builder.build();
+        network.setEngineMode(engineMode);
+        return network;
+    }
+
+    private static long measure(Network network, int ticks) {
+        network.simulate(WARM_UP_TICKS);
+        long start = System.nanoTime();
+        network.simulate(ticks);
+        return (System.nanoTime() - start) / Math.max(ticks, 1);
+    }
+
+    private static byte[] getState(Network network) throws IOException {
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        NetworkSerializer.writeState(new DataOutputStream(state), network);
+        return state.toByteArray();
+    }
+
+}
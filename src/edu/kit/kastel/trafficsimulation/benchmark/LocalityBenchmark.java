@@ -0,0 +1,144 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.simulation.Car;
+import edu.kit.kastel.trafficsimulation.simulation.EngineMode;
+import edu.kit.kastel.trafficsimulation.simulation.Network;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkBuilder;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSerializer;
+
+/**
+ * This is a benchmark that compares the synchronous engine visiting the
+ * streets in order of their ID with visiting them in locality order. Both
+ * engines simulate the same grid of streets whose IDs are shuffled, so
+ * neighbouring streets have distant IDs, like in a network that was put
+ * together from several sources. The time per tick is printed for each of
+ * them and the states of both networks are compared afterwards.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class LocalityBenchmark {
+
+    private static final String ERROR_USAGE = "Usage: LocalityBenchmark [<width of the grid> <ticks>]";
+    private static final String ERROR_DIFFERENT_STATES = "Error: The orders resulted in different states. ";
+    private static final String RESULT = "%-11s %,12d ns per tick";
+    private static final String SPEEDUP = "Speedup     %12.2f";
+    private static final String ID_ORDER = "ID order";
+    private static final String LOCALITY = "Locality";
+
+    private static final int DEFAULT_WIDTH = 100;
+    private static final int DEFAULT_TICKS = 200;
+    private static final int WARM_UP_TICKS = 50;
+    private static final int[] DURATIONS = {0, 3, 5};
+    private static final int[] LENGTHS = {100, 150, 200, 300};
+    private static final int MAX_NUMBER_LANES = 2;
+    private static final int MIN_SPEED_LIMIT = 20;
+    private static final int MAX_SPEED_LIMIT = 40;
+    private static final int MIN_TARGET_SPEED = 20;
+    private static final int MAX_TARGET_SPEED = 40;
+    private static final int MAX_ACCELERATION = 10;
+    private static final int METERS_PER_CAR = 40;
+    private static final long SEED = 42;
+
+    private LocalityBenchmark() {
+
+    }
+
+    /**
+     * This method runs the benchmark. Optionally the number of nodes on each
+     * side of the grid and the number of measured ticks can be given as command
+     * line arguments.
+     * 
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        int width = DEFAULT_WIDTH;
+        int ticks = DEFAULT_TICKS;
+        try {
+            if (args.length == 2) {
+                width = Integer.parseInt(args[0]);
+                ticks = Integer.parseInt(args[1]);
+            } else if (args.length != 0) {
+                System.err.println(ERROR_USAGE);
+                return;
+            }
+            Network idOrder = createGrid(width, false);
+            Network locality = createGrid(width, true);
+            long idOrderTime = measure(idOrder, ticks);
+            long localityTime = measure(locality, ticks);
+            System.out.println(RESULT.formatted(ID_ORDER, idOrderTime));
+            System.out.println(RESULT.formatted(LOCALITY, localityTime));
+            System.out.println(SPEEDUP.formatted((double) idOrderTime / localityTime));
+            if (!Arrays.equals(getState(idOrder), getState(locality))) {
+                System.err.println(ERROR_DIFFERENT_STATES);
+            }
+        } catch (FailedBuildException | IOException | NumberFormatException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    private static Network createGrid(int width, boolean orderByLocality) throws FailedBuildException {
+        // Both networks get the same nodes, streets and cars
+        Random random = new Random(SEED);
+        NetworkBuilder builder = new NetworkBuilder();
+        for (int i = 0; i < width * width; i++) {
+            builder.addNode(i, DURATIONS[random.nextInt(DURATIONS.length)]);
+        }
+        List<int[]> connections = new ArrayList<>();
+        for (int i = 0; i < width * width; i++) {
+            if (i % width + 1 < width) {
+                connections.add(new int[] {i, i + 1});
+                connections.add(new int[] {i + 1, i});
+            }
+            if (i + width < width * width) {
+                connections.add(new int[] {i, i + width});
+                connections.add(new int[] {i + width, i});
+            }
+        }
+        // The streets get their IDs in this order
+        Collections.shuffle(connections, random);
+        int carId = 0;
+        for (int i = 0; i < connections.size(); i++) {
+            int length = LENGTHS[random.nextInt(LENGTHS.length)];
+            int speedLimit = MIN_SPEED_LIMIT + random.nextInt(MAX_SPEED_LIMIT - MIN_SPEED_LIMIT + 1);
+            builder.connect(connections.get(i)[0], connections.get(i)[1], length, 1 + random.nextInt(MAX_NUMBER_LANES),
+                    speedLimit);
+            int numberOfCars = random.nextInt(length / METERS_PER_CAR + 1);
+            for (int j = 0; j < numberOfCars; j++) {
+                int targetSpeed = MIN_TARGET_SPEED + random.nextInt(MAX_TARGET_SPEED - MIN_TARGET_SPEED + 1);
+                int acceleration = 1 + random.nextInt(MAX_ACCELERATION);
+                builder.putCar(carId++, i, targetSpeed, acceleration, Car.NO_DESTINATION);
+            }
+        }
+        builder.setOrderByLocality(orderByLocality);
+        Network network = builder.build();
+        network.setEngineMode(EngineMode.SYNCHRONOUS);
+        // A listener keeps the network from skipping ticks once its state repeats
+        network.addTickListener(tickNetwork -> { });
+        return network;
+    }
+
+    private static long measure(Network network, int ticks) {
+        network.simulate(WARM_UP_TICKS);
+        long start = System.nanoTime();
+        network.simulate(ticks);
+        return (System.nanoTime() - start) / Math.max(ticks, 1);
+    }
+
+    private static byte[] getState(Network network) throws IOException {
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        NetworkSerializer.writeState(new DataOutputStream(state), network);
+        return state.toByteArray();
+    }
+
+}
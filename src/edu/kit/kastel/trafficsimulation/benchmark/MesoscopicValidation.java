@@ -0,0 +1,121 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.io.NetworkParser;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+import edu.kit.kastel.trafficsimulation.simulation.Car;
+import edu.kit.kastel.trafficsimulation.simulation.EngineMode;
+import edu.kit.kastel.trafficsimulation.simulation.Network;
+
+/**
+ * This is a harness that validates the mesoscopic engine against the
+ * sequential engine on configuration folders. Both engines simulate the same
+ * network for the same number of ticks, then the total distance driven by all
+ * cars and the number of standing cars are compared, and the time each engine
+ * took is printed. The mesoscopic engine does not model acceleration and
+ * overtaking, so its cars drive further at first, but congestion and the
+ * signal phases should limit both engines alike. Folders that cannot be
+ * loaded or have streets with too many lanes are reported and skipped.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class MesoscopicValidation {
+
+    private static final String ERROR_USAGE = "Usage: MesoscopicValidation <ticks> <configuration folder>...";
+    private static final String ERROR_FOLDER = "%s: %s";
+    private static final String RESULT = "%s: %d cars, distance %,d m %s and %,d m %s (%+.1f %%), "
+            + "%d and %d standing, %d ms and %d ms";
+    private static final double PERCENT = 100.0;
+    private static final long NANOSECONDS_PER_MILLISECOND = 1000000;
+
+    private MesoscopicValidation() {
+
+    }
+
+    /**
+     * This method runs the harness. The number of ticks and at least one
+     * configuration folder must be given as command line arguments.
+     * 
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(ERROR_USAGE);
+            return;
+        }
+        int ticks;
+        try {
+            ticks = Integer.parseInt(args[0]);
+        } catch (NumberFormatException numberFormatException) {
+            System.err.println(ERROR_USAGE);
+            return;
+        }
+        for (int i = 1; i < args.length; i++) {
+            try {
+                validate(args[i], ticks);
+            } catch (FailedBuildException | IOException | ParseException exception) {
+                // A folder with streets the mesoscopic engine does not support must not stop the others
+                System.err.println(ERROR_FOLDER.formatted(args[i], exception.getMessage()));
+            }
+        }
+    }
+
+    private static void validate(String path, int ticks) throws FailedBuildException, IOException, ParseException {
+        Network reference = load(path, EngineMode.SEQUENTIAL);
+        Network mesoscopic = load(path, EngineMode.MESOSCOPIC);
+        long referenceTime = measure(reference, ticks);
+        long mesoscopicTime = measure(mesoscopic, ticks);
+        long[] referenceTotals = getTotals(reference);
+        long[] mesoscopicTotals = getTotals(mesoscopic);
+        double difference = referenceTotals[0] == 0
+                ? 0
+                : PERCENT * (mesoscopicTotals[0] - referenceTotals[0]) / referenceTotals[0];
+        System.out.println(RESULT.formatted(path, reference.getNumberOfCars(), referenceTotals[0],
+                EngineMode.SEQUENTIAL, mesoscopicTotals[0], EngineMode.MESOSCOPIC, difference, referenceTotals[1],
+                mesoscopicTotals[1], referenceTime, mesoscopicTime));
+    }
+
+    private static Network load(String path, EngineMode engineMode)
+            throws FailedBuildException, IOException, ParseException {
+        SimulationFileLoader fileLoader = new SimulationFileLoader(path);
+        Network network;
+        try (BufferedReader crossings = fileLoader.openCrossings();
+                BufferedReader streets = fileLoader.openStreets();
+                BufferedReader cars = fileLoader.openCars()) {
+            network = new NetworkParser().parse(crossings, streets, cars);
+        }
+        network.setEngineMode(engineMode);
+        return network;
+    }
+
+    private static long measure(Network network, int ticks) {
+        long start = System.nanoTime();
+        network.simulate(ticks);
+        return (System.nanoTime() - start) / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    private static long[] getTotals(Network network) {
+        // The cars of a configuration folder may have any IDs, so they are looked up until all are found
+        long distance = 0;
+        long standing = 0;
+        int found = 0;
+        for (int id = 0; id >= 0 && found < network.getNumberOfCars(); id++) {
+            Car car;
+            try {
+                car = network.getCar(id);
+            } catch (ParseException parseException) {
+                continue;
+            }
+            found++;
+            distance += car.getMileage();
+            standing += car.getSpeed() == 0 ? 1 : 0;
+        }
+        return new long[] {distance, standing};
+    }
+
+}
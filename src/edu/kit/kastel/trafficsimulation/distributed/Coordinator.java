@@ -0,0 +1,187 @@
+package edu.kit.kastel.trafficsimulation.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.kit.kastel.trafficsimulation.exceptions.DistributionException;
+import edu.kit.kastel.trafficsimulation.simulation.Network;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkPartition;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSerializer;
+
+/**
+ * This class distributes the simulation of a network across several worker
+ * processes on the local machine. The workers are started by the coordinator
+ * and connect to it over loopback TCP. For every call of
+ * {@link #simulate(Network, int)} the network is split into
+ * {@link NetworkPartition}s, each worker simulates one partition and the
+ * coordinator waits for all of them before the resulting state is written back.
+ * If the network was cut between its nodes, the coordinator also relays the
+ * batches of cars crossing between the partitions after every tick: it waits
+ * for the batch of every worker and then sends each worker the batches of all
+ * others, so no worker starts a tick before all finished the previous one. The
+ * result is identical to {@link Network#simulate(int)}.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Coordinator {
+
+    private static final int CONNECT_TIMEOUT = 30000;
+
+    private static final String ERROR_START_WORKERS = "Could not start worker processes: %s ";
+    private static final String ERROR_WORKER_FAILED = "Worker %d failed: %s ";
+
+    private final List<Process> processes;
+    private final List<Socket> sockets;
+    private final List<DataInputStream> inputs;
+    private final List<DataOutputStream> outputs;
+
+    /**
+     * This constructor starts a given number of worker processes and waits until
+     * all of them are connected.
+     * 
+     * @param numberOfWorkers Number of worker processes to be started
+     * @throws DistributionException if the worker processes could not be started
+     *                               or did not connect in time
+     */
+    public Coordinator(int numberOfWorkers) throws DistributionException {
+        this.processes = new ArrayList<>();
+        this.sockets = new ArrayList<>();
+        this.inputs = new ArrayList<>();
+        this.outputs = new ArrayList<>();
+
+        try (ServerSocket serverSocket = new ServerSocket(0, numberOfWorkers,
+                InetAddress.getByName(WorkerProtocol.HOST))) {
+            serverSocket.setSoTimeout(CONNECT_TIMEOUT);
+            String javaCommand = ProcessHandle.current().info().command().orElse("java");
+            String classPath = System.getProperty("java.class.path");
+            for (int i = 0; i < numberOfWorkers; i++) {
+                ProcessBuilder processBuilder = new ProcessBuilder(javaCommand, "-cp", classPath,
+                        Worker.class.getName(), String.valueOf(serverSocket.getLocalPort()));
+                processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+                processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+                this.processes.add(processBuilder.start());
+            }
+            for (int i = 0; i < numberOfWorkers; i++) {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                this.sockets.add(socket);
+                this.inputs.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                this.outputs.add(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            }
+        } catch (IOException ioException) {
+            this.close();
+            throw new DistributionException(ERROR_START_WORKERS.formatted(ioException.getMessage()));
+        }
+    }
+
+    /**
+     * This method returns the number of worker processes of this coordinator.
+     * 
+     * @return Number of worker processes
+     */
+    public int getNumberOfWorkers() {
+        return this.sockets.size();
+    }
+
+    /**
+     * This method lets a certain number of ticks elapse in a network by
+     * simulating its partitions in the worker processes. The state of the network
+     * is only changed if all workers succeeded.
+     * 
+     * @param network Network in which the ticks should elapse
+     * @param ticks   Number of ticks that should elapse
+     * @throws DistributionException if a worker failed or the connection to it
+     *                               was lost
+     */
+    public void simulate(Network network, int ticks) throws DistributionException {
+        List<NetworkPartition> partitions = NetworkPartition.partition(network, this.getNumberOfWorkers());
+        List<byte[]> states = new ArrayList<>();
+        int worker = 0;
+        try {
+            for (worker = 0; worker < partitions.size(); worker++) {
+                DataOutputStream output = this.outputs.get(worker);
+                output.writeInt(WorkerProtocol.REQUEST_SIMULATE);
+                output.writeInt(ticks);
+                partitions.get(worker).write(output);
+                output.flush();
+            }
+            // Every tick ends with a barrier at which the crossing cars are exchanged
+            if (!partitions.isEmpty() && partitions.get(0).isCut()) {
+                for (int tick = 0; tick < ticks; tick++) {
+                    List<byte[]> batches = new ArrayList<>();
+                    for (worker = 0; worker < partitions.size(); worker++) {
+                        batches.add(this.receive(worker));
+                    }
+                    for (worker = 0; worker < partitions.size(); worker++) {
+                        this.sendBatches(worker, batches);
+                    }
+                }
+            }
+            // Barrier: every worker has to finish before any state is applied, so the
+            // network stays untouched if one of them fails
+            for (worker = 0; worker < partitions.size(); worker++) {
+                states.add(this.receive(worker));
+            }
+            for (byte[] state : states) {
+                NetworkSerializer.readState(new DataInputStream(new ByteArrayInputStream(state)), network);
+            }
+        } catch (IOException ioException) {
+            this.close();
+            throw new DistributionException(ERROR_WORKER_FAILED.formatted(worker, ioException.getMessage()));
+        }
+    }
+
+    private byte[] receive(int worker) throws IOException {
+        DataInputStream input = this.inputs.get(worker);
+        if (input.readInt() != WorkerProtocol.RESPONSE_OK) {
+            throw new IOException(input.readUTF());
+        }
+        byte[] state = new byte[input.readInt()];
+        input.readFully(state);
+        return state;
+    }
+
+    private void sendBatches(int worker, List<byte[]> batches) throws IOException {
+        DataOutputStream output = this.outputs.get(worker);
+        output.writeInt(batches.size() - 1);
+        for (int i = 0; i < batches.size(); i++) {
+            if (i != worker) {
+                output.writeInt(batches.get(i).length);
+                output.write(batches.get(i));
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * This method closes the connections to all workers, which lets them
+     * terminate.
+     */
+    public void close() {
+        for (Socket socket : this.sockets) {
+            try {
+                socket.close();
+            } catch (IOException ioException) {
+                // The worker terminates anyway if the connection is broken
+            }
+        }
+        this.sockets.clear();
+        this.inputs.clear();
+        this.outputs.clear();
+        for (Process process : this.processes) {
+            process.destroy();
+        }
+        this.processes.clear();
+    }
+
+}
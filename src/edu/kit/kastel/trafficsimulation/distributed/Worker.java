@@ -0,0 +1,108 @@
+package edu.kit.kastel.trafficsimulation.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.simulation.Network;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkPartition;
+
+/**
+ * This is a worker process of a distributed simulation. It connects to a
+ * coordinator on the local machine, receives network partitions, simulates
+ * them and sends their state back. A partition that was cut between nodes
+ * exchanges the cars crossing its boundary through the coordinator after every
+ * tick. It terminates as soon as the coordinator
+ * closes the connection.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class Worker {
+
+    private static final String ERROR_USAGE = "Usage: Worker <port>";
+    private static final String ERROR_UNKNOWN_REQUEST = "Unknown request %d. ";
+
+    private Worker() {
+
+    }
+
+    /**
+     * This method connects to the coordinator listening on the port given as the
+     * only command line argument and answers its requests until the connection is
+     * closed.
+     * 
+     * @param args Command line arguments, the port of the coordinator
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println(ERROR_USAGE);
+            return;
+        }
+        try (Socket socket = new Socket(WorkerProtocol.HOST, Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            serve(input, output);
+        } catch (EOFException eofException) {
+            // The coordinator closed the connection
+        } catch (IOException | NumberFormatException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    private static void serve(DataInputStream input, DataOutputStream output) throws IOException {
+        while (true) {
+            int request = input.readInt();
+            if (request != WorkerProtocol.REQUEST_SIMULATE) {
+                throw new IOException(ERROR_UNKNOWN_REQUEST.formatted(request));
+            }
+            int ticks = input.readInt();
+            try {
+                Network network = NetworkPartition.read(input, batch -> exchange(input, output, batch));
+                network.simulate(ticks);
+                ByteArrayOutputStream state = new ByteArrayOutputStream();
+                NetworkPartition.writeState(new DataOutputStream(state), network);
+                output.writeInt(WorkerProtocol.RESPONSE_OK);
+                output.writeInt(state.size());
+                state.writeTo(output);
+            } catch (UncheckedIOException uncheckedIOException) {
+                // The connection was lost while batches were exchanged during a tick
+                throw uncheckedIOException.getCause();
+            } catch (FailedBuildException failedBuildException) {
+                // The rest of the partition cannot be read anymore, so give up
+                output.writeInt(WorkerProtocol.RESPONSE_FAILED);
+                output.writeUTF(failedBuildException.getMessage());
+                output.flush();
+                return;
+            }
+            output.flush();
+        }
+    }
+
+    private static List<byte[]> exchange(DataInputStream input, DataOutputStream output, byte[] batch)
+            throws IOException {
+        output.writeInt(WorkerProtocol.RESPONSE_OK);
+        output.writeInt(batch.length);
+        output.write(batch);
+        output.flush();
+        int numberOfBatches = input.readInt();
+        List<byte[]> batches = new ArrayList<>();
+        for (int i = 0; i < numberOfBatches; i++) {
+            byte[] otherBatch = new byte[input.readInt()];
+            input.readFully(otherBatch);
+            batches.add(otherBatch);
+        }
+        return batches;
+    }
+
+}
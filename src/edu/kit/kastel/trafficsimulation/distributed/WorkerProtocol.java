@@ -0,0 +1,44 @@
+package edu.kit.kastel.trafficsimulation.distributed;
+
+/**
+ * This class contains the constants of the protocol that the coordinator and
+ * its workers use to communicate. For every simulate request the coordinator
+ * sends {@link #REQUEST_SIMULATE}, the number of ticks and a network partition.
+ * If the partition was cut between nodes, after every tick the worker sends
+ * {@link #RESPONSE_OK} followed by the length and the bytes of its batch of
+ * crossing cars, and the coordinator answers with the number of batches of the
+ * other workers, each as its length and its bytes. After the last tick the
+ * worker answers with {@link #RESPONSE_OK} followed by the length and the
+ * bytes of the state of the partition, or with {@link #RESPONSE_FAILED}
+ * followed by an error message.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+final class WorkerProtocol {
+
+    /**
+     * Request to simulate a number of ticks on a network partition.
+     */
+    static final int REQUEST_SIMULATE = 1;
+
+    /**
+     * Response of a worker whose request was successful.
+     */
+    static final int RESPONSE_OK = 0;
+
+    /**
+     * Response of a worker whose request failed.
+     */
+    static final int RESPONSE_FAILED = 1;
+
+    /**
+     * Address on which the coordinator waits for its workers.
+     */
+    static final String HOST = "127.0.0.1";
+
+    private WorkerProtocol() {
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package edu.kit.kastel.trafficsimulation.exceptions;
+
+/**
+ * This class represents an exception that gets thrown if the simulation could
+ * not be distributed across worker processes or a worker process failed.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class DistributionException extends GeneralSimulationException {
+
+    /**
+     * This constructor creates a new DistributionException. It takes a message
+     * that should contain exact information about why this exception was thrown.
+     * 
+     * @param message A message that should contain exact information about why this
+     *                exception was thrown
+     */
+    public DistributionException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,95 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.CarConfiguration;
+import edu.kit.kastel.trafficsimulation.simulation.DemandSource;
+import edu.kit.kastel.trafficsimulation.simulation.Trip;
+
+/**
+ * This class reads trips line by line from a demand file while the simulation
+ * is running. Only the next trip is held in memory, so the file can contain
+ * any number of trips.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class DemandReader implements DemandSource {
+
+    private static final String TRIP_REGEX = "(\\d+):(\\d+),(\\d+),(\\d+),(\\d+),(\\d+)";
+    private static final int TRIP_TICK_GROUP = 1;
+    private static final int TRIP_ID_GROUP = 2;
+    private static final int TRIP_STREET_GROUP = 3;
+    private static final int TRIP_VELOCITY_GROUP = 4;
+    private static final int TRIP_ACCELERATION_GROUP = 5;
+    private static final int TRIP_DESTINATION_GROUP = 6;
+
+    private static final String ERROR_NO_PATTERN_MATCH = "Demand at line %d did not match pattern '%s'.";
+    private static final String ERROR_NOT_INTEGER = "Number in demand at line %d was not within the integer range. ";
+    private static final String ERROR_NOT_ORDERED = "Demand at line %d is not ordered by tick. ";
+    private static final String ERROR_NOT_READABLE = "Demand at line %d could not be read. ";
+
+    private final BufferedReader reader;
+    private final Matcher matcher;
+    private int lineNumber;
+    private int lastTick;
+
+    /**
+     * This constructor creates a new demand reader that reads trips from the
+     * given reader. Every line must match {@value #TRIP_REGEX}, that is the tick
+     * followed by the car in the format of the car file including its
+     * destination.
+     * 
+     * @param reader Reader of the demand file
+     */
+    public DemandReader(BufferedReader reader) {
+        this.reader = reader;
+        this.matcher = Pattern.compile(TRIP_REGEX).matcher("");
+        this.lineNumber = 0;
+        this.lastTick = 0;
+    }
+
+    @Override
+    public Trip nextTrip() throws ParseException {
+        String line;
+        try {
+            line = this.reader.readLine();
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_NOT_READABLE.formatted(this.lineNumber));
+        }
+        if (line == null) {
+            return null;
+        }
+
+        if (!this.matcher.reset(line).matches()) {
+            throw new ParseException(ERROR_NO_PATTERN_MATCH.formatted(this.lineNumber, TRIP_REGEX));
+        }
+        try {
+            int tick = Integer.parseInt(this.matcher.group(TRIP_TICK_GROUP));
+            if (tick < this.lastTick) {
+                throw new ParseException(ERROR_NOT_ORDERED.formatted(this.lineNumber));
+            }
+            this.lastTick = tick;
+            int id = Integer.parseInt(this.matcher.group(TRIP_ID_GROUP));
+            int streetId = Integer.parseInt(this.matcher.group(TRIP_STREET_GROUP));
+            int velocity = Integer.parseInt(this.matcher.group(TRIP_VELOCITY_GROUP));
+            int acceleration = Integer.parseInt(this.matcher.group(TRIP_ACCELERATION_GROUP));
+            int destination = Integer.parseInt(this.matcher.group(TRIP_DESTINATION_GROUP));
+            return new Trip(tick, new CarConfiguration(id, streetId, velocity, acceleration, destination));
+        } catch (NumberFormatException numberFormatException) {
+            throw new ParseException(ERROR_NOT_INTEGER.formatted(this.lineNumber));
+        } finally {
+            this.lineNumber++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+}
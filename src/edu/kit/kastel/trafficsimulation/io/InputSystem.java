@@ -1,18 +1,44 @@
 package edu.kit.kastel.trafficsimulation.io;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Scanner;
 import java.util.regex.Matcher;
 
 import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.io.commands.AddCar;
+import edu.kit.kastel.trafficsimulation.io.commands.AddStreet;
+import edu.kit.kastel.trafficsimulation.io.commands.Cancel;
+import edu.kit.kastel.trafficsimulation.io.commands.CloseStreet;
 import edu.kit.kastel.trafficsimulation.io.commands.Command;
+import edu.kit.kastel.trafficsimulation.io.commands.Distribute;
+import edu.kit.kastel.trafficsimulation.io.commands.Engine;
+import edu.kit.kastel.trafficsimulation.io.commands.Gridlocks;
+import edu.kit.kastel.trafficsimulation.io.commands.History;
 import edu.kit.kastel.trafficsimulation.io.commands.Load;
+import edu.kit.kastel.trafficsimulation.io.commands.Memory;
 import edu.kit.kastel.trafficsimulation.io.commands.Position;
+import edu.kit.kastel.trafficsimulation.io.commands.PositionAt;
+import edu.kit.kastel.trafficsimulation.io.commands.Progress;
+import edu.kit.kastel.trafficsimulation.io.commands.RecordHistory;
+import edu.kit.kastel.trafficsimulation.io.commands.RemoveCar;
+import edu.kit.kastel.trafficsimulation.io.commands.Routing;
+import edu.kit.kastel.trafficsimulation.io.commands.Save;
+import edu.kit.kastel.trafficsimulation.io.commands.Serve;
+import edu.kit.kastel.trafficsimulation.io.commands.Sessions;
+import edu.kit.kastel.trafficsimulation.io.commands.SetPhase;
 import edu.kit.kastel.trafficsimulation.io.commands.Simulate;
+import edu.kit.kastel.trafficsimulation.io.commands.Trajectory;
+import edu.kit.kastel.trafficsimulation.io.commands.Use;
+import edu.kit.kastel.trafficsimulation.io.commands.Watch;
+import edu.kit.kastel.trafficsimulation.simulation.BackgroundSimulation;
 import edu.kit.kastel.trafficsimulation.simulation.Simulation;
 
 /**
  * This class deals with user inputs and redirects it to the corresponding
- * commands.
+ * commands. The results of the commands are written by an
+ * {@link OutputPipeline}, so the simulation does not wait for the output.
  * 
  * @author ulqch
  * @version 1.0
@@ -24,43 +50,109 @@ public class InputSystem {
 
     private final Command[] commands = {
         new Load(),
+        new Use(),
+        new Sessions(),
         new Position(),
-        new Simulate()
+        new Simulate(),
+        new Distribute(),
+        new AddCar(),
+        new RemoveCar(),
+        new AddStreet(),
+        new CloseStreet(),
+        new SetPhase(),
+        new Watch(),
+        new Routing(),
+        new Engine(),
+        new Save(),
+        new Memory(),
+        new RecordHistory(),
+        new History(),
+        new Trajectory(),
+        new PositionAt(),
+        new Serve(),
+        new Progress(),
+        new Cancel(),
+        new Gridlocks()
     };
+    private final OutputPipeline output = new OutputPipeline(new FileOutputStream(FileDescriptor.out));
 
     /**
      * This method repeatedly scans user input from the command line and executes
      * the corresponding commands on the simulation object given as a parameter.
-     * This loop ends if the user enters {@value #QUIT_COMMAND}.
+     * This loop ends if the user enters {@value #QUIT_COMMAND}, the simulation is
+     * closed then. All output is written before this method returns.
      * 
      * @param simulation Simulation to be affected by the user's input
      */
     public void loop(Simulation simulation) {
         Scanner scanner = new Scanner(System.in);
-        String input = scanner.nextLine();
-        while (!input.equals(QUIT_COMMAND)) {
+        try {
+            String input = scanner.nextLine();
+            while (!input.equals(QUIT_COMMAND)) {
+                this.execute(input, simulation);
+                input = scanner.nextLine();
+            }
+
+            try {
+                simulation.close();
+            } catch (ParseException parseException) {
+                this.output.println(parseException.getMessage());
+            }
+        } finally {
+            scanner.close();
+            this.closeOutput();
+        }
+    }
+
+    /**
+     * This method executes the command matching a single line of user input on
+     * the simulation object given as a parameter and prints its result. The
+     * resulting state of the network is published to the readers of its
+     * snapshots. If ticks elapse in the background, the command is executed at
+     * the next tick boundary, and the end of the background simulation is
+     * reported before the next command.
+     * 
+     * @param input      Line of user input
+     * @param simulation Simulation to be affected by the user's input
+     */
+    public void execute(String input, Simulation simulation) {
+        BackgroundSimulation background = simulation.getBackground();
+        background.lock();
+        try {
+            this.print(background.pollResult());
+            this.print(simulation.reloadChangedFiles());
 
             boolean commandFound = false;
             for (Command command : commands) {
                 Matcher matcher = command.getRegExPattern().matcher(input);
                 if (matcher.matches()) {
                     commandFound = true;
-                    String result = command.execute(matcher, simulation);
-                    if (result != null) {
-                        System.out.println(result);
-                    }
+                    this.print(command.execute(matcher, simulation));
                 }
             }
 
             if (!commandFound) {
                 Exception exception = new ParseException(ERROR_COMMAND_NOT_FOUND);
-                System.out.println(exception.getMessage());
+                this.output.println(exception.getMessage());
             }
+            simulation.publishSnapshot();
+        } finally {
+            background.unlock();
+        }
+    }
 
-            input = scanner.nextLine();
+    private void print(String message) {
+        if (message != null) {
+            this.output.println(message);
         }
+    }
 
-        scanner.close();
+    private void closeOutput() {
+        try {
+            this.output.close();
+        } catch (IOException ioException) {
+            // The output is gone, so there is nowhere left to report this
+        }
     }
 
 }
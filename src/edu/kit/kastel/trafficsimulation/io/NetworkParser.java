@@ -1,17 +1,25 @@
 package edu.kit.kastel.trafficsimulation.io;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
 import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Car;
+import edu.kit.kastel.trafficsimulation.simulation.CarConfiguration;
 import edu.kit.kastel.trafficsimulation.simulation.Network;
 import edu.kit.kastel.trafficsimulation.simulation.NetworkBuilder;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkEditor;
 
 /**
  * This class provides functionality to build a traffic network from strings
- * that contain the necessary information.
+ * that contain the necessary information. The strings are read line by line
+ * from readers while they are parsed, so they never have to be held in memory
+ * at once.
  * 
  * @author ulqch
  * @version 1.0
@@ -29,11 +37,12 @@ public class NetworkParser {
     private static final int STREET_NUMBER_LANES_GROUP = 4;
     private static final int STREET_SPEED_LIMIT_GROUP = 5;
 
-    private static final String CAR_REGEX = "(\\d+),(\\d+),(\\d+),(\\d+)";
+    private static final String CAR_REGEX = "(\\d+),(\\d+),(\\d+),(\\d+)(?:,(\\d+))?";
     private static final int CAR_ID_GROUP = 1;
     private static final int CAR_STREET_GROUP = 2;
     private static final int CAR_VELOCITY_GROUP = 3;
     private static final int CAR_ACCELERATION_GROUP = 4;
+    private static final int CAR_DESTINATION_GROUP = 5;
 
     private static final String ERROR_NO_PATTERN_MATCH = "Input at line %d did not match pattern '%s'.";
     private static final String ERROR_NOT_INTEGER = "Number at line %d was not within the integer range. ";
@@ -49,32 +58,54 @@ public class NetworkParser {
     }
 
     /**
-     * This method parses node, street and cars information from given string
-     * lists. Then it returns a valid network with that given configuration. 
+     * This method parses node, street and cars information from given readers
+     * of lines. Then it returns a valid network with that given configuration. 
      * 
-     * @param nodes   List of strings containing information about the nodes of the
-     *                network. Strings must match {@value #NODE_REGEX} pattern.
-     * @param streets List of strings containing information about the streets of
-     *                the network. String must match {@value #STREET_REGEX} pattern.
-     * @param cars    List of strings containing information about the cars of the
-     *                network. Strings must match {@value #CAR_REGEX} pattern.
+     * @param nodes   Reader of lines containing information about the nodes of the
+     *                network. Lines must match {@value #NODE_REGEX} pattern.
+     * @param streets Reader of lines containing information about the streets of
+     *                the network. Lines must match {@value #STREET_REGEX} pattern.
+     * @param cars    Reader of lines containing information about the cars of the
+     *                network. Lines must match {@value #CAR_REGEX} pattern.
      * @return A valid network with the given configuration
-     * @throws ParseException       if some string could not be processed
+     * @throws ParseException       if some line could not be processed
      * @throws FailedBuildException if the information provided results in an
      *                              invalid network
+     * @throws IOException          if a line could not be read
      */
-    public Network parse(List<String> nodes, List<String> streets, List<String> cars)
-            throws ParseException, FailedBuildException {
+    public Network parse(BufferedReader nodes, BufferedReader streets, BufferedReader cars)
+            throws ParseException, FailedBuildException, IOException {
         this.parseNodes(nodes);
         this.parseStreets(streets);
-        this.parseCars(cars);
+        this.parseCars(cars, this.networkBuilder::putCar);
         return this.networkBuilder.build();
     }
 
-    private void parseNodes(List<String> strings) throws ParseException, FailedBuildException {
+    /**
+     * This method parses cars information from a given reader of lines and
+     * replaces the cars of an existing network by these cars. The nodes and
+     * streets of the network are kept, the signal phases are reset. If the lines
+     * cannot be processed, the network stays unchanged.
+     * 
+     * @param network Network whose cars should be replaced
+     * @param cars    Reader of lines containing information about the cars of the
+     *                network. Lines must match {@value #CAR_REGEX} pattern.
+     * @throws ParseException       if some line could not be processed
+     * @throws FailedBuildException if the cars cannot be placed in the network
+     * @throws IOException          if a line could not be read
+     */
+    public void replaceCars(Network network, BufferedReader cars)
+            throws ParseException, FailedBuildException, IOException {
+        List<CarConfiguration> configurations = new ArrayList<>();
+        this.parseCars(cars, (id, streetId, velocity, acceleration, destination)
+            -> configurations.add(new CarConfiguration(id, streetId, velocity, acceleration, destination)));
+        new NetworkEditor(network).replaceCars(configurations);
+    }
+
+    private void parseNodes(BufferedReader reader) throws ParseException, FailedBuildException, IOException {
         Pattern pattern = Pattern.compile(NODE_REGEX);
-        for (int i = 0; i < strings.size(); i++) {
-            String string = strings.get(i);
+        int i = 0;
+        for (String string = reader.readLine(); string != null; string = reader.readLine(), i++) {
             Matcher matcher = pattern.matcher(string);
             if (!matcher.matches()) {
                 String message = ERROR_NO_PATTERN_MATCH.formatted(i, pattern.pattern());
@@ -91,10 +122,10 @@ public class NetworkParser {
         }
     }
 
-    private void parseStreets(List<String> strings) throws ParseException, FailedBuildException {
+    private void parseStreets(BufferedReader reader) throws ParseException, FailedBuildException, IOException {
         Pattern pattern = Pattern.compile(STREET_REGEX);
-        for (int i = 0; i < strings.size(); i++) {
-            String string = strings.get(i);
+        int i = 0;
+        for (String string = reader.readLine(); string != null; string = reader.readLine(), i++) {
             Matcher matcher = pattern.matcher(string);
             if (!matcher.matches()) {
                 String message = ERROR_NO_PATTERN_MATCH.formatted(i, pattern.pattern());
@@ -114,10 +145,11 @@ public class NetworkParser {
         }
     }
 
-    private void parseCars(List<String> strings) throws ParseException, FailedBuildException {
+    private void parseCars(BufferedReader reader, CarPlacer placer)
+            throws ParseException, FailedBuildException, IOException {
         Pattern pattern = Pattern.compile(CAR_REGEX);
-        for (int i = 0; i < strings.size(); i++) {
-            String string = strings.get(i);
+        int i = 0;
+        for (String string = reader.readLine(); string != null; string = reader.readLine(), i++) {
             Matcher matcher = pattern.matcher(string);
             if (!matcher.matches()) {
                 String message = ERROR_NO_PATTERN_MATCH.formatted(i, pattern.pattern());
@@ -128,7 +160,9 @@ public class NetworkParser {
                 int streetId = Integer.parseInt(matcher.group(CAR_STREET_GROUP));
                 int velocity = Integer.parseInt(matcher.group(CAR_VELOCITY_GROUP));
                 int acceleration = Integer.parseInt(matcher.group(CAR_ACCELERATION_GROUP));
-                networkBuilder.putCar(id, streetId, velocity, acceleration);
+                String destinationGroup = matcher.group(CAR_DESTINATION_GROUP);
+                int destination = destinationGroup == null ? Car.NO_DESTINATION : Integer.parseInt(destinationGroup);
+                placer.putCar(id, streetId, velocity, acceleration, destination);
             } catch (NumberFormatException numberFormatException) {
                 String message = ERROR_NOT_INTEGER.formatted(i);
                 throw new ParseException(message);
@@ -137,4 +171,26 @@ public class NetworkParser {
 
     }
 
+    /**
+     * This interface represents something that a parsed car can be put on.
+     */
+    @FunctionalInterface
+    private interface CarPlacer {
+
+        /**
+         * This method puts a parsed car on a street.
+         * 
+         * @param id           Car ID
+         * @param streetId     ID of the street on which the car should be placed
+         * @param velocity     Desired velocity of the car
+         * @param acceleration Acceleration of the car
+         * @param destination  ID of the node the car should drive to or
+         *                     {@value Car#NO_DESTINATION}
+         * @throws FailedBuildException if the car cannot be placed
+         */
+        void putCar(int id, int streetId, int velocity, int acceleration, int destination)
+                throws FailedBuildException;
+
+    }
+
 }
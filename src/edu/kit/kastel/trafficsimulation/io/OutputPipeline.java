@@ -0,0 +1,169 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class writes lines of output on a separate writer thread, so a slow
+ * consumer of the output does not stall the thread that runs the simulation.
+ * The lines are passed to the writer thread through a bounded ring buffer
+ * with a single producer and a single consumer. The writer thread writes all
+ * lines that are available at once and flushes the output as soon as the
+ * buffer is empty, so every line appears without delay while the producer is
+ * idle.
+ * <p>
+ * The order of the lines is kept. If the buffer is full, the producer waits
+ * until the writer thread has made room, so no line is lost and the memory of
+ * the buffer stays bounded.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class OutputPipeline implements Closeable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int WRITER_BUFFER_SIZE = 1 << 16;
+    private static final long FULL_WAIT_NANOS = 50_000;
+    private static final String THREAD_NAME = "output-writer";
+
+    private final String[] lines;
+    private final int mask;
+    private final Writer writer;
+    private final Thread thread;
+    // Written by the producer only
+    private volatile long tail;
+    // Written by the writer thread only
+    private volatile long head;
+    private volatile boolean sleeping;
+    private volatile boolean closed;
+    private IOException error;
+
+    /**
+     * This constructor creates a new output pipeline that writes to the given
+     * stream and starts its writer thread.
+     * 
+     * @param output Stream the lines are written to
+     */
+    public OutputPipeline(OutputStream output) {
+        this(output, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * This constructor creates a new output pipeline that writes to the given
+     * stream and starts its writer thread.
+     * 
+     * @param output   Stream the lines are written to
+     * @param capacity Number of lines the buffer can hold, rounded up to a power
+     *                 of two
+     */
+    public OutputPipeline(OutputStream output, int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1);
+        this.lines = new String[size];
+        this.mask = size - 1;
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, Charset.defaultCharset()),
+                WRITER_BUFFER_SIZE);
+        this.tail = 0;
+        this.head = 0;
+        this.sleeping = false;
+        this.closed = false;
+        this.error = null;
+        this.thread = new Thread(this::write, THREAD_NAME);
+        // A producer that dies must not keep the process alive
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * This method passes a line to the writer thread. It must only be called by
+     * one thread at a time. It waits while the buffer is full.
+     * 
+     * @param line Line to be written without a line separator
+     */
+    public void println(String line) {
+        long position = this.tail;
+        while (position - this.head == this.lines.length) {
+            this.wakeWriter();
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+        this.lines[(int) (position & this.mask)] = line;
+        this.tail = position + 1;
+        if (this.sleeping) {
+            this.wakeWriter();
+        }
+    }
+
+    /**
+     * This method waits until all lines passed so far are written, flushes the
+     * output and stops the writer thread. The stream itself is not closed.
+     * 
+     * @throws IOException if writing a line failed
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.wakeWriter();
+        try {
+            this.thread.join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+
+    private void wakeWriter() {
+        LockSupport.unpark(this.thread);
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                long available = this.tail;
+                long position = this.head;
+                if (position == available) {
+                    // Give a busy producer the chance to add more lines to the batch
+                    Thread.yield();
+                    if (this.tail != position) {
+                        continue;
+                    }
+                    this.writer.flush();
+                    if (this.closed && this.tail == position) {
+                        return;
+                    }
+                    this.sleep(position);
+                    continue;
+                }
+                // Write everything that is available as one batch
+                while (position < available) {
+                    int index = (int) (position & this.mask);
+                    this.writer.write(this.lines[index]);
+                    this.writer.write(System.lineSeparator());
+                    this.lines[index] = null;
+                    position++;
+                    this.head = position;
+                }
+            }
+        } catch (IOException ioException) {
+            this.error = ioException;
+            // Let a waiting producer go on, the lines are lost anyway
+            this.head = Long.MAX_VALUE / 2;
+        }
+    }
+
+    private void sleep(long position) {
+        this.sleeping = true;
+        // The producer checks the flag after publishing, so a line cannot be missed
+        if (this.tail == position && !this.closed) {
+            LockSupport.park(this);
+        }
+        this.sleeping = false;
+    }
+
+}
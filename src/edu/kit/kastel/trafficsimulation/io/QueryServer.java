@@ -0,0 +1,259 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSnapshot;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSnapshot.CarState;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSnapshot.NodeState;
+import edu.kit.kastel.trafficsimulation.simulation.NetworkSnapshot.StreetState;
+import edu.kit.kastel.trafficsimulation.simulation.SnapshotPublisher;
+
+/**
+ * This class serves the state of the loaded network as JSON over HTTP on the
+ * local machine. Every request is answered from the last snapshot published by
+ * a {@link SnapshotPublisher}, so requests never block the simulation. The
+ * lists of all cars, streets and nodes are rendered once per snapshot and
+ * shared by all requests for it.
+ * <p>
+ * The paths are {@code /}, {@code /cars}, {@code /cars/<id>}, {@code /streets},
+ * {@code /streets/<id>}, {@code /nodes} and {@code /nodes/<id>}.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class QueryServer implements Closeable {
+
+    private static final int BACKLOG = 1024;
+    private static final String THREAD_NAME = "query-server";
+    private static final String METHOD_GET = "GET";
+    private static final String PATH_SEPARATOR = "/";
+    private static final String PATH_CARS = "cars";
+    private static final String PATH_STREETS = "streets";
+    private static final String PATH_NODES = "nodes";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String JSON_TYPE = "application/json";
+    private static final String JSON_SUMMARY = "{\"tick\":%d,\"cars\":%d,\"streets\":%d,\"nodes\":%d}";
+    private static final String JSON_CAR = "{\"id\":%d,\"street\":%d,\"lane\":%d,\"position\":%d,\"speed\":%d}";
+    private static final String JSON_STREET = "{\"id\":%d,\"start\":%d,\"end\":%d,\"length\":%d,\"lanes\":%d,"
+            + "\"speedLimit\":%d,\"closed\":%b,\"cars\":%d}";
+    private static final String JSON_ROUNDABOUT = "{\"id\":%d,\"type\":\"roundabout\"}";
+    private static final String JSON_INTERSECTION = "{\"id\":%d,\"type\":\"intersection\",\"duration\":%d,"
+            + "\"countdown\":%d,\"greenStreet\":%d}";
+    private static final String JSON_ERROR = "{\"error\":\"%s\"}";
+    private static final String ERROR_NO_NETWORK = "No network is loaded.";
+    private static final String ERROR_NOT_FOUND = "Not found.";
+    private static final String ERROR_METHOD = "Only GET is supported.";
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_UNAVAILABLE = 503;
+
+    private final SnapshotPublisher publisher;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile RenderedLists renderedLists;
+
+    /**
+     * This constructor creates a new server and starts answering requests on the
+     * loopback address.
+     * 
+     * @param port      Port to listen on or 0 to choose a free port
+     * @param publisher Publisher of the snapshots to be served
+     * @throws IOException if the server cannot listen on the port
+     */
+    public QueryServer(int port, SnapshotPublisher publisher) throws IOException {
+        this.publisher = publisher;
+        this.renderedLists = null;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            // Requests should take the time the simulation does not need
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext(PATH_SEPARATOR, this::handle);
+        this.server.start();
+    }
+
+    /**
+     * This method returns the port this server listens on.
+     * 
+     * @return Port this server listens on
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * This method stops answering requests. Requests that are answered at the
+     * moment are dropped.
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals(METHOD_GET)) {
+                send(exchange, STATUS_METHOD_NOT_ALLOWED, JSON_ERROR.formatted(ERROR_METHOD));
+                return;
+            }
+            NetworkSnapshot snapshot = this.publisher.getSnapshot();
+            if (snapshot == null) {
+                send(exchange, STATUS_UNAVAILABLE, JSON_ERROR.formatted(ERROR_NO_NETWORK));
+                return;
+            }
+            byte[] body = this.answer(snapshot, exchange.getRequestURI().getPath().split(PATH_SEPARATOR));
+            if (body == null) {
+                send(exchange, STATUS_NOT_FOUND, JSON_ERROR.formatted(ERROR_NOT_FOUND));
+            } else {
+                send(exchange, STATUS_OK, body);
+            }
+        }
+    }
+
+    private byte[] answer(NetworkSnapshot snapshot, String[] path) {
+        // A path starts with a separator, so its first part is empty
+        if (path.length <= 1) {
+            return encode(JSON_SUMMARY.formatted(snapshot.getTick(), snapshot.getCars().size(),
+                    snapshot.getStreets().size(), snapshot.getNodes().size()));
+        }
+        RenderedLists lists = this.getRenderedLists(snapshot);
+        if (path.length == 2) {
+            return switch (path[1]) {
+                case PATH_CARS -> lists.getCars();
+                case PATH_STREETS -> lists.getStreets();
+                case PATH_NODES -> lists.getNodes();
+                default -> null;
+            };
+        }
+        int id;
+        try {
+            id = Integer.parseInt(path[2]);
+        } catch (NumberFormatException numberFormatException) {
+            return null;
+        }
+        if (path.length > 3) {
+            return null;
+        }
+        return encode(switch (path[1]) {
+            case PATH_CARS -> render(snapshot.findCar(id));
+            case PATH_STREETS -> render(snapshot.findStreet(id));
+            case PATH_NODES -> render(snapshot.findNode(id));
+            default -> null;
+        });
+    }
+
+    private RenderedLists getRenderedLists(NetworkSnapshot snapshot) {
+        RenderedLists lists = this.renderedLists;
+        if (lists == null || lists.snapshot != snapshot) {
+            // Two threads may render the same snapshot, but both results are equal
+            lists = new RenderedLists(snapshot);
+            this.renderedLists = lists;
+        }
+        return lists;
+    }
+
+    private static String render(CarState car) {
+        return car == null
+                ? null
+                : JSON_CAR.formatted(car.id(), car.street(), car.lane(), car.position(), car.speed());
+    }
+
+    private static String render(StreetState street) {
+        return street == null
+                ? null
+                : JSON_STREET.formatted(street.id(), street.startNode(), street.endNode(), street.length(),
+                        street.numberOfLanes(), street.speedLimit(), street.closed(), street.numberOfCars());
+    }
+
+    private static String render(NodeState node) {
+        if (node == null) {
+            return null;
+        }
+        return node.roundabout()
+                ? JSON_ROUNDABOUT.formatted(node.id())
+                : JSON_INTERSECTION.formatted(node.id(), node.duration(), node.countdown(), node.greenStreet());
+    }
+
+    private static <T> byte[] renderAll(List<T> elements, Function<T, String> renderer) {
+        StringJoiner joiner = new StringJoiner(",", "[", "]");
+        for (T element : elements) {
+            joiner.add(renderer.apply(element));
+        }
+        return encode(joiner.toString());
+    }
+
+    private static byte[] encode(String body) {
+        return body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, encode(body));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set(CONTENT_TYPE, JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * This class holds the lists of all cars, streets and nodes of a snapshot
+     * rendered as encoded JSON. Every list is rendered when it is first
+     * requested.
+     */
+    private static final class RenderedLists {
+
+        private final NetworkSnapshot snapshot;
+        private volatile byte[] cars;
+        private volatile byte[] streets;
+        private volatile byte[] nodes;
+
+        private RenderedLists(NetworkSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        private byte[] getCars() {
+            if (this.cars == null) {
+                this.cars = renderAll(this.snapshot.getCars(), QueryServer::render);
+            }
+            return this.cars;
+        }
+
+        private byte[] getStreets() {
+            if (this.streets == null) {
+                this.streets = renderAll(this.snapshot.getStreets(), QueryServer::render);
+            }
+            return this.streets;
+        }
+
+        private byte[] getNodes() {
+            if (this.nodes == null) {
+                this.nodes = renderAll(this.snapshot.getNodes(), QueryServer::render);
+            }
+            return this.nodes;
+        }
+
+    }
+
+}
@@ -1,13 +1,26 @@
 package edu.kit.kastel.trafficsimulation.io;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 /**
- * File loader for simulation files.
+ * File loader for simulation files. Every simulation file can also be compressed with gzip,
+ * its name then ends with {@value #SUFFIX_GZIP}. Files are read line by line while they are
+ * parsed, so they are never held in memory as a whole.
  *
  * @author Lucas Alber
  * @version 1.0
@@ -26,9 +39,19 @@ public final class SimulationFileLoader {
      * The filename for the simulation data representing cars.
      */
     public static final String FILENAME_CARS = "cars.sim";
+    /**
+     * The filename for the optional simulation data representing the demand of trips.
+     */
+    public static final String FILENAME_DEMAND = "demand.sim";
+    /**
+     * The suffix of the filename of a simulation file that is compressed with gzip.
+     */
+    public static final String SUFFIX_GZIP = ".gz";
 
+    private static final int BUFFER_SIZE = 1 << 16;
 
     private final Path folderPath;
+    private WatchService watchService;
 
 
     /**
@@ -47,51 +70,131 @@ public final class SimulationFileLoader {
         if (!folder.isDirectory()) {
             throw new IOException(String.format("%s is not a directory.", this.folderPath.toString()));
         }
+        this.watchService = null;
     }
 
 
     /**
-     * Loads the simulation file {@value FILENAME_STREETS} and returns the lines as list of String.
-     *
-     * The returned value is never {@code null}. An empty list is returned, if the file is empty.
+     * Opens the simulation file {@value FILENAME_STREETS} for reading it line by line.
+     * The caller has to close the returned reader.
      *
-     * @return     the lines of the file as list of String.
+     * @return     a reader of the file.
      *
      * @throws     IOException  if the file does not exist or points to a directory.
      */
-    public List<String> loadStreets() throws IOException {
-        return loadSimulationFile(FILENAME_STREETS);
+    public BufferedReader openStreets() throws IOException {
+        return openSimulationFile(FILENAME_STREETS);
     }
 
     /**
-     * Loads the simulation file {@value FILENAME_CROSSINGS} and returns the lines as list of String.
+     * Opens the simulation file {@value FILENAME_CROSSINGS} for reading it line by line.
+     * The caller has to close the returned reader.
+     *
+     * @return     a reader of the file.
      *
-     * The returned value is never {@code null}. An empty list is returned, if the file is empty.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    public BufferedReader openCrossings() throws IOException {
+        return openSimulationFile(FILENAME_CROSSINGS);
+    }
+
+    /**
+     * Opens the simulation file {@value FILENAME_CARS} for reading it line by line.
+     * The caller has to close the returned reader.
      *
-     * @return     the lines of the file as list of String.
+     * @return     a reader of the file.
      *
      * @throws     IOException  if the file does not exist or points to a directory.
      */
-    public List<String> loadCrossings() throws IOException {
-        return loadSimulationFile(FILENAME_CROSSINGS);
+    public BufferedReader openCars() throws IOException {
+        return openSimulationFile(FILENAME_CARS);
     }
 
+
     /**
-     * Loads the simulation file {@value FILENAME_CARS} and returns the lines as list of String.
+     * Opens the optional simulation file {@value FILENAME_DEMAND} for reading it line
+     * by line. The caller has to close the returned reader.
      *
-     * The returned value is never {@code null}. An empty list is returned, if the file is empty.
+     * @return     a reader of the file or {@code null}, if the file does not exist.
      *
-     * @return     the lines of the file as list of String.
+     * @throws     IOException  if the file points to a directory or cannot be opened.
+     */
+    public BufferedReader openDemand() throws IOException {
+        final Path filePath = resolve(FILENAME_DEMAND);
+        if (!filePath.toFile().exists()) {
+            return null;
+        }
+        return newReader(filePath);
+    }
+
+
+    /**
+     * Starts watching the folder for changes of the simulation files. Changes can be
+     * retrieved with {@link #pollChangedFiles()}. Calling this method again has no
+     * effect.
      *
-     * @throws     IOException  if the file does not exist or points to a directory.
+     * @throws     IOException  if the folder cannot be watched.
+     */
+    public void startWatching() throws IOException {
+        if (this.watchService != null) {
+            return;
+        }
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.folderPath.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Stops watching the folder for changes of the simulation files.
      */
-    public List<String> loadCars() throws IOException {
-        return loadSimulationFile(FILENAME_CARS);
+    public void stopWatching() {
+        if (this.watchService == null) {
+            return;
+        }
+        try {
+            this.watchService.close();
+        } catch (IOException ioException) {
+            // Nothing is watched anymore either way
+        }
+        this.watchService = null;
     }
 
+    /**
+     * Returns the names of the simulation files that have been created or modified
+     * since the last call of this method. This method does not wait for changes.
+     *
+     * The returned value is never {@code null}. An empty set is returned, if no
+     * simulation file changed or the folder is not watched.
+     *
+     * @return     the names of the changed simulation files.
+     */
+    public Set<String> pollChangedFiles() {
+        Set<String> changedFiles = new HashSet<>();
+        if (this.watchService == null) {
+            return changedFiles;
+        }
+        WatchKey key = this.watchService.poll();
+        while (key != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path path) {
+                    String fileName = path.getFileName().toString();
+                    if (fileName.endsWith(SUFFIX_GZIP)) {
+                        fileName = fileName.substring(0, fileName.length() - SUFFIX_GZIP.length());
+                    }
+                    if (fileName.equals(FILENAME_STREETS) || fileName.equals(FILENAME_CROSSINGS)
+                            || fileName.equals(FILENAME_CARS) || fileName.equals(FILENAME_DEMAND)) {
+                        changedFiles.add(fileName);
+                    }
+                }
+            }
+            key.reset();
+            key = this.watchService.poll();
+        }
+        return changedFiles;
+    }
 
-    private List<String> loadSimulationFile(String fileName) throws IOException {
-        final Path filePath = this.folderPath.resolve(Path.of(fileName));
+    private BufferedReader openSimulationFile(String fileName) throws IOException {
+        final Path filePath = resolve(fileName);
         final File file = filePath.toFile();
 
         if (!file.exists()) {
@@ -101,7 +204,32 @@ public final class SimulationFileLoader {
             throw new IOException(String.format("file %s is not a normal file.", filePath.toString()));
         }
 
-        return Files.readAllLines(filePath);
+        return newReader(filePath);
+    }
+
+    private Path resolve(String fileName) {
+        // A plain file is preferred, so a decompressed copy can be edited next to the original
+        final Path filePath = this.folderPath.resolve(Path.of(fileName));
+        final Path compressedPath = this.folderPath.resolve(Path.of(fileName + SUFFIX_GZIP));
+        if (!filePath.toFile().exists() && compressedPath.toFile().exists()) {
+            return compressedPath;
+        }
+        return filePath;
+    }
+
+    private static BufferedReader newReader(Path filePath) throws IOException {
+        if (!filePath.getFileName().toString().endsWith(SUFFIX_GZIP)) {
+            return Files.newBufferedReader(filePath);
+        }
+        final InputStream input = Files.newInputStream(filePath);
+        try {
+            return new BufferedReader(new InputStreamReader(new GZIPInputStream(input, BUFFER_SIZE),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException ioException) {
+            // The header is read at once, so a file that is not compressed fails here
+            input.close();
+            throw ioException;
+        }
     }
 
 }
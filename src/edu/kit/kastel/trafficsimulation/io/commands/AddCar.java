@@ -0,0 +1,54 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Car;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that puts a new car on a street of the
+ * loaded network. The car is described in the same format as in the car file,
+ * optionally followed by the ID of its destination node.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class AddCar extends Command {
+
+    private static final String REGEX = "addcar (\\d+),(\\d+),(\\d+),(\\d+)(?:,(\\d+))?";
+    private static final int ID_GROUP = 1;
+    private static final int STREET_GROUP = 2;
+    private static final int VELOCITY_GROUP = 3;
+    private static final int ACCELERATION_GROUP = 4;
+    private static final int DESTINATION_GROUP = 5;
+    private static final String ERROR_NOT_INTEGER = "Car properties must be in integer range. ";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new addcar command.
+     */
+    public AddCar() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            int id = Integer.parseInt(matcher.group(ID_GROUP));
+            int streetId = Integer.parseInt(matcher.group(STREET_GROUP));
+            int velocity = Integer.parseInt(matcher.group(VELOCITY_GROUP));
+            int acceleration = Integer.parseInt(matcher.group(ACCELERATION_GROUP));
+            String destinationGroup = matcher.group(DESTINATION_GROUP);
+            int destination = destinationGroup == null ? Car.NO_DESTINATION : Integer.parseInt(destinationGroup);
+            simulation.addCar(id, streetId, velocity, acceleration, destination);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
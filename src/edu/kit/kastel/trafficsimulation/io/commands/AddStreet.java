@@ -0,0 +1,52 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that adds a new street to the loaded
+ * network. The street is described in the same format as in the street file and
+ * gets the next free street ID.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class AddStreet extends Command {
+
+    private static final String REGEX = "addstreet (\\d+)-->(\\d+):(\\d+)m,(\\d+)x,(\\d+)max";
+    private static final int START_NODE_GROUP = 1;
+    private static final int END_NODE_GROUP = 2;
+    private static final int LENGTH_GROUP = 3;
+    private static final int NUMBER_LANES_GROUP = 4;
+    private static final int SPEED_LIMIT_GROUP = 5;
+    private static final String ERROR_NOT_INTEGER = "Street properties must be in integer range. ";
+    private static final String MESSAGE = "Street %d added";
+
+    /**
+     * This constructor creates a new addstreet command.
+     */
+    public AddStreet() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            int startNodeId = Integer.parseInt(matcher.group(START_NODE_GROUP));
+            int endNodeId = Integer.parseInt(matcher.group(END_NODE_GROUP));
+            int length = Integer.parseInt(matcher.group(LENGTH_GROUP));
+            int numberOfLanes = Integer.parseInt(matcher.group(NUMBER_LANES_GROUP));
+            int speedLimit = Integer.parseInt(matcher.group(SPEED_LIMIT_GROUP));
+            int id = simulation.addStreet(startNodeId, endNodeId, length, numberOfLanes, speedLimit);
+            return MESSAGE.formatted(id);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that stops the ticks that elapse in the
+ * background at the next tick boundary.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Cancel extends Command {
+
+    private static final String REGEX = "cancel";
+
+    /**
+     * This constructor creates a new cancel command.
+     */
+    public Cancel() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            return simulation.getBackground().cancel();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that closes a street of the loaded network.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class CloseStreet extends Command {
+
+    private static final String REGEX = "closestreet (\\d+)";
+    private static final int ID_GROUP = 1;
+    private static final String ERROR_NOT_INTEGER = "Id must be in integer range. ";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new closestreet command.
+     */
+    public CloseStreet() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            int id = Integer.parseInt(matcher.group(ID_GROUP));
+            simulation.closeStreet(id);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
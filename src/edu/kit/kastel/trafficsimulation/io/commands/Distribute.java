@@ -0,0 +1,43 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.DistributionException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that distributes the simulation of ticks
+ * across a number of worker processes on the local machine.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Distribute extends Command {
+
+    private static final String REGEX = "distribute (\\d+)";
+    private static final String ERROR_NOT_INTEGER = "Number of workers must be in integer range. ";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new distribute command.
+     */
+    public Distribute() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        String string = matcher.group(1);
+        try {
+            int numberOfWorkers = Integer.parseInt(string);
+            simulation.distribute(numberOfWorkers);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (DistributionException distributionException) {
+            return distributionException.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
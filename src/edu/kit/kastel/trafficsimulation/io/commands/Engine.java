@@ -0,0 +1,54 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.EngineMode;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that chooses how the streets of the loaded
+ * network are updated, either one after the other in order of their ID, all
+ * at the same time in parallel, optionally with vectorized car kinematics, or
+ * as queues of cars.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Engine extends Command {
+
+    private static final String REGEX = "engine (sequential|synchronous|vectorized|mesoscopic)";
+    private static final String SEQUENTIAL = "sequential";
+    private static final String SYNCHRONOUS = "synchronous";
+    private static final String VECTORIZED = "vectorized";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new engine command.
+     */
+    public Engine() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        EngineMode engineMode;
+        if (matcher.group(1).equals(SEQUENTIAL)) {
+            engineMode = EngineMode.SEQUENTIAL;
+        } else if (matcher.group(1).equals(SYNCHRONOUS)) {
+            engineMode = EngineMode.SYNCHRONOUS;
+        } else if (matcher.group(1).equals(VECTORIZED)) {
+            engineMode = EngineMode.VECTORIZED;
+        } else {
+            engineMode = EngineMode.MESOSCOPIC;
+        }
+        try {
+            simulation.setEngineMode(engineMode);
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
@@ -0,0 +1,58 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Gridlock;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that lists the gridlocks of the loaded
+ * network with their streets and cars.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Gridlocks extends Command {
+
+    private static final String REGEX = "gridlocks";
+    private static final String MESSAGE_GRIDLOCK = "Streets %s with cars %s";
+    private static final String MESSAGE_NO_GRIDLOCKS = "No gridlocks";
+    private static final String DELIMITER = ", ";
+
+    /**
+     * This constructor creates a new gridlocks command.
+     */
+    public Gridlocks() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        List<Gridlock> gridlocks;
+        try {
+            gridlocks = simulation.getGridlocks();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        if (gridlocks.isEmpty()) {
+            return MESSAGE_NO_GRIDLOCKS;
+        }
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        for (Gridlock gridlock : gridlocks) {
+            joiner.add(MESSAGE_GRIDLOCK.formatted(join(gridlock.getStreetIds()), join(gridlock.getCarIds())));
+        }
+        return joiner.toString();
+    }
+
+    private static String join(List<Integer> ids) {
+        StringJoiner joiner = new StringJoiner(DELIMITER);
+        for (int id : ids) {
+            joiner.add(String.valueOf(id));
+        }
+        return joiner.toString();
+    }
+
+}
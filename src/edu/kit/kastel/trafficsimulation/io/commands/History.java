@@ -0,0 +1,54 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that prints the recorded positions of a car,
+ * beginning with the oldest one.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class History extends Command {
+
+    private static final String REGEX = "history (\\d+)(?: (\\d+))?";
+    private static final int ID_GROUP = 1;
+    private static final int TICKS_GROUP = 2;
+    private static final String MESSAGE = "Tick %d: car %d on street %d with speed %d and position %d";
+    private static final String ERROR_NOT_INTEGER = "Numbers must be in integer range. ";
+    private static final int TICK = 0;
+    private static final int STREET = 1;
+    private static final int POSITION = 2;
+    private static final int SPEED = 3;
+
+    /**
+     * This constructor creates a new history command.
+     */
+    public History() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            int id = Integer.parseInt(matcher.group(ID_GROUP));
+            int ticks = matcher.group(TICKS_GROUP) == null
+                    ? Integer.MAX_VALUE
+                    : Integer.parseInt(matcher.group(TICKS_GROUP));
+            StringJoiner joiner = new StringJoiner(System.lineSeparator());
+            for (int[] entry : simulation.getRecordings().getHistory(id, ticks)) {
+                joiner.add(MESSAGE.formatted(entry[TICK], id, entry[STREET], entry[SPEED], entry[POSITION]));
+            }
+            return joiner.toString();
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+    }
+
+}
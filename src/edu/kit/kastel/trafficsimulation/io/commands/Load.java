@@ -7,15 +7,17 @@ import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
 import edu.kit.kastel.trafficsimulation.simulation.Simulation;
 
 /**
- * This class represents a command that loads a network from a given file.
+ * This class represents a command that loads a network from a given file,
+ * optionally as a named session.
  * 
  * @author ulqch
  * @version 1.0
  */
 public class Load extends Command {
 
-    private static final String REGEX = "load (.+)";
+    private static final String REGEX = "load (.+?)(?: as ([\\w-]+))?";
     private static final int PATH_GROUP = 1;
+    private static final int NAME_GROUP = 2;
     private static final String MESSAGE = "READY";
 
     /**
@@ -29,7 +31,7 @@ public class Load extends Command {
     public String execute(Matcher matcher, Simulation simulation) {
         String path = matcher.group(PATH_GROUP);
         try {
-            simulation.load(path);
+            simulation.load(path, matcher.group(NAME_GROUP));
         } catch (ParseException | FailedBuildException exception) {
             return exception.getMessage();
         }
@@ -0,0 +1,67 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.MemoryReport;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that prints an estimate of the memory
+ * retained by the loaded network, broken down by its parts, and the streets
+ * with the most cars.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Memory extends Command {
+
+    private static final String REGEX = "memory";
+    private static final int NUMBER_LARGEST_STREETS = 5;
+    private static final String MESSAGE_PART = "%s: %d (about %d bytes)";
+    private static final String MESSAGE_TOTAL = "Total: about %d bytes";
+    private static final String MESSAGE_STREET = "Street %d with %d cars";
+    private static final String NODES = "Nodes";
+    private static final String STREETS = "Streets";
+    private static final String CARS = "Cars";
+    private static final String INDEX_MAPS = "Index map entries";
+    private static final String CAR_LISTS = "Car lists";
+    private static final String TOPOLOGY = "Topology rows";
+    private static final String ROUTING_TABLES = "Routing tables";
+
+    /**
+     * This constructor creates a new memory command.
+     */
+    public Memory() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        MemoryReport report;
+        try {
+            report = simulation.getMemoryReport(NUMBER_LARGEST_STREETS);
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        joiner.add(MESSAGE_PART.formatted(NODES, report.getNumberOfNodes(), report.getNodeBytes()));
+        joiner.add(MESSAGE_PART.formatted(STREETS, report.getNumberOfStreets(), report.getStreetBytes()));
+        joiner.add(MESSAGE_PART.formatted(CARS, report.getNumberOfCars(), report.getCarBytes()));
+        joiner.add(MESSAGE_PART.formatted(INDEX_MAPS, report.getNumberOfIndexEntries(), report.getIndexBytes()));
+        joiner.add(MESSAGE_PART.formatted(CAR_LISTS, report.getNumberOfStreets(), report.getCarListBytes()));
+        joiner.add(MESSAGE_PART.formatted(TOPOLOGY, report.getNumberOfTopologyRows(), report.getTopologyBytes()));
+        joiner.add(MESSAGE_PART.formatted(ROUTING_TABLES, report.getNumberOfRoutingTables(),
+                report.getRoutingTableBytes()));
+        joiner.add(MESSAGE_TOTAL.formatted(report.getTotalBytes()));
+        List<Integer> ids = report.getLargestStreetIds();
+        List<Integer> sizes = report.getLargestStreetSizes();
+        for (int i = 0; i < ids.size(); i++) {
+            joiner.add(MESSAGE_STREET.formatted(ids.get(i), sizes.get(i)));
+        }
+        return joiner.toString();
+    }
+
+}
@@ -0,0 +1,47 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that returns where a car was located at a
+ * tick of the recorded trajectory.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class PositionAt extends Command {
+
+    private static final String REGEX = "positionat (\\d+) (\\d+)";
+    private static final int ID_GROUP = 1;
+    private static final int TICK_GROUP = 2;
+    private static final String MESSAGE = "Car %d on street %d with speed %d and position %d";
+    private static final String ERROR_NOT_INTEGER = "Id and tick must be in integer range. ";
+    private static final int STREET = 0;
+    private static final int POSITION = 1;
+    private static final int SPEED = 2;
+
+    /**
+     * This constructor creates a new position at command.
+     */
+    public PositionAt() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            int id = Integer.parseInt(matcher.group(ID_GROUP));
+            int tick = Integer.parseInt(matcher.group(TICK_GROUP));
+            int[] state = simulation.getRecordings().getStateAt(id, tick);
+            return MESSAGE.formatted(id, state[STREET], state[SPEED], state[POSITION]);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+    }
+
+}
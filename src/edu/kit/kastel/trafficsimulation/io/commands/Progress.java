@@ -0,0 +1,46 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.BackgroundSimulation;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that prints how many ticks have elapsed in
+ * the background and how fast they elapse.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Progress extends Command {
+
+    private static final String REGEX = "progress";
+    private static final String MESSAGE = "Tick %d of %d at %d ticks per second%s";
+    private static final String RUNNING = "";
+    private static final String FINISHED = ", finished";
+    private static final String CANCELLED = ", cancelled";
+
+    /**
+     * This constructor creates a new progress command.
+     */
+    public Progress() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        BackgroundSimulation background = simulation.getBackground();
+        try {
+            String state = background.isRunning() ? RUNNING : FINISHED;
+            if (background.isCancelled()) {
+                state = CANCELLED;
+            }
+            return MESSAGE.formatted(background.getTick(), background.getTicks(), background.getTicksPerSecond(),
+                    state);
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+    }
+
+}
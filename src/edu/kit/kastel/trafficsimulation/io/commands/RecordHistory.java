@@ -0,0 +1,54 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that starts or stops recording the history
+ * of the positions of the cars of the loaded network.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class RecordHistory extends Command {
+
+    private static final String REGEX = "history (?:on (\\d+)(?: (\\d+))?(?: (\\d+))?|off)";
+    private static final int TICKS_GROUP = 1;
+    private static final int INTERVAL_GROUP = 2;
+    private static final int CARS_GROUP = 3;
+    private static final int DEFAULT_INTERVAL = 1;
+    private static final int DEFAULT_CARS = 0;
+    private static final String MESSAGE = "READY";
+    private static final String ERROR_NOT_INTEGER = "Numbers must be in integer range. ";
+
+    /**
+     * This constructor creates a new record history command.
+     */
+    public RecordHistory() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            if (matcher.group(TICKS_GROUP) == null) {
+                simulation.getRecordings().stopHistory();
+                return MESSAGE;
+            }
+            int ticks = Integer.parseInt(matcher.group(TICKS_GROUP));
+            int interval = matcher.group(INTERVAL_GROUP) == null
+                    ? DEFAULT_INTERVAL
+                    : Integer.parseInt(matcher.group(INTERVAL_GROUP));
+            int cars = matcher.group(CARS_GROUP) == null ? DEFAULT_CARS : Integer.parseInt(matcher.group(CARS_GROUP));
+            simulation.getRecordings().recordHistory(ticks, interval, cars);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
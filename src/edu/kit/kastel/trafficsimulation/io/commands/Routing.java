@@ -0,0 +1,39 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.simulation.RoutingMetric;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that changes the metric by which the routes
+ * of cars with a destination are calculated, either the total length or the
+ * travel time at the speed limits.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Routing extends Command {
+
+    private static final String REGEX = "routing (length|time)";
+    private static final String LENGTH = "length";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new routing command.
+     */
+    public Routing() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        if (matcher.group(1).equals(LENGTH)) {
+            simulation.setRoutingMetric(RoutingMetric.LENGTH);
+        } else {
+            simulation.setRoutingMetric(RoutingMetric.TRAVEL_TIME);
+        }
+        return MESSAGE;
+    }
+
+}
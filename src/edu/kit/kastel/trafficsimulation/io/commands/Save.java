@@ -0,0 +1,38 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that saves the loaded network to a store file.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Save extends Command {
+
+    private static final String REGEX = "save (.+)";
+    private static final int PATH_GROUP = 1;
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new save command. 
+     */
+    public Save() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        String path = matcher.group(PATH_GROUP);
+        try {
+            simulation.save(path);
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
@@ -0,0 +1,46 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that starts or stops serving snapshots of
+ * the loaded network over HTTP on the local machine.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Serve extends Command {
+
+    private static final String REGEX = "serve (?:(\\d+)|stop)";
+    private static final int PORT_GROUP = 1;
+    private static final String MESSAGE = "READY";
+    private static final String MESSAGE_SERVING = "Serving on http://localhost:%d/";
+    private static final String ERROR_NOT_INTEGER = "Numbers must be in integer range. ";
+
+    /**
+     * This constructor creates a new serve command.
+     */
+    public Serve() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        if (matcher.group(PORT_GROUP) == null) {
+            simulation.stopServing();
+            return MESSAGE;
+        }
+        try {
+            int port = simulation.serve(Integer.parseInt(matcher.group(PORT_GROUP)));
+            return MESSAGE_SERVING.formatted(port);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Session;
+import edu.kit.kastel.trafficsimulation.simulation.SessionCache;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that lists the named sessions from the least
+ * to the most recently used one, optionally after setting the memory their
+ * networks may retain on the heap in megabytes.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Sessions extends Command {
+
+    private static final String REGEX = "sessions(?: (\\d+))?";
+    private static final int BUDGET_GROUP = 1;
+    private static final long BYTES_PER_MEGABYTE = 1L << 20;
+    private static final String MESSAGE_BUDGET = "Budget: about %d bytes";
+    private static final String MESSAGE_SESSION = "%s: %s, %s, about %d bytes";
+    private static final String IN_USE = "in use";
+    private static final String ON_DISK = "on disk";
+    private static final String ON_HEAP = "on heap";
+    private static final String ERROR_NOT_INTEGER = "Numbers must be in integer range. ";
+
+    /**
+     * This constructor creates a new sessions command.
+     */
+    public Sessions() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        SessionCache sessions = simulation.getSessions();
+        try {
+            if (matcher.group(BUDGET_GROUP) != null) {
+                sessions.setBudget(Integer.parseInt(matcher.group(BUDGET_GROUP)) * BYTES_PER_MEGABYTE);
+            }
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        joiner.add(MESSAGE_BUDGET.formatted(sessions.getBudget()));
+        for (Session session : sessions.getSessions()) {
+            String state = session.isSpilled() ? ON_DISK : ON_HEAP;
+            if (sessions.isActive(session)) {
+                state = IN_USE;
+            }
+            joiner.add(MESSAGE_SESSION.formatted(session.getName(), session.getPath(), state,
+                    session.getEstimatedBytes()));
+        }
+        return joiner.toString();
+    }
+
+}
@@ -0,0 +1,45 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that changes the green phase duration of an
+ * intersection of the loaded network.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class SetPhase extends Command {
+
+    private static final String REGEX = "setphase (\\d+) (\\d+)";
+    private static final int NODE_GROUP = 1;
+    private static final int DURATION_GROUP = 2;
+    private static final String ERROR_NOT_INTEGER = "Id and duration must be in integer range. ";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new setphase command.
+     */
+    public SetPhase() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            int nodeId = Integer.parseInt(matcher.group(NODE_GROUP));
+            int duration = Integer.parseInt(matcher.group(DURATION_GROUP));
+            simulation.setPhase(nodeId, duration);
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
@@ -2,19 +2,24 @@ package edu.kit.kastel.trafficsimulation.io.commands;
 
 import java.util.regex.Matcher;
 
+import edu.kit.kastel.trafficsimulation.exceptions.DistributionException;
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
 import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
 import edu.kit.kastel.trafficsimulation.simulation.Simulation;
 
 /**
  * This class represents a command that updates a network such that a specified
- * number of ticks passed.
+ * number of ticks passed. If the command ends with {@code &}, the ticks elapse
+ * on an engine thread in the background and the command returns at once.
  * 
  * @author ulqch
  * @version 1.0
  */
 public class Simulate extends Command {
 
-    private static final String REGEX = "simulate (\\d+)";
+    private static final String REGEX = "simulate (\\d+)( &)?";
+    private static final int TICKS_GROUP = 1;
+    private static final int BACKGROUND_GROUP = 2;
     private static final String ERROR_NOT_INTEGER = "Number of ticks must be in integer range. ";
     private static final String MESSAGE = "READY";
 
@@ -27,14 +32,18 @@ public class Simulate extends Command {
 
     @Override
     public String execute(Matcher matcher, Simulation simulation) {
-        String string = matcher.group(1);
+        String string = matcher.group(TICKS_GROUP);
         try {
             int ticks = Integer.parseInt(string);
-            simulation.simulate(ticks);
+            if (matcher.group(BACKGROUND_GROUP) != null) {
+                simulation.getBackground().start(ticks);
+            } else {
+                simulation.simulate(ticks);
+            }
         } catch (NumberFormatException numberFormatException) {
             return new ParseException(ERROR_NOT_INTEGER).getMessage();
-        } catch (ParseException parseException) {
-            return parseException.getMessage();
+        } catch (ParseException | FailedBuildException | DistributionException exception) {
+            return exception.getMessage();
         }
         return MESSAGE;
     }
@@ -0,0 +1,57 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Recordings;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that starts or stops recording the
+ * trajectories of the cars of the loaded network to a file, or opens such a
+ * file that was recorded before.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Trajectory extends Command {
+
+    private static final String REGEX = "trajectory (?:(record|open) (?:(\\d+) )?(.+)|stop)";
+    private static final int MODE_GROUP = 1;
+    private static final int INTERVAL_GROUP = 2;
+    private static final int PATH_GROUP = 3;
+    private static final String RECORD = "record";
+    private static final int DEFAULT_INTERVAL = 100;
+    private static final String MESSAGE = "READY";
+    private static final String ERROR_NOT_INTEGER = "Interval must be in integer range. ";
+
+    /**
+     * This constructor creates a new trajectory command.
+     */
+    public Trajectory() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        Recordings recordings = simulation.getRecordings();
+        try {
+            if (matcher.group(MODE_GROUP) == null) {
+                recordings.stopTrajectory();
+            } else if (matcher.group(MODE_GROUP).equals(RECORD)) {
+                int interval = matcher.group(INTERVAL_GROUP) == null
+                        ? DEFAULT_INTERVAL
+                        : Integer.parseInt(matcher.group(INTERVAL_GROUP));
+                recordings.recordTrajectory(matcher.group(PATH_GROUP), interval);
+            } else {
+                recordings.openTrajectory(matcher.group(PATH_GROUP));
+            }
+        } catch (NumberFormatException numberFormatException) {
+            return new ParseException(ERROR_NOT_INTEGER).getMessage();
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
@@ -0,0 +1,39 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that continues with the network of a session
+ * that was loaded with a name.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Use extends Command {
+
+    private static final String REGEX = "use ([\\w-]+)";
+    private static final int NAME_GROUP = 1;
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new use command.
+     */
+    public Use() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            simulation.use(matcher.group(NAME_GROUP));
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
@@ -0,0 +1,39 @@
+package edu.kit.kastel.trafficsimulation.io.commands;
+
+import java.util.regex.Matcher;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.simulation.Simulation;
+
+/**
+ * This class represents a command that enables or disables watching the files
+ * of the loaded network. While they are watched, changes of the files are
+ * applied before the next command is executed.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Watch extends Command {
+
+    private static final String REGEX = "watch (on|off)";
+    private static final String ENABLED = "on";
+    private static final String MESSAGE = "READY";
+
+    /**
+     * This constructor creates a new watch command.
+     */
+    public Watch() {
+        super(REGEX);
+    }
+
+    @Override
+    public String execute(Matcher matcher, Simulation simulation) {
+        try {
+            simulation.watch(matcher.group(1).equals(ENABLED));
+        } catch (ParseException parseException) {
+            return parseException.getMessage();
+        }
+        return MESSAGE;
+    }
+
+}
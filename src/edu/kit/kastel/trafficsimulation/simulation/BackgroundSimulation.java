@@ -0,0 +1,290 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+
+/**
+ * This class lets ticks elapse in the loaded network of a simulation on a
+ * dedicated engine thread, so commands can be executed while they elapse.
+ * <p>
+ * The engine thread holds a lock while a tick elapses. Commands must be
+ * executed between {@link #lock()} and {@link #unlock()}: they wait for the
+ * next tick boundary and the engine thread waits for them, so they always see
+ * the state of the network after a whole tick. If no command waits, the engine
+ * thread does not release the lock between the ticks. The lock is only handed
+ * over between two updates of the network, never while the listeners of a
+ * tick are notified, so listeners added or removed by a command take effect
+ * from the next tick on.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class BackgroundSimulation implements TickListener {
+
+    private static final String THREAD_NAME = "engine";
+    private static final String ERROR_NO_NETWORK = "Please load a network first. ";
+    private static final String ERROR_RUNNING = "A simulation is running in the background, cancel it first. ";
+    private static final String ERROR_NOT_RUNNING = "No simulation is running in the background. ";
+    private static final String ERROR_NEVER_RUN = "No simulation has run in the background yet. ";
+    private static final String MESSAGE_FINISHED = "Background simulation finished at tick %d";
+    private static final String MESSAGE_CANCELLED = "Background simulation cancelled at tick %d";
+
+    private final ReentrantLock lock;
+    private final Condition finishedCondition;
+    private Network network;
+    private CarDemand demand;
+    private Thread thread;
+    private int ticks;
+    private volatile int tick;
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private boolean reported;
+    private long startTime;
+    private long endTime;
+
+    /**
+     * This constructor creates a new background simulation without a network.
+     */
+    protected BackgroundSimulation() {
+        // Fair, so a waiting command gets the lock before the next tick
+        this.lock = new ReentrantLock(true);
+        this.finishedCondition = this.lock.newCondition();
+        this.network = null;
+        this.demand = null;
+        this.thread = null;
+        this.ticks = 0;
+        this.tick = 0;
+        this.cancelled = false;
+        this.finished = true;
+        this.reported = true;
+    }
+
+    /**
+     * This method replaces the network in which ticks elapse. It must not be
+     * called while ticks elapse in the background.
+     * 
+     * @param network Newly loaded network
+     * @param demand  Demand of the network or null if it has none
+     */
+    protected void setNetwork(Network network, CarDemand demand) {
+        this.network = network;
+        this.demand = demand;
+        this.thread = null;
+        this.reported = true;
+    }
+
+    /**
+     * This method checks that no ticks elapse in the background, so the network
+     * can be replaced or ticks can elapse on the calling thread.
+     * 
+     * @throws ParseException if ticks elapse in the background
+     */
+    protected void checkIdle() throws ParseException {
+        if (this.isRunning()) {
+            throw new ParseException(ERROR_RUNNING);
+        }
+    }
+
+    /**
+     * This method stops the ticks that elapse in the background at the next tick
+     * boundary and waits for the engine thread to end. It must not be called
+     * between {@link #lock()} and {@link #unlock()}.
+     */
+    protected void close() {
+        this.lock();
+        try {
+            if (this.isRunning()) {
+                this.awaitCancellation();
+            }
+        } finally {
+            this.unlock();
+        }
+    }
+
+    /**
+     * This method waits until the ticks that elapse in the background reach a
+     * tick boundary and keeps them from going on until {@link #unlock()} is
+     * called. It returns at once if no ticks elapse in the background.
+     */
+    public void lock() {
+        this.lock.lock();
+    }
+
+    /**
+     * This method lets the ticks that elapse in the background go on.
+     */
+    public void unlock() {
+        this.lock.unlock();
+    }
+
+    /**
+     * This method starts letting ticks elapse in the loaded network on the engine
+     * thread. It must be called between {@link #lock()} and {@link #unlock()},
+     * the first tick elapses after {@link #unlock()}. The routes to all
+     * destinations of cars are computed on the engine thread.
+     * 
+     * @param ticks Number of ticks that should elapse
+     * @throws ParseException if there is no network loaded or ticks already elapse
+     *                        in the background
+     */
+    public void start(int ticks) throws ParseException {
+        if (this.network == null) {
+            throw new ParseException(ERROR_NO_NETWORK);
+        }
+        this.checkIdle();
+        this.ticks = ticks;
+        this.tick = 0;
+        this.cancelled = false;
+        this.finished = false;
+        this.reported = false;
+        this.startTime = System.nanoTime();
+        this.network.addTickListener(this);
+        this.thread = new Thread(this::run, THREAD_NAME);
+        // The program must be able to quit while ticks elapse
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * This method stops the ticks that elapse in the background at the next tick
+     * boundary and waits until the engine thread released the network. It must
+     * be called between {@link #lock()} and {@link #unlock()}.
+     * 
+     * @return A message describing at which tick the ticks stopped
+     * @throws ParseException if no ticks elapse in the background
+     */
+    public String cancel() throws ParseException {
+        if (!this.isRunning()) {
+            throw new ParseException(ERROR_NOT_RUNNING);
+        }
+        this.awaitCancellation();
+        return this.pollResult();
+    }
+
+    /**
+     * This method checks whether ticks elapse in the background.
+     * 
+     * @return True if ticks elapse in the background
+     */
+    public boolean isRunning() {
+        return !this.finished;
+    }
+
+    /**
+     * This method checks whether the last background simulation was cancelled
+     * before all of its ticks elapsed.
+     * 
+     * @return True if the last background simulation was cancelled
+     */
+    public boolean isCancelled() {
+        return this.finished && this.cancelled;
+    }
+
+    /**
+     * This method returns the number of ticks that elapsed in the background so
+     * far, or in total if the background simulation has finished.
+     * 
+     * @return Number of ticks that elapsed
+     * @throws ParseException if no ticks have elapsed in the background yet
+     */
+    public int getTick() throws ParseException {
+        this.checkStarted();
+        return this.tick;
+    }
+
+    /**
+     * This method returns the number of ticks that should elapse in the
+     * background.
+     * 
+     * @return Number of ticks that should elapse
+     * @throws ParseException if no ticks have elapsed in the background yet
+     */
+    public int getTicks() throws ParseException {
+        this.checkStarted();
+        return this.ticks;
+    }
+
+    /**
+     * This method returns the average number of ticks that elapsed per second
+     * since the background simulation started, until now or until it finished.
+     * 
+     * @return Number of ticks per second
+     * @throws ParseException if no ticks have elapsed in the background yet
+     */
+    public long getTicksPerSecond() throws ParseException {
+        this.checkStarted();
+        long end = this.finished ? this.endTime : System.nanoTime();
+        long nanos = Math.max(end - this.startTime, 1);
+        return this.tick * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * This method returns a message about the end of the background simulation,
+     * once after it finished or was cancelled. If its demand failed, the error is
+     * returned instead. It must be called between {@link #lock()} and
+     * {@link #unlock()}.
+     * 
+     * @return A message describing how the background simulation ended or null
+     *         if it is still running or this was already reported
+     */
+    public String pollResult() {
+        if (!this.finished || this.reported) {
+            return null;
+        }
+        this.reported = true;
+        if (this.demand != null) {
+            try {
+                this.demand.throwError();
+            } catch (ParseException | FailedBuildException exception) {
+                return exception.getMessage();
+            }
+        }
+        return (this.cancelled ? MESSAGE_CANCELLED : MESSAGE_FINISHED).formatted(this.tick);
+    }
+
+    @Override
+    public void tickElapsed(Network network) {
+        this.tick++;
+    }
+
+    private void run() {
+        this.lock.lock();
+        try {
+            this.network.simulate(this.ticks, this::awaitCommands);
+        } finally {
+            this.network.removeTickListener(this);
+            this.endTime = System.nanoTime();
+            this.finished = true;
+            this.finishedCondition.signalAll();
+            this.lock.unlock();
+        }
+    }
+
+    private boolean awaitCommands() {
+        // The network checks this before every tick, so waiting commands run at a tick boundary
+        if (this.lock.hasQueuedThreads()) {
+            this.lock.unlock();
+            this.lock.lock();
+        }
+        return this.cancelled;
+    }
+
+    private void awaitCancellation() {
+        this.cancelled = true;
+        while (!this.finished) {
+            // Waiting releases the lock, so the engine thread can reach the next tick boundary
+            this.finishedCondition.awaitUninterruptibly();
+        }
+    }
+
+    private void checkStarted() throws ParseException {
+        if (this.thread == null) {
+            throw new ParseException(ERROR_NEVER_RUN);
+        }
+    }
+
+}
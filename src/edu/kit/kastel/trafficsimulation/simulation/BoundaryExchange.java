@@ -0,0 +1,28 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This interface represents the connection of a network partition to the
+ * other partitions of its network. After every tick each partition hands in a
+ * batch with the cars that crossed its boundary and waits until the batches of
+ * all other partitions of that tick arrived.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface BoundaryExchange {
+
+    /**
+     * This method sends the batch of a partition and waits for the batches of
+     * all other partitions of the same tick.
+     * 
+     * @param batch Batch of the partition
+     * @return Batches of the other partitions
+     * @throws IOException if the batches could not be exchanged
+     */
+    List<byte[]> exchange(byte[] batch) throws IOException;
+
+}
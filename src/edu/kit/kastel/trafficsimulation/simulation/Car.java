@@ -10,6 +10,18 @@ import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
  */
 public class Car {
 
+    /**
+     * This is the destination of a car that has no destination and turns in
+     * every direction one after the other.
+     */
+    public static final int NO_DESTINATION = -1;
+
+    /**
+     * This is the exit tick of a car that was placed or moved other than by the
+     * {@link MesoscopicEngine}, so it still has to be queued.
+     */
+    protected static final int NOT_QUEUED = Integer.MIN_VALUE;
+
     private static final int INITIAL_VELOCITY = 0;
     private static final int INITIAL_DESIRED_DIRECTION = 0;
     private static final int INITIAL_MILEAGE = 0;
@@ -25,19 +37,24 @@ public class Car {
 
     private static final String ERROR_DISTANCE_TOO_LARGE = "Cannot move this distance. ";
 
-    private final int id;
+    private int id;
 
-    private final int acceleration;
+    private int acceleration;
     private int speed;
-    private final int targetSpeed;
+    private int targetSpeed;
 
     private int nextDirection;
+    private int destination;
+    private boolean leavesAtDestination;
 
     private Street street;
+    private int lane;
     private int position;
 
     private int mileage;
     private int mileageLastTick;
+    private int exitTick;
+    private int queuePosition;
 
     private boolean hasBeenUpdated;
 
@@ -54,6 +71,25 @@ public class Car {
      *                              is invalid or if the street is already full.
      */
     protected Car(int id, int targetSpeed, int acceleration, Street street) throws FailedBuildException {
+        this.initialize(id, targetSpeed, acceleration, street);
+    }
+
+    /**
+     * This method reuses this car as a new car that has never driven before. It
+     * must only be called for cars that are no longer part of a network.
+     * 
+     * @param id           ID of the car
+     * @param targetSpeed  Target speed that this car should not exceed
+     * @param acceleration Acceleration of this car
+     * @param street       Street on which this car should drive
+     * @throws FailedBuildException if the id, the target speed or the acceleration
+     *                              is invalid
+     */
+    protected void reuse(int id, int targetSpeed, int acceleration, Street street) throws FailedBuildException {
+        this.initialize(id, targetSpeed, acceleration, street);
+    }
+
+    private void initialize(int id, int targetSpeed, int acceleration, Street street) throws FailedBuildException {
         if (id < MIN_ID) {
             String message = ERROR_ID_INVALID.formatted(MIN_ID);
             throw new FailedBuildException(message);
@@ -72,8 +108,16 @@ public class Car {
         this.targetSpeed = targetSpeed;
         this.acceleration = acceleration;
         this.nextDirection = INITIAL_DESIRED_DIRECTION;
+        this.destination = NO_DESTINATION;
+        this.leavesAtDestination = false;
         this.street = street;
+        this.lane = 0;
+        this.position = 0;
         this.mileage = INITIAL_MILEAGE;
+        this.mileageLastTick = INITIAL_MILEAGE;
+        this.exitTick = NOT_QUEUED;
+        this.queuePosition = 0;
+        this.hasBeenUpdated = false;
     }
 
     /**
@@ -85,6 +129,24 @@ public class Car {
         return this.id;
     }
 
+    /**
+     * This method returns the target speed that this car should not exceed.
+     * 
+     * @return Target speed of this car
+     */
+    public int getTargetSpeed() {
+        return this.targetSpeed;
+    }
+
+    /**
+     * This method returns the acceleration of this car.
+     * 
+     * @return Acceleration of this car
+     */
+    public int getAcceleration() {
+        return this.acceleration;
+    }
+
     /**
      * This method returns the direction in which this car wants to turn next time.
      * 
@@ -94,6 +156,37 @@ public class Car {
         return this.nextDirection;
     }
 
+    /**
+     * This method returns the ID of the node this car wants to reach. A car with a
+     * destination turns along the shortest route to it.
+     * 
+     * @return ID of the destination node or {@value #NO_DESTINATION} if this car
+     *         has no destination
+     */
+    public int getDestination() {
+        return this.destination;
+    }
+
+    /**
+     * This method checks whether this car leaves the network as soon as it reaches
+     * the end of a street that ends at its destination.
+     * 
+     * @return True if this car leaves the network at its destination
+     */
+    public boolean leavesAtDestination() {
+        return this.leavesAtDestination;
+    }
+
+    /**
+     * This method checks whether this car leaves the network at a given node.
+     * 
+     * @param node Node to check
+     * @return True if this car leaves the network at the given node
+     */
+    protected boolean leavesAt(Node node) {
+        return this.leavesAtDestination && node.getId() == this.destination;
+    }
+
     /**
      * This method returns the street on which this car is driving.
      * 
@@ -103,6 +196,17 @@ public class Car {
         return this.street;
     }
 
+    /**
+     * This method returns the lane this car is driving on. Only streets with more
+     * than two lanes keep their cars on separate lanes, on all other streets this
+     * is always the first lane 0.
+     * 
+     * @return Lane this car is driving on
+     */
+    public int getLane() {
+        return this.lane;
+    }
+
     /**
      * This method returns the current speed of this car.
      * 
@@ -149,6 +253,63 @@ public class Car {
      */
     protected void setPosition(int position) {
         this.position = position;
+        this.exitTick = NOT_QUEUED;
+    }
+
+    /**
+     * This method sets the lane this car is driving on.
+     * 
+     * @param lane The lane this car should drive on
+     */
+    protected void setLane(int lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * This method sets the current speed of this car.
+     * 
+     * @param speed The speed this car should have
+     */
+    protected void setSpeed(int speed) {
+        this.speed = speed;
+    }
+
+    /**
+     * This method sets the total distance driven by this car.
+     * 
+     * @param mileage Total distance driven by this car
+     */
+    protected void setMileage(int mileage) {
+        this.mileage = mileage;
+        this.mileageLastTick = mileage;
+    }
+
+    /**
+     * This method sets the ID of the node this car wants to reach.
+     * 
+     * @param destination ID of the destination node or {@value #NO_DESTINATION}
+     */
+    protected void setDestination(int destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * This method sets whether this car leaves the network as soon as it reaches
+     * the end of a street that ends at its destination.
+     * 
+     * @param value True if this car should leave the network at its destination
+     */
+    protected void setLeavesAtDestination(boolean value) {
+        this.leavesAtDestination = value;
+    }
+
+    /**
+     * This method sets the direction in which this car wants to turn next time.
+     * 
+     * @param nextDirection Direction in which this car wants to turn next time
+     */
+    protected void setNextDirection(int nextDirection) {
+        this.nextDirection = nextDirection;
     }
 
     /**
@@ -176,6 +337,8 @@ public class Car {
             this.speed = this.street.getSpeedLimit();
         }
         this.mileageLastTick = this.getMileage();
+        // Another engine moves this car, so the mesoscopic engine has to queue it again
+        this.exitTick = NOT_QUEUED;
     }
 
     /**
@@ -217,13 +380,66 @@ public class Car {
      */
     protected void resetPosition() {
         this.position = 0;
+        this.exitTick = NOT_QUEUED;
+    }
+
+    /**
+     * This method returns the tick of the {@link MesoscopicEngine} at which this
+     * car reaches the end of its street. Between two calls of
+     * {@link Network#simulate(int)} the tick is counted from the last tick.
+     * 
+     * @return Exit tick or {@link #NOT_QUEUED} if this car is not queued
+     */
+    protected int getExitTick() {
+        return this.exitTick;
+    }
+
+    /**
+     * This method returns the position at which this car joined the queue of its
+     * street.
+     * 
+     * @return Position of this car when it was queued
+     */
+    protected int getQueuePosition() {
+        return this.queuePosition;
+    }
+
+    /**
+     * This method queues this car for the {@link MesoscopicEngine}.
+     * 
+     * @param exitTick      Tick at which this car reaches the end of its street
+     * @param queuePosition Position at which this car joined the queue
+     */
+    protected void setQueue(int exitTick, int queuePosition) {
+        this.exitTick = exitTick;
+        this.queuePosition = queuePosition;
+    }
+
+    /**
+     * This method moves this car forward to a position the
+     * {@link MesoscopicEngine} derived from its exit tick. The mileage grows by
+     * the same distance and the exit tick is kept.
+     * 
+     * @param position Position of this car on its street
+     * @param speed    Distance this car drove during the last tick
+     */
+    protected void moveInQueue(int position, int speed) {
+        this.mileage += position - this.position;
+        this.position = position;
+        this.speed = speed;
     }
 
     /**
      * This method updates the direction this car wants to turn at the next
-     * crossing.
+     * crossing. If this car just passed its destination, it has no destination
+     * anymore.
+     * 
+     * @param passedNode Node this car just passed
      */
-    protected void updateNextDirection() {
+    protected void updateNextDirection(Node passedNode) {
+        if (passedNode.getId() == this.destination) {
+            this.destination = NO_DESTINATION;
+        }
         this.nextDirection++;
         if (this.nextDirection >= Node.MAX_NUMBER_OUTGOING_STREETS) {
             this.nextDirection = 0;
@@ -0,0 +1,18 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This record describes a car that should be placed on a street, as given in
+ * the car file.
+ * 
+ * @author ulqch
+ * @version 1.0
+ * @param id              Car ID
+ * @param streetId        ID of the street on which the car should be placed
+ * @param desiredVelocity Desired velocity of the car
+ * @param acceleration    Acceleration of the car
+ * @param destination     ID of the node the car should drive to or
+ *                        {@value Car#NO_DESTINATION}
+ */
+public record CarConfiguration(int id, int streetId, int desiredVelocity, int acceleration, int destination) {
+
+}
@@ -0,0 +1,176 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.GeneralSimulationException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+
+/**
+ * This class lets cars enter a network according to the trips of a demand
+ * source and takes them back when they leave the network at their
+ * destination. Before every tick the trips that are due are read from the
+ * source. A car enters the network at the start of its street as soon as
+ * there is enough space, until then its trip waits. Cars that left the network
+ * are reused for later trips.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class CarDemand {
+
+    private final DemandSource source;
+    private final CarPool pool;
+    private final Deque<Trip> waitingTrips;
+    private Trip nextTrip;
+    private int tick;
+    private GeneralSimulationException error;
+
+    /**
+     * This constructor creates a new demand that reads its trips from the given
+     * source.
+     * 
+     * @param source Source of the trips ordered by their tick
+     */
+    public CarDemand(DemandSource source) {
+        this.source = source;
+        this.pool = new CarPool();
+        this.waitingTrips = new ArrayDeque<>();
+        this.nextTrip = null;
+        this.tick = 0;
+        this.error = null;
+        this.readNextTrip();
+    }
+
+    /**
+     * This method returns the number of cars that are due but wait for space on
+     * their street.
+     * 
+     * @return Number of waiting cars
+     */
+    public int getNumberOfWaitingCars() {
+        return this.waitingTrips.size();
+    }
+
+    /**
+     * This method returns the number of cars that left the network and can be
+     * reused.
+     * 
+     * @return Number of reusable cars
+     */
+    public int getNumberOfPooledCars() {
+        return this.pool.size();
+    }
+
+    /**
+     * This method checks whether a trip could not be read or its car could not be
+     * placed. No further trips are read after that.
+     * 
+     * @return True if the demand failed
+     */
+    public boolean hasFailed() {
+        return this.error != null;
+    }
+
+    /**
+     * This method throws the error that made this demand fail, if there is one.
+     * All trips that have not started yet are dropped, so the simulation can go on
+     * without them.
+     * 
+     * @throws ParseException       if a trip could not be read
+     * @throws FailedBuildException if the car of a trip could not be placed
+     */
+    public void throwError() throws ParseException, FailedBuildException {
+        GeneralSimulationException failure = this.error;
+        if (failure == null) {
+            return;
+        }
+        this.error = null;
+        this.nextTrip = null;
+        this.waitingTrips.clear();
+        this.close();
+        if (failure instanceof ParseException parseException) {
+            throw parseException;
+        }
+        throw (FailedBuildException) failure;
+    }
+
+    /**
+     * This method closes the source of this demand.
+     */
+    public void close() {
+        try {
+            this.source.close();
+        } catch (IOException ioException) {
+            // No trips are read anymore either way
+        }
+    }
+
+    /**
+     * This method lets the cars of all trips that are due enter the network and
+     * computes the routes to their destinations. It must be called once before
+     * every tick.
+     * 
+     * @param network Network the cars should enter
+     */
+    protected void letCarsEnter(Network network) {
+        // Waiting trips come first, so they keep their order
+        int numberOfWaitingTrips = this.waitingTrips.size();
+        for (int i = 0; i < numberOfWaitingTrips && !this.hasFailed(); i++) {
+            Trip trip = this.waitingTrips.poll();
+            if (!this.letCarEnter(network, trip)) {
+                this.waitingTrips.add(trip);
+            }
+        }
+        while (this.nextTrip != null && this.nextTrip.tick() <= this.tick && !this.hasFailed()) {
+            if (!this.letCarEnter(network, this.nextTrip)) {
+                this.waitingTrips.add(this.nextTrip);
+            }
+            this.readNextTrip();
+        }
+        network.getRoutingTable().computeRoutes();
+        this.tick++;
+    }
+
+    /**
+     * This method takes back a car that left the network, so it can be reused.
+     * 
+     * @param car Car that left the network
+     */
+    protected void release(Car car) {
+        this.pool.release(car);
+    }
+
+    private boolean letCarEnter(Network network, Trip trip) {
+        CarConfiguration configuration = trip.car();
+        try {
+            NetworkEditor editor = new NetworkEditor(network);
+            Street street = editor.getStreetToEnter(configuration.id(), configuration.streetId(),
+                    configuration.destination());
+            if (street.isFull()) {
+                return false;
+            }
+            Car car = this.pool.obtain(configuration.id(), configuration.desiredVelocity(),
+                    configuration.acceleration(), street);
+            car.setDestination(configuration.destination());
+            car.setLeavesAtDestination(true);
+            street.enter(car);
+            network.addCar(car);
+        } catch (FailedBuildException failedBuildException) {
+            this.error = failedBuildException;
+        }
+        return true;
+    }
+
+    private void readNextTrip() {
+        try {
+            this.nextTrip = this.source.nextTrip();
+        } catch (ParseException parseException) {
+            this.error = parseException;
+            this.nextTrip = null;
+        }
+    }
+
+}
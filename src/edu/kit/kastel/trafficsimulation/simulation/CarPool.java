@@ -0,0 +1,66 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+
+/**
+ * This class keeps cars that left the network, so they can be reused for cars
+ * that enter the network later. Once there are as many cars in the pool as
+ * leave the network at the same time, no new cars have to be created anymore.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+final class CarPool {
+
+    private final Deque<Car> freeCars;
+
+    /**
+     * This constructor creates a new empty car pool.
+     */
+    CarPool() {
+        this.freeCars = new ArrayDeque<>();
+    }
+
+    /**
+     * This method returns a car that has never driven before, either a car from
+     * the pool or a new one.
+     * 
+     * @param id           ID of the car
+     * @param targetSpeed  Target speed that the car should not exceed
+     * @param acceleration Acceleration of the car
+     * @param street       Street on which the car should drive
+     * @return A car with the given properties
+     * @throws FailedBuildException if the id, the target speed or the acceleration
+     *                              is invalid
+     */
+    Car obtain(int id, int targetSpeed, int acceleration, Street street) throws FailedBuildException {
+        Car car = this.freeCars.peek();
+        if (car == null) {
+            return new Car(id, targetSpeed, acceleration, street);
+        }
+        car.reuse(id, targetSpeed, acceleration, street);
+        return this.freeCars.pop();
+    }
+
+    /**
+     * This method puts a car that left the network into the pool.
+     * 
+     * @param car Car that left the network
+     */
+    void release(Car car) {
+        this.freeCars.push(car);
+    }
+
+    /**
+     * This method returns the number of cars in the pool.
+     * 
+     * @return Number of cars in the pool
+     */
+    int size() {
+        return this.freeCars.size();
+    }
+
+}
@@ -0,0 +1,104 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.Arrays;
+
+/**
+ * This class divides every lane of a street into cells of one meter and keeps
+ * a bit for every cell that tells whether a car is at that position. Since the
+ * cars on a lane keep the safe distance to each other, there is at most one
+ * car per cell. Whether a stretch of a lane is free is then answered by
+ * looking at a few words of the bitset instead of searching the cars of the
+ * lane.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class CellOccupancy {
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+    private static final int WORD_SHIFT = 6;
+    private static final long ALL_BITS = -1L;
+
+    private final long[] words;
+    private final int wordsPerLane;
+    private final int length;
+
+    /**
+     * This constructor creates new empty cells for the lanes of a street.
+     * 
+     * @param numberOfLanes Number of lanes of the street
+     * @param length        Length of the street, the cells cover the positions
+     *                      from 0 to the length
+     */
+    protected CellOccupancy(int numberOfLanes, int length) {
+        this.length = length;
+        this.wordsPerLane = (length + BITS_PER_WORD) >>> WORD_SHIFT;
+        this.words = new long[numberOfLanes * this.wordsPerLane];
+    }
+
+    /**
+     * This method marks all cells as free.
+     */
+    protected void clear() {
+        Arrays.fill(this.words, 0);
+    }
+
+    /**
+     * This method marks the cell of a car as occupied.
+     * 
+     * @param lane     Lane of the car
+     * @param position Position of the car
+     */
+    protected void occupy(int lane, int position) {
+        this.words[this.getWordIndex(lane, position)] |= 1L << position;
+    }
+
+    /**
+     * This method marks the cell of a car that left it as free.
+     * 
+     * @param lane     Lane of the car
+     * @param position Position the car left
+     */
+    protected void vacate(int lane, int position) {
+        this.words[this.getWordIndex(lane, position)] &= ~(1L << position);
+    }
+
+    /**
+     * This method checks whether no car is on a stretch of a lane. Positions
+     * outside of the street are ignored.
+     * 
+     * @param lane Lane to be checked
+     * @param from First position of the stretch
+     * @param to   Last position of the stretch
+     * @return True if no cell of the stretch is occupied
+     */
+    protected boolean isFree(int lane, int from, int to) {
+        int first = Math.max(from, 0);
+        int last = Math.min(to, this.length);
+        if (first > last) {
+            return true;
+        }
+        int firstWord = this.getWordIndex(lane, first);
+        int lastWord = this.getWordIndex(lane, last);
+        // Shifts only use the lowest six bits, so the masks select the positions within a word
+        long firstMask = ALL_BITS << first;
+        long lastMask = ALL_BITS >>> (BITS_PER_WORD - 1 - (last & (BITS_PER_WORD - 1)));
+        if (firstWord == lastWord) {
+            return (this.words[firstWord] & firstMask & lastMask) == 0;
+        }
+        if ((this.words[firstWord] & firstMask) != 0 || (this.words[lastWord] & lastMask) != 0) {
+            return false;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (this.words[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getWordIndex(int lane, int position) {
+        return lane * this.wordsPerLane + (position >>> WORD_SHIFT);
+    }
+
+}
@@ -0,0 +1,244 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class detects that the state of a network repeats while ticks elapse,
+ * so that the remaining ticks can be skipped. The state consists of the lane,
+ * position, speed, next direction and destination of every car, the order of
+ * the cars on every street and the signal phases of all intersections.
+ * <p>
+ * The signal phases of all intersections repeat after the least common multiple
+ * of their cycles, so the whole state can only repeat after a multiple of it.
+ * The state is therefore only sampled at these ticks, but at most every
+ * {@value #MIN_INTERVAL} ticks, so the hashes cost little compared with the
+ * ticks. A period found this way may be a multiple of the shortest one, which
+ * only leaves more ticks to simulate at the end. Every sample is reduced to a
+ * Zobrist hash, the exclusive or of a hash of every car and every
+ * intersection, and compared with the sample saved at the last power of two
+ * like in Brent's algorithm. If the hashes are equal, the exact states are
+ * compared, so a collision never skips a tick.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class CycleDetector {
+
+    private static final int MIN_INTERVAL = 64;
+    private static final int MAX_INTERVAL = 1 << 16;
+    private static final int VALUES_PER_NODE = 2;
+    private static final int VALUES_PER_CAR = 7;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+
+    private final Network network;
+    private final int interval;
+    private int ticksSinceSample;
+    private int power;
+    private int samplesSinceSave;
+    private long savedHash;
+    private int[] savedState;
+    private int[] savedMileages;
+    private int period;
+
+    /**
+     * This constructor creates a new cycle detector for a network whose state
+     * does not change other than by its ticks. Sampling begins with
+     * {@link #start()}.
+     * 
+     * @param network Network whose state should be sampled
+     */
+    protected CycleDetector(Network network) {
+        this.network = network;
+        // Hashing every car on every tick of a network without long cycles would cost as much as the tick
+        int cycle = getSignalCycle(network.getTopology());
+        this.interval = cycle >= MIN_INTERVAL ? cycle : (MIN_INTERVAL + cycle - 1) / cycle * cycle;
+        this.ticksSinceSample = 0;
+        this.power = 1;
+        this.samplesSinceSave = 0;
+        this.period = 0;
+    }
+
+    /**
+     * This method checks whether the state can repeat often enough during the
+     * given number of ticks for skipping ticks to pay off.
+     * 
+     * @param ticks Number of ticks that elapse
+     * @return True if a repetition could be detected early enough
+     */
+    protected boolean canRepeatWithin(int ticks) {
+        return this.interval <= MAX_INTERVAL && this.interval <= ticks / 2;
+    }
+
+    /**
+     * This method takes the current state as the first sample. It must be
+     * called before the first tick.
+     */
+    protected void start() {
+        this.save(this.hash());
+    }
+
+    /**
+     * This method must be called after every tick. It samples the state if the
+     * signal phases are the same as at the first sample.
+     * 
+     * @return True if the state is the same as at an earlier sample
+     */
+    protected boolean tickElapsed() {
+        this.ticksSinceSample++;
+        if (this.ticksSinceSample < this.interval) {
+            return false;
+        }
+        this.ticksSinceSample = 0;
+        this.samplesSinceSave++;
+        long hash = this.hash();
+        if (hash == this.savedHash && Arrays.equals(this.writeState(), this.savedState)) {
+            this.period = this.samplesSinceSave * this.interval;
+            return true;
+        }
+        if (this.samplesSinceSave == this.power) {
+            this.save(hash);
+            this.power *= 2;
+            this.samplesSinceSave = 0;
+        }
+        return false;
+    }
+
+    /**
+     * This method returns the number of ticks after which the state repeats. It
+     * is only known after {@link #tickElapsed()} returned true.
+     * 
+     * @return Number of ticks after which the state repeats
+     */
+    protected int getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * This method lets a number of whole periods elapse at once. As the state is
+     * the same after every period, only the mileage of every car grows by the
+     * distance it drove during the last period.
+     * 
+     * @param periods Number of periods that should elapse
+     */
+    protected void skip(int periods) {
+        int index = 0;
+        for (Street street : this.network.getStreets()) {
+            for (Car car : street.getCars()) {
+                int distance = car.getMileage() - this.savedMileages[index++];
+                car.setMileage(car.getMileage() + periods * distance);
+            }
+        }
+    }
+
+    private void save(long hash) {
+        this.savedHash = hash;
+        this.savedState = this.writeState();
+        this.savedMileages = new int[this.countCars()];
+        int index = 0;
+        for (Street street : this.network.getStreets()) {
+            for (Car car : street.getCars()) {
+                this.savedMileages[index++] = car.getMileage();
+            }
+        }
+    }
+
+    private long hash() {
+        long hash = 0;
+        for (Node node : this.network.getNodes()) {
+            if (node instanceof Intersection intersection) {
+                hash ^= mix(((long) node.getId() * MULTIPLIER + intersection.getCountdown()) * MULTIPLIER
+                        + intersection.getIndicator());
+            }
+        }
+        for (Street street : this.network.getStreets()) {
+            // The index keeps the order of the cars, which decides who enters a street first
+            int index = 0;
+            for (Car car : street.getCars()) {
+                long carHash = (long) street.getId() * MULTIPLIER + index++;
+                carHash = carHash * MULTIPLIER + car.getId();
+                carHash = carHash * MULTIPLIER + car.getLane();
+                carHash = carHash * MULTIPLIER + car.getPosition();
+                carHash = carHash * MULTIPLIER + car.getSpeed();
+                carHash = carHash * MULTIPLIER + car.getNextDirection();
+                carHash = carHash * MULTIPLIER + car.getDestination();
+                hash ^= mix(car.leavesAtDestination() ? ~carHash : carHash);
+            }
+        }
+        return hash;
+    }
+
+    private int[] writeState() {
+        List<Node> nodes = this.network.getNodes();
+        List<Street> streets = this.network.getStreets();
+        int[] state = new int[nodes.size() * VALUES_PER_NODE + streets.size() + this.countCars() * VALUES_PER_CAR];
+        int index = 0;
+        for (Node node : nodes) {
+            if (node instanceof Intersection intersection) {
+                state[index] = intersection.getCountdown();
+                state[index + 1] = intersection.getIndicator();
+            }
+            index += VALUES_PER_NODE;
+        }
+        for (Street street : streets) {
+            List<Car> cars = street.getCars();
+            state[index++] = cars.size();
+            for (Car car : cars) {
+                state[index++] = car.getId();
+                state[index++] = car.getLane();
+                state[index++] = car.getPosition();
+                state[index++] = car.getSpeed();
+                state[index++] = car.getNextDirection();
+                state[index++] = car.getDestination();
+                state[index++] = car.leavesAtDestination() ? 1 : 0;
+            }
+        }
+        return state;
+    }
+
+    private int countCars() {
+        int numberOfCars = 0;
+        for (Street street : this.network.getStreets()) {
+            numberOfCars += street.getNumberOfCars();
+        }
+        return numberOfCars;
+    }
+
+    private static int getSignalCycle(NetworkTopology topology) {
+        long cycle = 1;
+        for (int i = 0; i < topology.getNumberOfNodes(); i++) {
+            if (topology.getDuration(i) != NetworkTopology.ROUNDABOUT_DURATION) {
+                long nodeCycle = (long) topology.getDuration(i)
+                        * (topology.getIncomingEnd(i) - topology.getIncomingBegin(i));
+                cycle = cycle / gcd(cycle, nodeCycle) * nodeCycle;
+                if (cycle > MAX_INTERVAL) {
+                    return Integer.MAX_VALUE;
+                }
+            }
+        }
+        return (int) cycle;
+    }
+
+    private static long gcd(long first, long second) {
+        long a = first;
+        long b = second;
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    private static long mix(long value) {
+        long mixed = (value ^ (value >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        mixed = (mixed ^ (mixed >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return mixed ^ (mixed >>> MIX_SHIFT_3);
+    }
+
+}
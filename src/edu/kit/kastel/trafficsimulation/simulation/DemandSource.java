@@ -0,0 +1,25 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.Closeable;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+
+/**
+ * This interface represents a source of trips that is read while the
+ * simulation is running, so the trips never have to be held in memory at once.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public interface DemandSource extends Closeable {
+
+    /**
+     * This method returns the next trip. Trips are returned in ascending order of
+     * their tick.
+     * 
+     * @return The next trip or null if there are no trips left
+     * @throws ParseException if the next trip could not be read
+     */
+    Trip nextTrip() throws ParseException;
+
+}
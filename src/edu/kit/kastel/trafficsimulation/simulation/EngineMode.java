@@ -0,0 +1,85 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This enum represents the ways in which the streets of a network are updated
+ * during a tick.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public enum EngineMode {
+
+    /**
+     * The streets are updated one after the other in order of their ID by the
+     * reference {@link SequentialEngine}.
+     */
+    SEQUENTIAL,
+
+    /**
+     * The streets are updated at the same time by a {@link SynchronousEngine}.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * The streets are updated at the same time by a {@link SynchronousEngine}
+     * that computes the speeds and headways of all cars of a street with a
+     * {@link LaneKernel}.
+     */
+    VECTORIZED,
+
+    /**
+     * The streets are updated as queues of cars driving at their free-flow speed
+     * by a {@link MesoscopicEngine}.
+     */
+    MESOSCOPIC;
+
+    /**
+     * This method checks whether the engine only supports streets with up to
+     * {@value SynchronousEngine#MAX_NUMBER_LANES} lanes, whose cars drive in
+     * single file.
+     * 
+     * @return True if the engine only supports streets whose cars drive in
+     *         single file
+     */
+    protected boolean isSingleFile() {
+        return this != SEQUENTIAL;
+    }
+
+    /**
+     * This method checks whether the result of a tick does not depend on the
+     * order in which the streets are updated, so that a network can be cut
+     * between its nodes and simulated in parts.
+     * 
+     * @return True if the streets are updated at the same time
+     */
+    protected boolean isOrderIndependent() {
+        return this == SYNCHRONOUS || this == VECTORIZED;
+    }
+
+    /**
+     * This method checks whether the engine places every car during a tick, such
+     * that the states of the network after two ticks can be compared.
+     * 
+     * @return True if the engine places every car during a tick
+     */
+    protected boolean placesEveryCar() {
+        return this != MESOSCOPIC;
+    }
+
+    /**
+     * This method creates the engine that updates the streets of a network in
+     * this way.
+     * 
+     * @param network Network to be updated
+     * @return New engine for the network
+     */
+    protected SimulationEngine createEngine(Network network) {
+        return switch (this) {
+            case SEQUENTIAL -> new SequentialEngine(network);
+            case SYNCHRONOUS -> new SynchronousEngine(network, false);
+            case VECTORIZED -> new SynchronousEngine(network, true);
+            case MESOSCOPIC -> new MesoscopicEngine(network);
+        };
+    }
+
+}
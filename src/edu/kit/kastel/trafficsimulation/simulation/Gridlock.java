@@ -0,0 +1,55 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class describes a gridlock: a cycle of full streets whose cars all wait
+ * for each other, together with the full streets that wait for the cycle. None
+ * of their cars can move again until the network is changed.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Gridlock {
+
+    private final List<Integer> streetIds;
+    private final List<Integer> carIds;
+
+    /**
+     * This constructor creates a new description of a gridlock.
+     * 
+     * @param streets Streets of the gridlock ordered by their ID
+     */
+    protected Gridlock(List<Street> streets) {
+        this.streetIds = new ArrayList<>();
+        this.carIds = new ArrayList<>();
+        for (Street street : streets) {
+            this.streetIds.add(street.getId());
+            for (Car car : street.getCars()) {
+                this.carIds.add(car.getId());
+            }
+        }
+        Collections.sort(this.carIds);
+    }
+
+    /**
+     * This method returns the IDs of the streets of this gridlock.
+     * 
+     * @return IDs of the streets in ascending order
+     */
+    public List<Integer> getStreetIds() {
+        return this.streetIds;
+    }
+
+    /**
+     * This method returns the IDs of the cars of this gridlock.
+     * 
+     * @return IDs of the cars in ascending order
+     */
+    public List<Integer> getCarIds() {
+        return this.carIds;
+    }
+
+}
@@ -0,0 +1,235 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class detects gridlocks in a network and freezes their streets, so that
+ * they are no longer updated. It maintains a wait-for graph between the streets
+ * that cannot move: a street is stuck if it is full, all its cars stand still
+ * with no space between them and the car at its end waits to turn onto another
+ * full street. Since every street waits for at most one other street, following
+ * these edges either ends at a street that can move, at a frozen street or runs
+ * into a cycle. The streets on the way to a cycle or to a frozen street can
+ * never move again by themselves.
+ * <p>
+ * The edges are kept from tick to tick. After every tick the streets that are
+ * not frozen are examined, which takes constant time unless a street is full,
+ * and the edges are only followed from the streets whose edge changed. The
+ * frozen streets that wait for the same cycle form a component. A frozen
+ * street stays frozen until its component is thawed, which must happen
+ * whenever a car is removed from it. Any other change of the network thaws all
+ * streets with {@link #thaw()}.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class GridlockDetector {
+
+    private static final int NO_STREET = -1;
+    private static final int UNKNOWN = -2;
+
+    private final Network network;
+    private final List<Integer> path;
+    private final List<Integer> changedStreets;
+    private int[] edges;
+    private int[] components;
+    private int[] nextInComponent;
+    private int[] visits;
+    private int visit;
+
+    /**
+     * This constructor creates a new gridlock detector for a network. No street
+     * is frozen yet.
+     * 
+     * @param network Network whose gridlocks should be detected
+     */
+    protected GridlockDetector(Network network) {
+        this.network = network;
+        this.path = new ArrayList<>();
+        this.changedStreets = new ArrayList<>();
+        this.edges = new int[0];
+        this.components = new int[0];
+        this.nextInComponent = new int[0];
+        this.visits = new int[0];
+        this.visit = 0;
+    }
+
+    /**
+     * This method examines all streets that are not frozen and freezes those
+     * that became part of a gridlock.
+     */
+    protected void update() {
+        List<Street> streets = this.network.getStreets();
+        if (this.edges.length != streets.size()) {
+            this.thaw();
+        }
+        NetworkTopology topology = this.network.getTopology();
+        this.changedStreets.clear();
+        // The streets that are frozen do not depend on the order in which they are examined
+        int[] order = topology.getUpdateOrder();
+        for (int j = 0; j < streets.size(); j++) {
+            int i = order != null ? order[j] : j;
+            Street street = streets.get(i);
+            if (street.isFrozen()) {
+                continue;
+            }
+            Street blockingStreet = getBlockingStreet(street);
+            int edge = blockingStreet == null ? NO_STREET : topology.getStreetIndex(blockingStreet.getId());
+            if (edge != this.edges[i]) {
+                this.edges[i] = edge;
+                this.changedStreets.add(i);
+            }
+        }
+        // All edges are up to date before they are followed
+        if (this.visit > Integer.MAX_VALUE - streets.size()) {
+            Arrays.fill(this.visits, 0);
+            this.visit = 0;
+        }
+        int firstVisit = this.visit + 1;
+        for (int street : this.changedStreets) {
+            if (this.edges[street] != NO_STREET && this.visits[street] < firstVisit) {
+                this.follow(streets, street, firstVisit);
+            }
+        }
+    }
+
+    /**
+     * This method unfreezes all streets, so that they are updated again.
+     */
+    protected void thaw() {
+        List<Street> streets = this.network.getStreets();
+        for (Street street : streets) {
+            street.setFrozen(false);
+        }
+        if (this.edges.length != streets.size()) {
+            this.edges = new int[streets.size()];
+            this.components = new int[streets.size()];
+            this.nextInComponent = new int[streets.size()];
+            this.visits = new int[streets.size()];
+            this.visit = 0;
+        }
+        Arrays.fill(this.edges, UNKNOWN);
+    }
+
+    /**
+     * This method unfreezes the component of frozen streets a street belongs
+     * to, so that its streets are updated again. Nothing happens if the street
+     * is not frozen.
+     * 
+     * @param street Street whose component should be unfrozen
+     */
+    protected void thaw(Street street) {
+        List<Street> streets = this.network.getStreets();
+        int index = this.network.getTopology().getStreetIndex(street.getId());
+        if (!street.isFrozen() || index >= this.edges.length) {
+            return;
+        }
+        // The streets of a component are linked, beginning with the street on the cycle they wait for
+        int current = this.components[index];
+        while (current != NO_STREET) {
+            streets.get(current).setFrozen(false);
+            this.edges[current] = UNKNOWN;
+            current = this.nextInComponent[current];
+        }
+    }
+
+    /**
+     * This method detects all gridlocks of the network in its current state.
+     * 
+     * @return Gridlocks ordered by the lowest ID of their streets
+     */
+    protected List<Gridlock> findGridlocks() {
+        this.thaw();
+        this.update();
+        List<Street> streets = this.network.getStreets();
+        Map<Integer, List<Street>> streetsByComponent = new LinkedHashMap<>();
+        for (int i = 0; i < streets.size(); i++) {
+            if (streets.get(i).isFrozen()) {
+                streetsByComponent.computeIfAbsent(this.components[i], component -> new ArrayList<>())
+                        .add(streets.get(i));
+            }
+        }
+        List<Gridlock> gridlocks = new ArrayList<>();
+        for (List<Street> component : streetsByComponent.values()) {
+            gridlocks.add(new Gridlock(component));
+        }
+        return gridlocks;
+    }
+
+    private void follow(List<Street> streets, int start, int firstVisit) {
+        this.visit++;
+        this.path.clear();
+        int current = start;
+        // A street visited by an earlier path of this tick does not lead into a gridlock
+        while (this.edges[current] >= 0 && !streets.get(current).isFrozen() && this.visits[current] < firstVisit) {
+            this.visits[current] = this.visit;
+            this.path.add(current);
+            current = this.edges[current];
+        }
+        // Reaching the path again closes a cycle, whose first street becomes the head of the component
+        if (this.visits[current] == this.visit && !streets.get(current).isFrozen()) {
+            streets.get(current).setFrozen(true);
+            this.components[current] = current;
+            this.nextInComponent[current] = NO_STREET;
+        }
+        if (!streets.get(current).isFrozen()) {
+            return;
+        }
+        int component = this.components[current];
+        for (int index : this.path) {
+            this.freeze(streets, index, component);
+        }
+        // Streets that waited for the new frozen streets before their edge changed are stuck as well
+        NetworkTopology topology = this.network.getTopology();
+        for (int i = 0; i < this.path.size(); i++) {
+            int street = this.path.get(i);
+            int node = topology.getStartNode(street);
+            for (int j = topology.getIncomingBegin(node); j < topology.getIncomingEnd(node); j++) {
+                int waitingStreet = topology.getIncomingStreet(j);
+                if (this.edges[waitingStreet] == street && !streets.get(waitingStreet).isFrozen()) {
+                    this.freeze(streets, waitingStreet, component);
+                    this.path.add(waitingStreet);
+                }
+            }
+        }
+    }
+
+    private void freeze(List<Street> streets, int street, int component) {
+        if (streets.get(street).isFrozen()) {
+            return;
+        }
+        streets.get(street).setFrozen(true);
+        this.components[street] = component;
+        this.nextInComponent[street] = this.nextInComponent[component];
+        this.nextInComponent[component] = street;
+    }
+
+    private static Street getBlockingStreet(Street street) {
+        // Cars on streets with more than two lanes can change lanes, so such streets are never considered stuck
+        if (!street.isFull() || street instanceof MultiLaneStreet) {
+            return null;
+        }
+        List<Car> cars = street.getCars();
+        Car lastCar = cars.get(cars.size() - 1);
+        if (lastCar.getPosition() != street.getLength() || lastCar.leavesAt(street.getEndNode())) {
+            return null;
+        }
+        // Most cars waiting at the end of a street wait for their right of way, so this is checked first
+        Street nextStreet = street.getEndNode().getNextStreet(lastCar);
+        if (!nextStreet.isFull() || lastCar.getSpeed() != 0) {
+            return null;
+        }
+        for (int i = 0; i < cars.size() - 1; i++) {
+            Car car = cars.get(i);
+            if (car.getSpeed() != 0 || cars.get(i + 1).getPosition() - car.getPosition() != Street.SAFE_DISTANCE) {
+                return null;
+            }
+        }
+        return nextStreet;
+    }
+
+}
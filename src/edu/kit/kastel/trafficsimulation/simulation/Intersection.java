@@ -16,7 +16,7 @@ public class Intersection extends Node {
 
     private static final String ERROR_DURATION_NEGATIVE = "Green phase duration must be between %d and %d. ";
 
-    private final int duration;
+    private int duration;
     private int countdown;
     private int indicator;
 
@@ -41,13 +41,76 @@ public class Intersection extends Node {
         this.indicator = INITIAL_INDICATOR;
     }
 
+    /**
+     * This method returns the green phase duration of this intersection.
+     * 
+     * @return Green phase duration of this intersection
+     */
+    public int getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * This method changes the green phase duration of this intersection. The
+     * current green phase ends after the new duration at the latest.
+     * 
+     * @param duration New green phase duration
+     * @throws FailedBuildException if the green phase duration is not valid
+     */
+    public void setDuration(int duration) throws FailedBuildException {
+        if (duration < MIN_DURATION || duration > MAX_DURATION) {
+            throw new FailedBuildException(ERROR_DURATION_NEGATIVE.formatted(MIN_DURATION, MAX_DURATION));
+        }
+        this.duration = duration;
+        this.countdown = Math.min(this.countdown, duration);
+    }
+
+    /**
+     * This method returns the number of ticks until this intersection switches
+     * lights the next time.
+     * 
+     * @return Number of ticks until the lights switch
+     */
+    public int getCountdown() {
+        return this.countdown;
+    }
+
+    /**
+     * This method returns the index of the incoming street that currently has the
+     * right of way.
+     * 
+     * @return Index of the incoming street that currently has the right of way
+     */
+    public int getIndicator() {
+        return this.indicator;
+    }
+
+    /**
+     * This method restores the signal phase of this intersection.
+     * 
+     * @param countdown Number of ticks until the lights switch
+     * @param indicator Index of the incoming street that has the right of way
+     */
+    protected void setPhase(int countdown, int indicator) {
+        this.countdown = countdown;
+        this.indicator = indicator;
+    }
+
+    /**
+     * This method resets the signal phase of this intersection, such that the
+     * first incoming street gets a full green phase.
+     */
+    protected void resetPhase() {
+        this.setPhase(this.duration, INITIAL_INDICATOR);
+    }
+
     /**
      * With this method, the light is switched in such a way that the next street
      * has the right of way.
      */
     private void switchLights() {
         this.indicator++;
-        if (this.indicator >= this.getIncomingStreets().size()) {
+        if (this.indicator >= this.getNumberOfIncomingStreets()) {
             this.indicator = 0;
         }
     }
@@ -63,7 +126,7 @@ public class Intersection extends Node {
 
     @Override
     public boolean hasRightOfWay(Street street) {
-        return this.getIncomingStreets().get(this.indicator).equals(street);
+        return this.getIncomingStreet(this.indicator).equals(street);
     }
 
 }
@@ -0,0 +1,73 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This class computes the speeds and moves of all cars of a street at once.
+ * The state of the cars is stored contiguously in arrays ordered from the start
+ * to the end of the street, and every method is a plain counted loop without
+ * branches or method calls, so the JIT compiler can translate it to SIMD
+ * instructions that handle several cars at a time.
+ * <p>
+ * A car is only moved up to the safe distance behind the position its leader
+ * had before the tick. A car that is stopped by this headway still has a
+ * distance left to drive and has to be moved by scalar code, since it
+ * interacts with its leader, the end of the street or the other lane. The
+ * result is the same as if every car was moved on its own from the end to the
+ * start of the street, because the leader of a car never moves backwards.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class LaneKernel {
+
+    private LaneKernel() {
+    }
+
+    /**
+     * This method accelerates the given cars. The new speed of a car is its old
+     * speed plus its acceleration, but at most its target speed and the speed
+     * limit.
+     * 
+     * @param speeds        Speeds of the cars, which are replaced by the new speeds
+     * @param accelerations Accelerations of the cars
+     * @param targetSpeeds  Target speeds of the cars
+     * @param speedLimit    Speed limit of the street
+     * @param size          Number of cars
+     */
+    public static void accelerate(int[] speeds, int[] accelerations, int[] targetSpeeds, int speedLimit,
+            int size) {
+        for (int i = 0; i < size; i++) {
+            speeds[i] = Math.min(Math.min(speeds[i] + accelerations[i], targetSpeeds[i]), speedLimit);
+        }
+    }
+
+    /**
+     * This method moves the given cars by their speed, but at most up to the safe
+     * distance behind the position their leader had before. The last car may
+     * move up to the end of the street.
+     * 
+     * @param positions        Positions of the cars ordered from the start to the
+     *                         end of the street, which are replaced by the new
+     *                         positions
+     * @param speeds           Speeds of the cars
+     * @param headways         Space for the headways of the cars
+     * @param distancesToDrive Space for the distances the cars could not drive
+     * @param length           Length of the street
+     * @param size             Number of cars
+     */
+    public static void driveWithinHeadway(int[] positions, int[] speeds, int[] headways, int[] distancesToDrive,
+            int length, int size) {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < size - 1; i++) {
+            headways[i] = positions[i + 1] - positions[i] - Street.SAFE_DISTANCE;
+        }
+        headways[size - 1] = length - positions[size - 1];
+        for (int i = 0; i < size; i++) {
+            int distance = Math.min(speeds[i], headways[i]);
+            positions[i] += distance;
+            distancesToDrive[i] = speeds[i] - distance;
+        }
+    }
+
+}
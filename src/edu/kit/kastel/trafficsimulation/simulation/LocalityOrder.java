@@ -0,0 +1,102 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This class computes an order of the streets of a network in which streets
+ * that are connected by a node are close to each other. It is the reverse
+ * Cuthill-McKee order of the graph in which two streets are neighbours if one
+ * ends where the other starts: every connected part of the network is
+ * traversed breadth-first, beginning at a street far away from the others,
+ * neighbours with fewer neighbours first, and the result is reversed. The
+ * streets keep their IDs, only the order in which they are visited changes.
+ * The sequential and the mesoscopic engine depend on the order of the streets,
+ * so they still update them in order of their ID.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class LocalityOrder {
+
+    private LocalityOrder() {
+    }
+
+    /**
+     * This method computes the locality order of the streets of a topology.
+     * 
+     * @param topology Topology of the network
+     * @return Indices of the streets in the topology, in locality order
+     */
+    public static int[] compute(NetworkTopology topology) {
+        int numberOfStreets = topology.getNumberOfStreets();
+        int[] degrees = new int[numberOfStreets];
+        for (int i = 0; i < numberOfStreets; i++) {
+            int endNode = topology.getEndNode(i);
+            int startNode = topology.getStartNode(i);
+            degrees[i] = topology.getOutgoingEnd(endNode) - topology.getOutgoingBegin(endNode)
+                    + topology.getIncomingEnd(startNode) - topology.getIncomingBegin(startNode);
+        }
+
+        int[] order = new int[numberOfStreets];
+        // A street is visited during a traversal if it is marked with the number of the traversal
+        int[] marks = new int[numberOfStreets];
+        int traversal = 0;
+        int size = 0;
+        for (int i = 0; i < numberOfStreets; i++) {
+            if (marks[i] == 0) {
+                // A breadth-first search ends at a street far away from its start, which is a better start
+                int end = traverse(topology, degrees, i, order, size, marks, ++traversal);
+                size = traverse(topology, degrees, order[end - 1], order, size, marks, ++traversal);
+            }
+        }
+
+        for (int i = 0; i < order.length / 2; i++) {
+            int swap = order[i];
+            order[i] = order[order.length - 1 - i];
+            order[order.length - 1 - i] = swap;
+        }
+        return order;
+    }
+
+    private static int traverse(NetworkTopology topology, int[] degrees, int start, int[] order, int size,
+            int[] marks, int traversal) {
+        int end = size;
+        order[end++] = start;
+        marks[start] = traversal;
+        for (int head = size; head < end; head++) {
+            int street = order[head];
+            int first = end;
+            int endNode = topology.getEndNode(street);
+            for (int i = topology.getOutgoingBegin(endNode); i < topology.getOutgoingEnd(endNode); i++) {
+                end = addUnvisited(topology.getOutgoingStreet(i), order, end, marks, traversal);
+            }
+            int startNode = topology.getStartNode(street);
+            for (int i = topology.getIncomingBegin(startNode); i < topology.getIncomingEnd(startNode); i++) {
+                end = addUnvisited(topology.getIncomingStreet(i), order, end, marks, traversal);
+            }
+            sortByDegree(order, first, end, degrees);
+        }
+        return end;
+    }
+
+    private static int addUnvisited(int street, int[] order, int end, int[] marks, int traversal) {
+        if (marks[street] == traversal) {
+            return end;
+        }
+        marks[street] = traversal;
+        order[end] = street;
+        return end + 1;
+    }
+
+    private static void sortByDegree(int[] order, int from, int to, int[] degrees) {
+        // A street has at most eight neighbours, insertion sort keeps equal degrees in their order
+        for (int i = from + 1; i < to; i++) {
+            int street = order[i];
+            int j = i - 1;
+            while (j >= from && degrees[order[j]] > degrees[street]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = street;
+        }
+    }
+
+}
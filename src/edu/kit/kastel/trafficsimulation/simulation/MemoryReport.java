@@ -0,0 +1,293 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class estimates the memory retained by a network, broken down by the
+ * parts of the network. The estimate is computed from the numbers of nodes,
+ * streets, lanes and cars the network counts while it is built and edited and
+ * from the object layout of a 64-bit JVM with compressed references, so it
+ * neither walks the heap nor visits the nodes and streets. Only listing the
+ * streets with the most cars visits every street.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class MemoryReport {
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int ALIGNMENT_BYTES = 8;
+    private static final int NODE_BYTES = 32;
+    private static final int INTERSECTION_BYTES = 48;
+    private static final int STREET_BYTES = 48;
+    private static final int MULTI_LANE_STREET_BYTES = 56;
+    private static final int CAR_BYTES = 72;
+    private static final int LIST_BYTES = 24;
+    private static final int MAP_BYTES = 48;
+    // A map entry and its boxed key
+    private static final int MAP_ENTRY_BYTES = 48;
+    private static final double MAP_LOAD_FACTOR = 0.75;
+    private static final int TOPOLOGY_BYTES = 48;
+    // Node IDs, durations and the numbers of outgoing and incoming streets
+    private static final int NODE_ARRAYS = 4;
+    // Street IDs, start and end nodes, directions, lengths and speed limits
+    private static final int STREET_ARRAYS = 6;
+    private static final int ROWS_PER_NODE = 2;
+    // References to both arrays of a table, its destination and its entries in the hash table
+    private static final int ROUTING_SLOT_INTS = 5;
+
+    private final int numberOfNodes;
+    private final int numberOfStreets;
+    private final int numberOfCars;
+    private final int numberOfRoutingTables;
+    private final long nodeBytes;
+    private final long streetBytes;
+    private final long carBytes;
+    private final long indexBytes;
+    private final long carListBytes;
+    private final long topologyBytes;
+    private final long routingTableBytes;
+    private final List<Integer> largestStreetIds;
+    private final List<Integer> largestStreetSizes;
+
+    /**
+     * This constructor estimates the memory retained by a network.
+     * 
+     * @param network                Network to be estimated
+     * @param numberOfLargestStreets Number of streets with the most cars to be
+     *                               listed
+     */
+    protected MemoryReport(Network network, int numberOfLargestStreets) {
+        this.numberOfNodes = network.getNodes().size();
+        this.numberOfStreets = network.getStreets().size();
+        this.numberOfCars = network.getNumberOfCars();
+        this.numberOfRoutingTables = network.getRoutingTable().getNumberOfTables();
+
+        int numberOfIntersections = network.getNumberOfIntersections();
+        this.nodeBytes = (long) INTERSECTION_BYTES * numberOfIntersections
+                + (long) NODE_BYTES * (this.numberOfNodes - numberOfIntersections);
+
+        // The lanes of a street with more than one lane are an array and a list of empty lists
+        int multiLaneStreets = network.getNumberOfMultiLaneStreets();
+        int multiLaneLanes = network.getNumberOfMultiLaneLanes();
+        this.streetBytes = (long) STREET_BYTES * (this.numberOfStreets - multiLaneStreets)
+                + (long) (MULTI_LANE_STREET_BYTES + ARRAY_HEADER_BYTES) * multiLaneStreets
+                + align((long) Integer.BYTES * multiLaneLanes);
+        this.carListBytes = getListBytes(this.numberOfStreets + multiLaneStreets, this.numberOfCars + multiLaneLanes)
+                + getListBytes(multiLaneLanes, 0);
+        this.carBytes = (long) CAR_BYTES * this.numberOfCars;
+        // Nodes, streets and cars by their ID
+        this.indexBytes = getMapBytes(this.numberOfNodes) + getMapBytes(this.numberOfStreets)
+                + getMapBytes(this.numberOfCars);
+        int streetCapacity = network.getTopology().getStreetCapacity();
+        this.topologyBytes = TOPOLOGY_BYTES + NODE_ARRAYS * getIntArrayBytes(this.numberOfNodes)
+                + getIntArrayBytes(this.numberOfNodes * Node.MAX_NUMBER_OUTGOING_STREETS)
+                + getIntArrayBytes(this.numberOfNodes * Node.MAX_NUMBER_INCOMING_STREETS)
+                + STREET_ARRAYS * getIntArrayBytes(streetCapacity);
+        // One direction and one cost per node and destination, and the slots of the destinations
+        this.routingTableBytes = getIntArrayBytes(ROUTING_SLOT_INTS * this.numberOfRoutingTables)
+                + this.numberOfRoutingTables * align(ARRAY_HEADER_BYTES + (long) this.numberOfNodes)
+                + this.numberOfRoutingTables * align(ARRAY_HEADER_BYTES + (long) Double.BYTES * this.numberOfNodes);
+
+        this.largestStreetIds = new ArrayList<>();
+        this.largestStreetSizes = new ArrayList<>();
+        if (numberOfLargestStreets > 0) {
+            this.findLargestStreets(network.getStreets(), numberOfLargestStreets);
+        }
+    }
+
+    /**
+     * This method returns the number of nodes of the network.
+     * 
+     * @return Number of nodes
+     */
+    public int getNumberOfNodes() {
+        return this.numberOfNodes;
+    }
+
+    /**
+     * This method returns the number of streets of the network.
+     * 
+     * @return Number of streets
+     */
+    public int getNumberOfStreets() {
+        return this.numberOfStreets;
+    }
+
+    /**
+     * This method returns the number of cars of the network.
+     * 
+     * @return Number of cars
+     */
+    public int getNumberOfCars() {
+        return this.numberOfCars;
+    }
+
+    /**
+     * This method returns the number of entries of the maps that find nodes,
+     * streets and cars by their ID.
+     * 
+     * @return Number of entries of the index maps
+     */
+    public int getNumberOfIndexEntries() {
+        return this.numberOfNodes + this.numberOfStreets + this.numberOfCars;
+    }
+
+    /**
+     * This method returns the number of rows of the topology, which are the
+     * outgoing and the incoming streets of every node.
+     * 
+     * @return Number of rows of the topology
+     */
+    public int getNumberOfTopologyRows() {
+        return ROWS_PER_NODE * this.numberOfNodes;
+    }
+
+    /**
+     * This method returns the number of routing tables computed for the
+     * destinations of cars.
+     * 
+     * @return Number of routing tables
+     */
+    public int getNumberOfRoutingTables() {
+        return this.numberOfRoutingTables;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the nodes.
+     * 
+     * @return Estimated bytes of the nodes
+     */
+    public long getNodeBytes() {
+        return this.nodeBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the streets without
+     * their lists of cars.
+     * 
+     * @return Estimated bytes of the streets
+     */
+    public long getStreetBytes() {
+        return this.streetBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the cars.
+     * 
+     * @return Estimated bytes of the cars
+     */
+    public long getCarBytes() {
+        return this.carBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the maps that find
+     * nodes, streets and cars by their ID.
+     * 
+     * @return Estimated bytes of the index maps
+     */
+    public long getIndexBytes() {
+        return this.indexBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the lists of cars of
+     * all streets.
+     * 
+     * @return Estimated bytes of the car lists
+     */
+    public long getCarListBytes() {
+        return this.carListBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the arrays of the
+     * topology, in which the streets of every node are kept.
+     * 
+     * @return Estimated bytes of the topology
+     */
+    public long getTopologyBytes() {
+        return this.topologyBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the routing tables.
+     * 
+     * @return Estimated bytes of the routing tables
+     */
+    public long getRoutingTableBytes() {
+        return this.routingTableBytes;
+    }
+
+    /**
+     * This method returns the estimated bytes retained by the whole network.
+     * 
+     * @return Estimated bytes of the network
+     */
+    public long getTotalBytes() {
+        return this.nodeBytes + this.streetBytes + this.carBytes + this.indexBytes + this.carListBytes
+                + this.topologyBytes + this.routingTableBytes;
+    }
+
+    /**
+     * This method returns the IDs of the streets with the most cars, beginning
+     * with the street with the most cars.
+     * 
+     * @return IDs of the streets with the most cars
+     */
+    public List<Integer> getLargestStreetIds() {
+        return this.largestStreetIds;
+    }
+
+    /**
+     * This method returns the numbers of cars on the streets with the most cars,
+     * in the same order as {@link #getLargestStreetIds()}.
+     * 
+     * @return Numbers of cars on the streets with the most cars
+     */
+    public List<Integer> getLargestStreetSizes() {
+        return this.largestStreetSizes;
+    }
+
+    private void findLargestStreets(List<Street> streets, int numberOfLargestStreets) {
+        // Only the few largest streets are kept in order, so the streets are not sorted
+        for (Street street : streets) {
+            int size = street.getNumberOfCars();
+            int position = this.largestStreetSizes.size();
+            while (position > 0 && this.largestStreetSizes.get(position - 1) < size) {
+                position--;
+            }
+            if (position < numberOfLargestStreets) {
+                this.largestStreetIds.add(position, street.getId());
+                this.largestStreetSizes.add(position, size);
+                if (this.largestStreetSizes.size() > numberOfLargestStreets) {
+                    this.largestStreetIds.remove(numberOfLargestStreets);
+                    this.largestStreetSizes.remove(numberOfLargestStreets);
+                }
+            }
+        }
+    }
+
+    private static long getListBytes(int numberOfLists, int numberOfElements) {
+        // The padding of the arrays is estimated for all lists together
+        return (long) (LIST_BYTES + ARRAY_HEADER_BYTES) * numberOfLists
+                + align((long) REFERENCE_BYTES * numberOfElements);
+    }
+
+    private static long getIntArrayBytes(int length) {
+        return align(ARRAY_HEADER_BYTES + (long) Integer.BYTES * length);
+    }
+
+    private static long getMapBytes(int size) {
+        long capacity = Long.highestOneBit(Math.max((long) Math.ceil(size / MAP_LOAD_FACTOR), 1) * 2 - 1);
+        return MAP_BYTES + align(ARRAY_HEADER_BYTES + REFERENCE_BYTES * capacity) + (long) MAP_ENTRY_BYTES * size;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT_BYTES - 1) / ALIGNMENT_BYTES * ALIGNMENT_BYTES;
+    }
+
+}
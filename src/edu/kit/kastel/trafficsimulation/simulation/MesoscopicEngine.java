@@ -0,0 +1,239 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.List;
+
+/**
+ * This class updates the streets of a network as queues instead of moving
+ * every car with its own acceleration. Every street is a first-in-first-out
+ * queue: a car drives at its free-flow speed, the lower of its target speed
+ * and the speed limit, so it needs the length of the street divided by that
+ * speed to reach the end. It stops at the safe distance behind the car ahead,
+ * so a street holds at most one car per {@value Street#SAFE_DISTANCE} meters.
+ * Cars never overtake.
+ * <p>
+ * When a car joins a queue, the tick at which it reaches the end of the street
+ * is computed once from its position, its free-flow speed and the exit tick of
+ * the car ahead: it starts as soon as it keeps the safe distance to that car
+ * all the way. During a tick only the first car of every queue is examined:
+ * once its exit tick passed, it turns onto the next street if the end node
+ * gives it the right of way and the next street is not full, and the car
+ * behind it is queued again from where it stands. The streets are updated in
+ * order of their ID, so at most one car leaves a street during a tick. A car
+ * that turned onto a street that is updated later during the same tick does
+ * not move again.
+ * <p>
+ * The position of every car follows from its exit tick and the position of the
+ * first car of its queue, so only the first and the last car of every queue are
+ * placed during a tick, which is all the nodes, the demand and the
+ * {@link GridlockDetector} look at unless a full street waits at its end. All
+ * other cars are placed when the network asks for them with
+ * {@link #updateCars()}. A tick therefore takes time in the number of streets
+ * instead of the number of cars, at the cost of accelerations and overtaking.
+ * Like the synchronous engine it supports streets with up to
+ * {@value SynchronousEngine#MAX_NUMBER_LANES} lanes.
+ *
+ * @author ulqch
+ * @version 1.0
+ */
+public class MesoscopicEngine implements SimulationEngine {
+
+    private static final int TICK_BEFORE_LAST = -1;
+
+    private final Network network;
+    private Car[] heads;
+    private Car[] standingHeads;
+    private int tick;
+
+    /**
+     * This constructor creates a new mesoscopic engine for a network. All streets
+     * of the network must have at most {@value SynchronousEngine#MAX_NUMBER_LANES}
+     * lanes.
+     *
+     * @param network Network to be updated
+     */
+    protected MesoscopicEngine(Network network) {
+        this.network = network;
+        this.heads = new Car[0];
+        this.standingHeads = new Car[0];
+        this.tick = 0;
+    }
+
+    @Override
+    public void updateStreets() {
+        List<Street> streets = this.network.getStreets();
+        for (int i = 0; i < streets.size(); i++) {
+            List<Car> cars = streets.get(i).getCars();
+            this.updateHead(streets, i);
+            // Cars placed since the last tick are at the start of the street
+            int placed = 0;
+            while (placed < cars.size() && cars.get(placed).getExitTick() == Car.NOT_QUEUED) {
+                placed++;
+            }
+            for (int j = placed - 1; j >= 0; j--) {
+                enqueue(streets.get(i), j, this.tick);
+            }
+        }
+        this.tick++;
+        for (int i = 0; i < streets.size(); i++) {
+            Street street = streets.get(i);
+            if (!street.isFrozen() && street.getNumberOfCars() > 0) {
+                this.updateStreet(street, i);
+            }
+        }
+    }
+
+    @Override
+    public void updateCars() {
+        List<Street> streets = this.network.getStreets();
+        for (int i = 0; i < streets.size(); i++) {
+            List<Car> cars = streets.get(i).getCars();
+            this.updateHead(streets, i);
+            // Cars placed since the last tick keep their position until they are queued
+            int queued = cars.size();
+            while (queued > 0 && cars.get(queued - 1).getExitTick() != Car.NOT_QUEUED) {
+                queued--;
+                this.place(streets.get(i), queued);
+            }
+            // From now on ticks are counted from this one, cars that reached the end before are all alike
+            for (int j = queued; j < cars.size(); j++) {
+                Car car = cars.get(j);
+                car.setQueue(Math.max(car.getExitTick() - this.tick, TICK_BEFORE_LAST), car.getQueuePosition());
+            }
+        }
+        this.tick = 0;
+    }
+
+    private void updateHead(List<Street> streets, int index) {
+        if (this.heads.length != streets.size()) {
+            this.heads = new Car[streets.size()];
+            this.standingHeads = new Car[streets.size()];
+        }
+        Street street = streets.get(index);
+        Car head = street.getNumberOfCars() == 0 ? null : street.getCar(street.getNumberOfCars() - 1);
+        Car lastHead = this.heads[index];
+        // The demand or an edit removed the last head from the network, or the demand already reused it
+        if (head != null && lastHead != null && head != lastHead && head.getExitTick() != Car.NOT_QUEUED
+                && (this.network.findCar(lastHead.getId()) != lastHead || lastHead.getExitTick() == Car.NOT_QUEUED)) {
+            this.follow(street, lastHead.getPosition());
+        }
+        this.heads[index] = head;
+    }
+
+    private void updateStreet(Street street, int index) {
+        List<Car> cars = street.getCars();
+        Car head = cars.get(cars.size() - 1);
+        this.place(street, cars.size() - 1);
+        boolean waiting = head.getPosition() == street.getLength();
+        if (waiting) {
+            Street nextStreet = street.getEndNode().getStreetToTurn(head);
+            if (nextStreet != null) {
+                this.handOver(street, head, nextStreet);
+                if (!cars.isEmpty()) {
+                    this.follow(street, street.getLength());
+                }
+                this.heads[index] = cars.isEmpty() ? null : cars.get(cars.size() - 1);
+                waiting = false;
+            }
+        }
+        if (cars.isEmpty()) {
+            return;
+        }
+        this.place(street, 0);
+        Car tail = cars.get(0);
+        boolean compact = waiting && street.isFull() && tail.getSpeed() == 0
+                && tail.getPosition() == street.getLength() - (cars.size() - 1) * Street.SAFE_DISTANCE;
+        if (!compact) {
+            this.standingHeads[index] = null;
+        } else if (this.standingHeads[index] != head) {
+            // The gridlock detector looks at all cars of a full street only if its last car stands compact behind them
+            boolean standing = true;
+            for (int i = 1; i < cars.size() - 1; i++) {
+                this.place(street, i);
+                standing &= cars.get(i).getSpeed() == 0;
+            }
+            this.standingHeads[index] = standing ? head : null;
+        }
+    }
+
+    private void handOver(Street street, Car car, Street nextStreet) {
+        // Like in the other engines a car that reached the end during this tick drives on with the rest of its speed
+        int rest = car.getSpeed() == 0 ? 0 : Math.max(0, getFreeFlowSpeed(car) - car.getSpeed());
+        street.removeCar(car);
+        car.setStreet(nextStreet);
+        car.setLane(0);
+        car.resetPosition();
+        car.updateNextDirection(street.getEndNode());
+        nextStreet.getCars().add(0, car);
+        rest = Math.min(rest, Math.min(getFreeFlowSpeed(car), nextStreet.getLength()));
+        if (nextStreet.getNumberOfCars() > 1) {
+            rest = Math.min(rest, nextStreet.getCar(1).getPosition() - Street.SAFE_DISTANCE);
+        }
+        car.moveInQueue(rest, 0);
+        enqueue(nextStreet, 0, this.tick);
+    }
+
+    private void follow(Street street, int leftPosition) {
+        // The new first car stood behind the car that left and needs the rest of the street from there
+        Car car = street.getCar(street.getNumberOfCars() - 1);
+        int limit = leftPosition - Street.SAFE_DISTANCE;
+        int position = Math.max(car.getQueuePosition(), Math.min(getQueuedPosition(car, this.tick), limit));
+        int lastPosition = Math.max(car.getQueuePosition(), Math.min(getQueuedPosition(car, this.tick - 1), limit));
+        car.moveInQueue(position, position - lastPosition);
+        car.setQueue(this.tick + getTicksToEnd(car, position), position);
+    }
+
+    private static void enqueue(Street street, int index, int anchor) {
+        List<Car> cars = street.getCars();
+        Car car = cars.get(index);
+        int start = anchor;
+        if (index < cars.size() - 1) {
+            // The car starts as soon as it keeps the safe distance to the car ahead until that car reached the end
+            Car ahead = cars.get(index + 1);
+            int[] ticks = {getStartTick(ahead), ahead.getExitTick() - 1};
+            for (int tick : ticks) {
+                if (tick >= anchor && tick < ahead.getExitTick()) {
+                    int gap = getQueuedPosition(ahead, tick) - Street.SAFE_DISTANCE - car.getPosition();
+                    start = Math.max(start, tick - gap / getFreeFlowSpeed(car));
+                }
+            }
+        }
+        car.setQueue(start + getTicksToEnd(car, car.getPosition()), car.getPosition());
+    }
+
+    private void place(Street street, int index) {
+        int position = getPosition(street, index, this.tick);
+        int lastPosition = getPosition(street, index, this.tick - 1);
+        street.getCar(index).moveInQueue(position, Math.max(0, position - lastPosition));
+    }
+
+    private static int getPosition(Street street, int index, int tick) {
+        // Every car stops the safe distance behind the car ahead of it, which the first car limits
+        Car head = street.getCar(street.getNumberOfCars() - 1);
+        int limit = getQueuedPosition(head, tick) - (street.getNumberOfCars() - 1 - index) * Street.SAFE_DISTANCE;
+        Car car = street.getCar(index);
+        return Math.max(car.getQueuePosition(), Math.min(getQueuedPosition(car, tick), limit));
+    }
+
+    private static int getQueuedPosition(Car car, int tick) {
+        // Without other cars a queued car drives at its free-flow speed from its start until the end of its street
+        int ticks = Math.min(Math.max(0, tick - getStartTick(car)), getTicksToEnd(car, car.getQueuePosition()));
+        return Math.min(car.getStreet().getLength(), car.getQueuePosition() + ticks * getFreeFlowSpeed(car));
+    }
+
+    private static int getStartTick(Car car) {
+        return car.getExitTick() - getTicksToEnd(car, car.getQueuePosition());
+    }
+
+    private static int getTicksToEnd(Car car, int position) {
+        return divideRoundingUp(car.getStreet().getLength() - position, getFreeFlowSpeed(car));
+    }
+
+    private static int getFreeFlowSpeed(Car car) {
+        return Math.min(car.getTargetSpeed(), car.getStreet().getSpeedLimit());
+    }
+
+    private static int divideRoundingUp(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+}
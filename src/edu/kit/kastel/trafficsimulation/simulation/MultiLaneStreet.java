@@ -0,0 +1,372 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+
+/**
+ * This class represents a street with more than two lanes. Every lane keeps
+ * its own list of cars ordered by their position. A car that is blocked by the
+ * car ahead of it changes to a neighbouring lane if there is a gap of at least
+ * the safe distance to the leader and the follower on that lane. Leader and
+ * follower are found by binary search, so a lane change costs logarithmic time
+ * in the number of cars on the lane.
+ * <p>
+ * On a dense street most cars are blocked and most lane changes fail. While
+ * such a street is updated, the positions of its cars are therefore also kept
+ * in a {@link CellOccupancy}, which tells whether the gap on a neighbouring
+ * lane is free without searching its cars. The result is the same as without
+ * the cells.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class MultiLaneStreet extends Street {
+
+    private static final int[] LANE_CHANGE_OFFSETS = {1, -1};
+    private static final Comparator<Car> BY_POSITION = Comparator.comparingInt(Car::getPosition);
+
+    private static final int DENSE_SPACING = 4 * SAFE_DISTANCE;
+
+    private static final String ERROR_STREET_FULL = "Street is full. ";
+    private static final String ERROR_CAR_DOES_NOT_EXIST = "Car does not exist. ";
+
+    private final List<List<Car>> lanes;
+    private final int[] nextIndices;
+    private CellOccupancy cells;
+    private boolean cellsInUse;
+
+    /**
+     * This constructor creates a new street with more than two lanes.
+     * 
+     * @param id            ID that is used to identify this entity
+     * @param startNode     Start node of this street
+     * @param endNode       End node of this street
+     * @param length        Length of this street
+     * @param numberOfLanes Number of lanes of this street
+     * @param speedLimit    Speed limit of this street
+     * @throws FailedBuildException if ID, length, number of lanes or speed limit
+     *                              were not valid
+     */
+    public MultiLaneStreet(int id, Node startNode, Node endNode, int length, int numberOfLanes, int speedLimit)
+            throws FailedBuildException {
+        super(id, startNode, endNode, length, numberOfLanes, speedLimit);
+        this.lanes = new ArrayList<>();
+        for (int i = 0; i < numberOfLanes; i++) {
+            this.lanes.add(new ArrayList<>());
+        }
+        this.nextIndices = new int[numberOfLanes];
+        this.cells = null;
+        this.cellsInUse = false;
+    }
+
+    /**
+     * This method returns the cars on all lanes of this street ordered by their
+     * position, beginning with the car at the start of the street. Cars at the
+     * same position are ordered by their lane.
+     * 
+     * @return Cars on this street ordered by their position
+     */
+    @Override
+    protected List<Car> getCars() {
+        List<Car> cars = new ArrayList<>();
+        for (List<Car> lane : this.lanes) {
+            cars.addAll(lane);
+        }
+        // Stable, so cars at the same position stay ordered by their lane
+        cars.sort(BY_POSITION);
+        return cars;
+    }
+
+    @Override
+    protected int getNumberOfCars() {
+        int numberOfCars = 0;
+        for (List<Car> lane : this.lanes) {
+            numberOfCars += lane.size();
+        }
+        return numberOfCars;
+    }
+
+    @Override
+    protected Car getCar(int index) {
+        int remaining = index;
+        for (List<Car> lane : this.lanes) {
+            if (remaining < lane.size()) {
+                return lane.get(remaining);
+            }
+            remaining -= lane.size();
+        }
+        throw new IllegalArgumentException(ERROR_CAR_DOES_NOT_EXIST);
+    }
+
+    @Override
+    protected void placeCar(Car car) {
+        car.setStreet(this);
+        List<Car> lane = this.lanes.get(car.getLane());
+        lane.add(getIndexOfFirstCarFrom(lane, car.getPosition() + 1), car);
+    }
+
+    @Override
+    protected void removeCar(Car car) {
+        if (!this.lanes.get(car.getLane()).remove(car)) {
+            throw new IllegalArgumentException(ERROR_CAR_DOES_NOT_EXIST);
+        }
+    }
+
+    @Override
+    protected void clearCars() {
+        for (List<Car> lane : this.lanes) {
+            lane.clear();
+        }
+    }
+
+    @Override
+    protected Car getLeavingCar() {
+        for (List<Car> lane : this.lanes) {
+            if (!lane.isEmpty()) {
+                Car lastCar = lane.get(lane.size() - 1);
+                if (lastCar.getPosition() == this.getLength() && lastCar.leavesAt(this.getEndNode())) {
+                    return lastCar;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Car putNewCar(int id, int targetSpeed, int acceleration) throws FailedBuildException {
+        if (this.isFull()) {
+            throw new FailedBuildException(ERROR_STREET_FULL);
+        }
+        int laneIndex = this.getLaneWithMostSpace();
+        List<Car> lane = this.lanes.get(laneIndex);
+        Car car = new Car(id, targetSpeed, acceleration, this);
+        car.setLane(laneIndex);
+        car.setPosition(lane.isEmpty() ? this.getLength() : lane.get(0).getPosition() - SAFE_DISTANCE);
+        lane.add(0, car);
+        return car;
+    }
+
+    @Override
+    protected void enter(Car car) {
+        if (this.isFull()) {
+            throw new IllegalStateException(ERROR_STREET_FULL);
+        }
+        int laneIndex = this.getLaneWithMostSpace();
+        List<Car> lane = this.lanes.get(laneIndex);
+        car.setStreet(this);
+        car.setLane(laneIndex);
+        car.resetPosition();
+        lane.add(0, car);
+        car.drive(Math.min(car.getDistanceToDrive(), this.getDistanceAheadOf(lane, 0)));
+        if (this.cellsInUse) {
+            this.cells.occupy(laneIndex, car.getPosition());
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        for (List<Car> lane : this.lanes) {
+            if (lane.isEmpty() || lane.get(0).getPosition() >= SAFE_DISTANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method updates all cars on this street that have not been updated
+     * during this tick yet. The cars of all lanes are updated in order of their
+     * position, beginning with the car nearest to the end of the street. If the
+     * street holds at least one car per {@value #DENSE_SPACING} meters of a lane,
+     * its cells are used.
+     */
+    @Override
+    public void update() {
+        for (int i = 0; i < this.nextIndices.length; i++) {
+            this.nextIndices[i] = this.lanes.get(i).size() - 1;
+        }
+        this.cellsInUse = this.getNumberOfCars() * DENSE_SPACING >= this.getLength() * this.lanes.size();
+        if (this.cellsInUse) {
+            this.fillCells();
+        }
+
+        Car car = this.getNextCarToUpdate();
+        while (car != null) {
+            int mileage = car.getMileage();
+            car.accelerate();
+            // The next car to update is at the next index of its lane
+            this.advance(car, this.nextIndices[car.getLane()]);
+
+            if (mileage == car.getMileage()) {
+                car.stop();
+            }
+
+            car.setHasBeenUpdated(true);
+            car = this.getNextCarToUpdate();
+        }
+        this.cellsInUse = false;
+    }
+
+    private void fillCells() {
+        if (this.cells == null) {
+            this.cells = new CellOccupancy(this.lanes.size(), this.getLength());
+        }
+        this.cells.clear();
+        for (int i = 0; i < this.lanes.size(); i++) {
+            for (Car car : this.lanes.get(i)) {
+                this.cells.occupy(i, car.getPosition());
+            }
+        }
+    }
+
+    /**
+     * This method returns the car with the highest position among the cars that
+     * have not been updated during this tick yet. Since the cars of a lane never
+     * pass each other, it suffices to look at the next car of every lane.
+     * 
+     * @return The next car to be updated or null if all cars have been updated
+     */
+    private Car getNextCarToUpdate() {
+        Car nextCar = null;
+        for (int i = 0; i < this.lanes.size(); i++) {
+            List<Car> lane = this.lanes.get(i);
+            int index = Math.min(this.nextIndices[i], lane.size() - 1);
+            while (index >= 0 && lane.get(index).hasBeenUpdated()) {
+                index--;
+            }
+            this.nextIndices[i] = index;
+            if (index >= 0 && (nextCar == null || lane.get(index).getPosition() > nextCar.getPosition())) {
+                nextCar = lane.get(index);
+            }
+        }
+        return nextCar;
+    }
+
+    /**
+     * This method lets a car drive until it reaches the end of the street or the
+     * car ahead of it on its lane. Then the car either turns onto another street
+     * or tries to change to a neighbouring lane where it can drive further.
+     * 
+     * @param car   Car that should advance
+     * @param index Index of the car on its lane
+     */
+    private void advance(Car car, int index) {
+        List<Car> lane = this.lanes.get(car.getLane());
+        int position = car.getPosition();
+        car.drive(Math.min(car.getDistanceToDrive(), this.getDistanceAheadOf(lane, index)));
+        if (this.cellsInUse) {
+            this.cells.vacate(car.getLane(), position);
+            this.cells.occupy(car.getLane(), car.getPosition());
+        }
+
+        if (car.getDistanceToDrive() > 0) {
+            if (car.getPosition() == this.getLength()) {
+                Street nextStreet = this.getEndNode().getStreetToTurn(car);
+                if (nextStreet != null) {
+                    lane.remove(index);
+                    if (this.cellsInUse) {
+                        this.cells.vacate(car.getLane(), car.getPosition());
+                    }
+                    nextStreet.enter(car);
+                    car.updateNextDirection(this.getEndNode());
+                }
+            } else {
+                this.changeLane(car, index);
+            }
+        }
+    }
+
+    /**
+     * This method lets a blocked car change to a neighbouring lane if it keeps the
+     * safe distance to the leader and the follower on that lane and can drive
+     * further there. Then the car advances on the new lane.
+     * 
+     * @param car   Car that should change its lane
+     * @param index Index of the car on its current lane
+     */
+    private void changeLane(Car car, int index) {
+        int position = car.getPosition();
+        for (int offset : LANE_CHANGE_OFFSETS) {
+            int targetIndex = car.getLane() + offset;
+            if (targetIndex < 0 || targetIndex >= this.lanes.size()) {
+                continue;
+            }
+            // The cells tell at once if a car is closer than the safe distance on the target lane
+            if (this.cellsInUse
+                    && !this.cells.isFree(targetIndex, position - SAFE_DISTANCE + 1, position + SAFE_DISTANCE)) {
+                continue;
+            }
+            List<Car> targetLane = this.lanes.get(targetIndex);
+            int leaderIndex = getIndexOfFirstCarFrom(targetLane, position + 1);
+            boolean enoughSpaceAhead = leaderIndex >= targetLane.size()
+                    || targetLane.get(leaderIndex).getPosition() - position > SAFE_DISTANCE;
+            boolean enoughSpaceBehind = leaderIndex == 0
+                    || position - targetLane.get(leaderIndex - 1).getPosition() >= SAFE_DISTANCE;
+
+            if (enoughSpaceAhead && enoughSpaceBehind) {
+                this.lanes.get(car.getLane()).remove(index);
+                targetLane.add(leaderIndex, car);
+                if (leaderIndex <= this.nextIndices[targetIndex]) {
+                    this.nextIndices[targetIndex]++;
+                }
+                if (this.cellsInUse) {
+                    this.cells.vacate(car.getLane(), position);
+                }
+                car.setLane(targetIndex);
+                car.drive(Math.min(car.getDistanceToDrive(), this.getDistanceAheadOf(targetLane, leaderIndex)));
+                if (this.cellsInUse) {
+                    this.cells.occupy(targetIndex, car.getPosition());
+                }
+                return;
+            }
+        }
+    }
+
+    private int getDistanceAheadOf(List<Car> lane, int index) {
+        if (index + 1 >= lane.size()) {
+            return this.getLength() - lane.get(index).getPosition();
+        }
+        return lane.get(index + 1).getPosition() - lane.get(index).getPosition() - SAFE_DISTANCE;
+    }
+
+    private int getLaneWithMostSpace() {
+        int bestLane = 0;
+        int mostSpace = Integer.MIN_VALUE;
+        for (int i = 0; i < this.lanes.size(); i++) {
+            List<Car> lane = this.lanes.get(i);
+            int space = lane.isEmpty() ? Integer.MAX_VALUE : lane.get(0).getPosition();
+            if (space > mostSpace) {
+                mostSpace = space;
+                bestLane = i;
+            }
+        }
+        return bestLane;
+    }
+
+    /**
+     * This method returns the index of the first car on a lane whose position is
+     * at least the given position, or the number of cars on the lane if there is
+     * no such car.
+     * 
+     * @param lane     Lane ordered by position
+     * @param position Position to search for
+     * @return Index of the first car at or ahead of the given position
+     */
+    private static int getIndexOfFirstCarFrom(List<Car> lane, int position) {
+        int low = 0;
+        int high = lane.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lane.get(middle).getPosition() < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
@@ -1,8 +1,13 @@
 package edu.kit.kastel.trafficsimulation.simulation;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
 import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
 
 /**
@@ -14,15 +19,29 @@ import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
 public class Network {
 
     private static final String ERROR_CAR_ID_NOT_EXIST = "Car with id %d does not exist. ";
+    private static final String ERROR_TOO_MANY_LANES = "Street %d has more than %d lanes. ";
 
     private final List<Node> nodes;
     private final List<Street> streets;
+    private final Map<Integer, Node> nodesById;
+    private final Map<Integer, Street> streetsById;
     private final Map<Integer, Car> carsById;
+    private final NetworkTopology topology;
+    private final RoutingTable routingTable;
+    private CarDemand demand;
+    private EngineMode engineMode;
+    private SimulationEngine engine;
+    private final GridlockDetector gridlockDetector;
+    private final List<TickListener> tickListeners;
+    private PartitionBoundary boundary;
+    private int numberOfIntersections;
+    private int numberOfMultiLaneStreets;
+    private int numberOfMultiLaneLanes;
 
     /**
      * This constructor creates a new network from a list of nodes, a list of
      * streets and a map of cars by id. This constructor must only be called by
-     * {@link NetworkBuilder}.
+     * {@link NetworkBuilder} or {@link NetworkSerializer}.
      * 
      * @param nodes    List of nodes
      * @param streets  List of streets
@@ -32,6 +51,26 @@ public class Network {
         this.nodes = nodes;
         this.streets = streets;
         this.carsById = carsById;
+        this.topology = NetworkTopology.compile(nodes, streets);
+        this.routingTable = new RoutingTable(this.topology);
+        this.demand = null;
+        this.engineMode = EngineMode.SEQUENTIAL;
+        this.engine = new SequentialEngine(this);
+        this.gridlockDetector = new GridlockDetector(this);
+        this.tickListeners = new ArrayList<>();
+        this.nodesById = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            this.nodesById.put(nodes.get(i).getId(), nodes.get(i));
+            nodes.get(i).setNetwork(this, i);
+            if (nodes.get(i) instanceof Intersection) {
+                this.numberOfIntersections++;
+            }
+        }
+        this.streetsById = new HashMap<>();
+        for (Street street : streets) {
+            this.streetsById.put(street.getId(), street);
+            this.countLanes(street);
+        }
     }
 
     /**
@@ -50,28 +89,411 @@ public class Network {
     }
 
     /**
-     * This method lets a certain number of ticks elapse.
+     * This method returns the car with the given ID or null if there is no such
+     * car.
+     * 
+     * @param id ID of the car that should be returned
+     * @return The car with the given ID or null if there is no such car
+     */
+    protected Car findCar(int id) {
+        return this.carsById.get(id);
+    }
+
+    /**
+     * This method returns the node with the given ID or null if there is no such
+     * node.
+     * 
+     * @param id ID of the node that should be returned
+     * @return The node with the given ID or null if there is no such node
+     */
+    protected Node findNode(int id) {
+        return this.nodesById.get(id);
+    }
+
+    /**
+     * This method returns the street with the given ID or null if there is no such
+     * street.
+     * 
+     * @param id ID of the street that should be returned
+     * @return The street with the given ID or null if there is no such street
+     */
+    protected Street findStreet(int id) {
+        return this.streetsById.get(id);
+    }
+
+    /**
+     * This method adds a street to this network. Its ID must be higher than the
+     * IDs of all other streets, so the streets stay ordered by their ID.
+     * 
+     * @param street Street to be added
+     */
+    protected void addStreet(Street street) {
+        this.streets.add(street);
+        this.streetsById.put(street.getId(), street);
+        this.topology.addStreet(street);
+        this.countLanes(street);
+    }
+
+    private void countLanes(Street street) {
+        if (street instanceof MultiLaneStreet) {
+            this.numberOfMultiLaneStreets++;
+            this.numberOfMultiLaneLanes += street.getNumberOfLanes();
+        }
+    }
+
+    /**
+     * This method adds a car that has already been placed on a street of this
+     * network. The route to its destination is computed before the next tick.
+     * 
+     * @param car Car to be added
+     */
+    protected void addCar(Car car) {
+        // A car only enters a street that is not full, so no frozen street can move again
+        this.carsById.put(car.getId(), car);
+        this.routingTable.addDestination(car.getDestination());
+    }
+
+    /**
+     * This method removes a car from this network. The car must already have been
+     * removed from its street. If that street is part of a gridlock, the
+     * gridlock is unfrozen.
+     * 
+     * @param car Car to be removed
+     */
+    protected void removeCar(Car car) {
+        this.carsById.remove(car.getId());
+        this.gridlockDetector.thaw(car.getStreet());
+        this.notifyCarLeft(car);
+    }
+
+    /**
+     * This method removes all cars from this network and its streets.
+     */
+    protected void clearCars() {
+        for (Street street : this.streets) {
+            street.clearCars();
+        }
+        this.carsById.clear();
+        this.gridlockDetector.thaw();
+    }
+
+    /**
+     * This method checks whether a car of this network leaves it at its
+     * destination.
+     * 
+     * @return True if a car leaves this network at its destination
+     */
+    protected boolean hasLeavingCars() {
+        for (Car car : this.carsById.values()) {
+            if (car.leavesAtDestination()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method unfreezes all streets of gridlocks. It must be called whenever
+     * this network is changed other than by its ticks, since the change may let
+     * the cars of a gridlock move again.
+     */
+    protected void thawGridlocks() {
+        this.gridlockDetector.thaw();
+    }
+
+    /**
+     * This method detects the gridlocks of this network in its current state.
+     * 
+     * @return Gridlocks ordered by the lowest ID of their streets
+     */
+    protected List<Gridlock> findGridlocks() {
+        return this.gridlockDetector.findGridlocks();
+    }
+
+    /**
+     * This method returns all cars of this network in no particular order.
+     * 
+     * @return Cars of this network
+     */
+    protected Collection<Car> getCars() {
+        return this.carsById.values();
+    }
+
+    /**
+     * This method returns the nodes of this network ordered by their ID.
+     * 
+     * @return Nodes of this network ordered by their ID
+     */
+    protected List<Node> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * This method returns the streets of this network ordered by their ID.
+     * 
+     * @return Streets of this network ordered by their ID
+     */
+    protected List<Street> getStreets() {
+        return this.streets;
+    }
+
+    /**
+     * This method returns the topology of this network compiled into arrays.
+     * 
+     * @return Topology of this network
+     */
+    protected NetworkTopology getTopology() {
+        return this.topology;
+    }
+
+    /**
+     * This method returns the routing table of this network.
+     * 
+     * @return Routing table of this network
+     */
+    protected RoutingTable getRoutingTable() {
+        return this.routingTable;
+    }
+
+    /**
+     * This method returns the metric by which routes to destinations are found.
+     * 
+     * @return Metric by which the routes are calculated
+     */
+    public RoutingMetric getRoutingMetric() {
+        return this.routingTable.getMetric();
+    }
+
+    /**
+     * This method changes the metric by which routes to destinations are found.
+     * 
+     * @param metric Metric by which the routes should be calculated
+     */
+    public void setRoutingMetric(RoutingMetric metric) {
+        this.routingTable.setMetric(metric);
+        this.gridlockDetector.thaw();
+    }
+
+    /**
+     * This method returns the way in which the streets are updated.
+     * 
+     * @return Way in which the streets are updated
+     */
+    public EngineMode getEngineMode() {
+        return this.engineMode;
+    }
+
+    /**
+     * This method sets the way in which the streets of this network are updated.
+     * The engine of the mode replaces the current engine at once.
+     * 
+     * @param engineMode Way in which the streets should be updated
+     * @throws FailedBuildException if a street has more lanes than the engine
+     *                              of the mode supports
+     */
+    public void setEngineMode(EngineMode engineMode) throws FailedBuildException {
+        if (engineMode.isSingleFile()) {
+            for (Street street : this.streets) {
+                if (street.getNumberOfLanes() > SynchronousEngine.MAX_NUMBER_LANES) {
+                    throw new FailedBuildException(ERROR_TOO_MANY_LANES.formatted(street.getId(),
+                            SynchronousEngine.MAX_NUMBER_LANES));
+                }
+            }
+        }
+        if (engineMode != this.engineMode) {
+            this.gridlockDetector.thaw();
+            this.engine = engineMode.createEngine(this);
+            this.engineMode = engineMode;
+        }
+    }
+
+    /**
+     * This method sets the demand that lets cars enter this network before every
+     * tick. Cars of the demand leave the network again at their destination.
+     * 
+     * @param demand Demand of this network or null if no cars enter or leave it
+     */
+    public void setDemand(CarDemand demand) {
+        this.demand = demand;
+    }
+
+    /**
+     * This method adds a listener that is notified after every tick.
+     * 
+     * @param listener Listener to be added
+     */
+    public void addTickListener(TickListener listener) {
+        this.tickListeners.add(listener);
+    }
+
+    /**
+     * This method removes a listener that was added before.
+     * 
+     * @param listener Listener to be removed
+     */
+    public void removeTickListener(TickListener listener) {
+        this.tickListeners.remove(listener);
+    }
+
+    /**
+     * This method returns the boundary of this network if it is a partition of
+     * a network that was cut between its nodes.
+     * 
+     * @return Boundary of this partition or null if this network is whole
+     */
+    protected PartitionBoundary getBoundary() {
+        return this.boundary;
+    }
+
+    /**
+     * This method makes this network a partition that exchanges cars with the
+     * other partitions after every tick.
+     * 
+     * @param boundary Boundary of this partition
+     */
+    protected void setBoundary(PartitionBoundary boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * This method returns the number of cars in this network.
+     * 
+     * @return Number of cars in this network
+     */
+    public int getNumberOfCars() {
+        return this.carsById.size();
+    }
+
+    /**
+     * This method returns the number of intersections of this network.
+     * 
+     * @return Number of intersections
+     */
+    protected int getNumberOfIntersections() {
+        return this.numberOfIntersections;
+    }
+
+    /**
+     * This method returns the number of streets with more than one lane.
+     * 
+     * @return Number of streets with more than one lane
+     */
+    protected int getNumberOfMultiLaneStreets() {
+        return this.numberOfMultiLaneStreets;
+    }
+
+    /**
+     * This method returns the number of lanes of all streets of this network
+     * that have more than one lane.
+     * 
+     * @return Number of lanes of the streets with more than one lane
+     */
+    protected int getNumberOfMultiLaneLanes() {
+        return this.numberOfMultiLaneLanes;
+    }
+
+    /**
+     * This method lets a certain number of ticks elapse. The routes to all
+     * destinations of cars are computed before the first tick. If the demand of
+     * this network fails, no further ticks elapse.
      * 
      * @param ticks Number of ticks that should elapse
      */
     public void simulate(int ticks) {
-        for (int i = 0; i < ticks; i++) {
+        this.simulate(ticks, () -> false);
+    }
+
+    /**
+     * This method lets a certain number of ticks elapse, but stops early at the
+     * first tick boundary at which the given condition is true. The routes to
+     * all destinations of cars are computed before the first tick. If the demand
+     * of this network fails, no further ticks elapse.
+     * <p>
+     * Without a demand, listeners, other partitions or a mesoscopic engine
+     * nothing but the ticks changes the network, so once its state repeats, all
+     * whole periods of the remaining ticks are skipped and only the mileage of
+     * the cars is advanced. Streets that are part of a gridlock are frozen after
+     * the tick in which it forms and are no longer updated, also by later calls,
+     * until a change of the network thaws them.
+     * 
+     * @param ticks Number of ticks that should elapse
+     * @param stop  Condition that is checked before every tick
+     */
+    public void simulate(int ticks, BooleanSupplier stop) {
+        this.routingTable.computeRoutes(this.carsById.values());
+        CycleDetector detector = this.createCycleDetector(ticks);
+        for (int i = 0; i < ticks && (this.demand == null || !this.demand.hasFailed()) && !stop.getAsBoolean(); i++) {
             this.update();
+            if (detector != null && detector.tickElapsed()) {
+                int periods = (ticks - i - 1) / detector.getPeriod();
+                detector.skip(periods);
+                i += periods * detector.getPeriod();
+                detector = null;
+            }
         }
+        this.engine.updateCars();
+    }
+
+    private CycleDetector createCycleDetector(int ticks) {
+        if (this.demand != null || !this.tickListeners.isEmpty() || this.boundary != null
+                || !this.engineMode.placesEveryCar()) {
+            return null;
+        }
+        CycleDetector detector = new CycleDetector(this);
+        if (!detector.canRepeatWithin(ticks)) {
+            return null;
+        }
+        detector.start();
+        return detector;
     }
 
     private void update() {
-        for (Car car : this.carsById.values()) {
-            car.setHasBeenUpdated(false);
+        if (this.demand != null) {
+            this.demand.letCarsEnter(this);
         }
 
-        for (Street street : this.streets) {
-            street.update();
+        this.engine.updateStreets();
+
+        if (this.demand != null) {
+            this.removeLeavingCars();
+        }
+        if (this.boundary != null) {
+            // Gridlocks reach into other partitions, which cannot be seen from here
+            this.boundary.exchange();
+        } else {
+            this.gridlockDetector.update();
         }
 
         for (Node node : this.nodes) {
             node.update();
         }
+
+        // Listeners may run on every tick, so they are notified without an iterator
+        if (!this.tickListeners.isEmpty()) {
+            this.engine.updateCars();
+        }
+        for (int i = 0; i < this.tickListeners.size(); i++) {
+            this.tickListeners.get(i).tickElapsed(this);
+        }
+    }
+
+    private void removeLeavingCars() {
+        for (Street street : this.streets) {
+            Car car = street.getLeavingCar();
+            while (car != null) {
+                street.removeCar(car);
+                this.carsById.remove(car.getId());
+                this.notifyCarLeft(car);
+                this.demand.release(car);
+                car = street.getLeavingCar();
+            }
+        }
+    }
+
+    private void notifyCarLeft(Car car) {
+        for (int i = 0; i < this.tickListeners.size(); i++) {
+            this.tickListeners.get(i).carLeft(car);
+        }
     }
 
 }
@@ -29,6 +29,7 @@ public class NetworkBuilder {
     private final Map<Integer, Street> streets;
     private final Map<Integer, Car> cars;
     private int availableStreetId;
+    private boolean orderByLocality;
 
     /**
      * This constructor creates a new network builder. Initially there are no nodes,
@@ -36,6 +37,7 @@ public class NetworkBuilder {
      */
     public NetworkBuilder() {
         this.availableStreetId = 0;
+        this.orderByLocality = false;
         this.nodes = new HashMap<>();
         this.streets = new HashMap<>();
         this.cars = new HashMap<>();
@@ -89,10 +91,10 @@ public class NetworkBuilder {
         Node startNode = nodes.get(startNodeId);
         Node endNode = nodes.get(endNodeId);
 
-        Street street = new Street(availableStreetId, endNode, length, numberOfLanes, speedLimit);
+        Street street = Street.create(availableStreetId, startNode, endNode, length, numberOfLanes, speedLimit);
 
-        startNode.addOutgoingStreet(street);
-        endNode.addIncomingStreet(street);
+        startNode.addOutgoingStreet();
+        endNode.addIncomingStreet();
 
         this.streets.put(availableStreetId, street);
         availableStreetId++;
@@ -105,24 +107,45 @@ public class NetworkBuilder {
      * @param streetId        ID of the street on which the car should be placed
      * @param desiredVelocity Desired velocity of the car
      * @param acceleration    Acceleration of the car
-     * @throws FailedBuildException if car ID is not unique, referrenced street ID
-     *                              does not exist or the car-specific properties
-     *                              (such as desired velocity, acceleration) are
-     *                              outside of the permitted range.
+     * @param destination     ID of the node the car should drive to or
+     *                        {@value Car#NO_DESTINATION}
+     * @throws FailedBuildException if car ID is not unique, referrenced street or
+     *                              node ID does not exist or the car-specific
+     *                              properties (such as desired velocity,
+     *                              acceleration) are outside of the permitted
+     *                              range.
      */
-    public void putCar(int id, int streetId, int desiredVelocity, int acceleration) throws FailedBuildException {
+    public void putCar(int id, int streetId, int desiredVelocity, int acceleration, int destination)
+            throws FailedBuildException {
         if (this.cars.containsKey(id)) {
             throw new FailedBuildException(ERROR_CAR_ID_NOT_UNIQUE.formatted(id));
         }
         if (!this.streets.containsKey(streetId)) {
             throw new FailedBuildException(ERROR_STREET_DOESNT_EXIST.formatted(streetId));
         }
+        if (destination != Car.NO_DESTINATION && !this.nodes.containsKey(destination)) {
+            throw new FailedBuildException(ERROR_NODE_DOESNT_EXIST.formatted(destination));
+        }
         Street street = this.streets.get(streetId);
         // Put car on the street
         Car car = street.putNewCar(id, desiredVelocity, acceleration);
+        car.setDestination(destination);
         this.cars.put(id, car);
     }
 
+    /**
+     * This method sets whether the network is built with a {@link LocalityOrder}
+     * of its streets. The engines then visit connected streets one after the
+     * other wherever the order of the streets does not change the result, the
+     * IDs of the streets stay the same. By default the streets are visited in
+     * order of their ID.
+     * 
+     * @param orderByLocality True if the streets should be ordered by locality
+     */
+    public void setOrderByLocality(boolean orderByLocality) {
+        this.orderByLocality = orderByLocality;
+    }
+
     /**
      * This method builds a valid network with the data constructed by this network
      * builder. If this network is invalid an exception gets thrown.
@@ -143,7 +166,11 @@ public class NetworkBuilder {
         streetsArray.sort(Comparator.comparingInt(Street::getId));
         List<Node> nodesArray = new ArrayList<>(this.nodes.values());
         nodesArray.sort(Comparator.comparingInt(Node::getId));
-        return new Network(nodesArray, streetsArray, this.cars);
+        Network network = new Network(nodesArray, streetsArray, this.cars);
+        if (this.orderByLocality) {
+            network.getTopology().setUpdateOrder(LocalityOrder.compute(network.getTopology()));
+        }
+        return network;
     }
 
 }
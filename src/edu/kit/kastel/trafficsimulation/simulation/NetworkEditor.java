@@ -0,0 +1,246 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+
+/**
+ * This class provides methods to change a network that has already been built.
+ * The current state of the network (positions of the cars, signal phases) is
+ * kept. Changes that would lead to an invalid network are rejected with the
+ * same errors as in {@link NetworkBuilder} and leave the network unchanged.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class NetworkEditor {
+
+    private static final String ERROR_NODE_DOESNT_EXIST = "Referenced node id %d does not exist. ";
+    private static final String ERROR_STREET_DOESNT_EXIST = "Street %d does not exist. ";
+    private static final String ERROR_CAR_ID_NOT_UNIQUE = "Car id %d is not unique. ";
+    private static final String ERROR_SAME_START_AND_END = "Street %d cannot have same start and end node. ";
+    private static final String ERROR_STREET_CLOSED = "Street %d is closed. ";
+    private static final String ERROR_TOO_MANY_LANES = "Street %d has more than %d lanes. ";
+    private static final String ERROR_NODE_ROUNDABOUT = "Node %d is a roundabout and has no green phase. ";
+
+    private final Network network;
+
+    /**
+     * This constructor creates a new network editor for a given network.
+     * 
+     * @param network Network to be changed by this editor
+     */
+    public NetworkEditor(Network network) {
+        this.network = network;
+    }
+
+    /**
+     * This method puts a new car on a street.
+     * 
+     * @param id              Car ID
+     * @param streetId        ID of the street on which the car should be placed
+     * @param desiredVelocity Desired velocity of the car
+     * @param acceleration    Acceleration of the car
+     * @param destination     ID of the node the car should drive to or
+     *                        {@value Car#NO_DESTINATION}
+     * @throws FailedBuildException if car ID is not unique, referrenced street or
+     *                              node ID does not exist, the street is closed or
+     *                              full or the car-specific properties are outside
+     *                              of the permitted range.
+     */
+    public void addCar(int id, int streetId, int desiredVelocity, int acceleration, int destination)
+            throws FailedBuildException {
+        Street street = this.getStreetToEnter(id, streetId, destination);
+        Car car = street.putNewCar(id, desiredVelocity, acceleration);
+        car.setDestination(destination);
+        this.network.addCar(car);
+    }
+
+    /**
+     * This method replaces all cars of the network by the given cars, which are
+     * placed in the given order, and resets the signal phases of all
+     * intersections. The nodes and streets of the network are kept. If one of the
+     * cars cannot be placed, the previous cars are restored and the network stays
+     * unchanged.
+     * 
+     * @param configurations Cars to be placed
+     * @throws FailedBuildException if one of the cars would lead to an invalid
+     *                              network
+     */
+    public void replaceCars(List<CarConfiguration> configurations) throws FailedBuildException {
+        List<List<Car>> previousCars = new ArrayList<>();
+        for (Street street : this.network.getStreets()) {
+            previousCars.add(new ArrayList<>(street.getCars()));
+        }
+        this.network.clearCars();
+
+        try {
+            for (CarConfiguration configuration : configurations) {
+                this.addCar(configuration.id(), configuration.streetId(), configuration.desiredVelocity(),
+                        configuration.acceleration(), configuration.destination());
+            }
+        } catch (FailedBuildException failedBuildException) {
+            this.network.clearCars();
+            List<Street> streets = this.network.getStreets();
+            for (int i = 0; i < streets.size(); i++) {
+                for (Car car : previousCars.get(i)) {
+                    streets.get(i).placeCar(car);
+                    this.network.addCar(car);
+                }
+            }
+            throw failedBuildException;
+        }
+
+        for (Node node : this.network.getNodes()) {
+            if (node instanceof Intersection intersection) {
+                intersection.resetPhase();
+            }
+        }
+    }
+
+    /**
+     * This method removes a car from the network.
+     * 
+     * @param id ID of the car to be removed
+     * @throws ParseException if there is no car with the specified ID
+     */
+    public void removeCar(int id) throws ParseException {
+        Car car = this.network.getCar(id);
+        car.getStreet().removeCar(car);
+        this.network.removeCar(car);
+    }
+
+    /**
+     * This method adds a new street that connects two nodes. The street gets the
+     * next free street ID.
+     * 
+     * @param startNodeId   Start node ID
+     * @param endNodeId     End node ID
+     * @param length        Length of the street in meters
+     * @param numberOfLanes Number of lanes
+     * @param speedLimit    Speed limit
+     * @return ID of the new street
+     * @throws FailedBuildException if the referenced node ID does not exist, the
+     *                              street would lead to a loop, one of the nodes
+     *                              already has too many streets,
+     *                              street-specific properties are outside the
+     *                              permitted range or the street has more lanes
+     *                              than the engine of the network supports.
+     */
+    public int addStreet(int startNodeId, int endNodeId, int length, int numberOfLanes, int speedLimit)
+            throws FailedBuildException {
+        Node startNode = this.getNode(startNodeId);
+        Node endNode = this.getNode(endNodeId);
+        List<Street> streets = this.network.getStreets();
+        int id = streets.isEmpty() ? 0 : streets.get(streets.size() - 1).getId() + 1;
+        if (startNodeId == endNodeId) {
+            throw new FailedBuildException(ERROR_SAME_START_AND_END.formatted(id));
+        }
+
+        if (this.network.getEngineMode().isSingleFile() && numberOfLanes > SynchronousEngine.MAX_NUMBER_LANES) {
+            throw new FailedBuildException(ERROR_TOO_MANY_LANES.formatted(id, SynchronousEngine.MAX_NUMBER_LANES));
+        }
+
+        Street street = Street.create(id, startNode, endNode, length, numberOfLanes, speedLimit);
+        endNode.addIncomingStreet();
+        try {
+            startNode.addOutgoingStreet();
+        } catch (FailedBuildException failedBuildException) {
+            endNode.removeIncomingStreet();
+            throw failedBuildException;
+        }
+        this.network.addStreet(street);
+        this.network.getRoutingTable().addStreet(this.network.getTopology().getStreetIndex(id));
+        this.network.thawGridlocks();
+        return id;
+    }
+
+    /**
+     * This method closes a street. No car can turn onto the street anymore, the
+     * cars already on it can still leave it.
+     * 
+     * @param id ID of the street to be closed
+     * @throws FailedBuildException if the street does not exist, is already closed
+     *                              or is the last outgoing street of its start
+     *                              node
+     */
+    public void closeStreet(int id) throws FailedBuildException {
+        Street street = this.getStreet(id);
+        if (street.isClosed()) {
+            throw new FailedBuildException(ERROR_STREET_CLOSED.formatted(id));
+        }
+        Node startNode = street.getStartNode();
+        NetworkTopology topology = this.network.getTopology();
+        int index = topology.getStreetIndex(id);
+        int direction = topology.getDirection(index);
+        startNode.removeOutgoingStreet();
+        street.close();
+        topology.closeStreet(index);
+        this.network.getRoutingTable().removeDirection(topology.getStartNode(index), direction);
+        this.network.thawGridlocks();
+    }
+
+    /**
+     * This method changes the green phase duration of an intersection. The
+     * current green phase ends after the new duration at the latest.
+     * 
+     * @param nodeId   ID of the intersection
+     * @param duration New green phase duration
+     * @throws FailedBuildException if the node does not exist, is a roundabout or
+     *                              the duration is outside the permitted range
+     */
+    public void setPhase(int nodeId, int duration) throws FailedBuildException {
+        Node node = this.getNode(nodeId);
+        if (!(node instanceof Intersection intersection)) {
+            throw new FailedBuildException(ERROR_NODE_ROUNDABOUT.formatted(nodeId));
+        }
+        intersection.setDuration(duration);
+        NetworkTopology topology = this.network.getTopology();
+        topology.setDuration(topology.getNodeIndex(nodeId), duration);
+    }
+
+    /**
+     * This method checks whether a new car can enter the network and returns the
+     * street it should enter.
+     * 
+     * @param id          Car ID
+     * @param streetId    ID of the street the car should enter
+     * @param destination ID of the node the car should drive to or
+     *                    {@value Car#NO_DESTINATION}
+     * @return Street the car should enter
+     * @throws FailedBuildException if car ID is not unique, referrenced street or
+     *                              node ID does not exist or the street is closed
+     */
+    protected Street getStreetToEnter(int id, int streetId, int destination) throws FailedBuildException {
+        if (this.network.findCar(id) != null) {
+            throw new FailedBuildException(ERROR_CAR_ID_NOT_UNIQUE.formatted(id));
+        }
+        Street street = this.getStreet(streetId);
+        if (street.isClosed()) {
+            throw new FailedBuildException(ERROR_STREET_CLOSED.formatted(streetId));
+        }
+        if (destination != Car.NO_DESTINATION) {
+            this.getNode(destination);
+        }
+        return street;
+    }
+
+    private Node getNode(int id) throws FailedBuildException {
+        Node node = this.network.findNode(id);
+        if (node == null) {
+            throw new FailedBuildException(ERROR_NODE_DOESNT_EXIST.formatted(id));
+        }
+        return node;
+    }
+
+    private Street getStreet(int id) throws FailedBuildException {
+        Street street = this.network.findStreet(id);
+        if (street == null) {
+            throw new FailedBuildException(ERROR_STREET_DOESNT_EXIST.formatted(id));
+        }
+        return street;
+    }
+
+}
@@ -0,0 +1,319 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+
+/**
+ * This class represents a part of a network that can be simulated in another
+ * process. If the streets of the network are updated at the same time, the
+ * network is cut between its nodes: every partition owns about the same share
+ * of the nodes, the streets that end at them and their cars, and exchanges the
+ * cars crossing to other partitions after every tick through a
+ * {@link PartitionBoundary}. Since no phase of the {@link SynchronousEngine}
+ * depends on the order of the streets, the result is exactly the same as
+ * updating the whole network. Otherwise the order matters, so a partition
+ * consists of whole connected components of the network, which no car can
+ * ever leave.
+ * <p>
+ * The routes of all cars are computed on the whole network and sent along,
+ * because a route may lead through other partitions.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class NetworkPartition {
+
+    private final Network network;
+    private final List<Node> nodes;
+    private final List<Street> streets;
+    private final List<Integer> copiedNodes;
+    private final boolean cut;
+    private int weight;
+
+    private NetworkPartition(Network network, boolean cut) {
+        this.network = network;
+        this.nodes = new ArrayList<>();
+        this.streets = new ArrayList<>();
+        this.copiedNodes = new ArrayList<>();
+        this.cut = cut;
+        this.weight = 0;
+    }
+
+    /**
+     * This method splits a network into at most the given number of partitions,
+     * such that every partition gets about the same number of streets and cars.
+     * Partitions without any streets are not returned.
+     * 
+     * @param network          Network to be split
+     * @param numberPartitions Maximum number of partitions
+     * @return List of partitions that together contain the whole network
+     */
+    public static List<NetworkPartition> partition(Network network, int numberPartitions) {
+        network.getRoutingTable().computeRoutes(network.getCars());
+        List<NetworkPartition> partitions = network.getEngineMode().isOrderIndependent() && numberPartitions > 1
+                ? cutBetweenNodes(network, numberPartitions)
+                : splitIntoComponents(network, numberPartitions);
+        partitions.removeIf(partition -> partition.streets.isEmpty());
+        return partitions;
+    }
+
+    private static List<NetworkPartition> cutBetweenNodes(Network network, int numberPartitions) {
+        NetworkTopology topology = network.getTopology();
+        List<Street> streets = network.getStreets();
+        int numberOfNodes = topology.getNumberOfNodes();
+        long[] nodeWeights = new long[numberOfNodes];
+        long totalWeight = 0;
+        for (int i = 0; i < streets.size(); i++) {
+            nodeWeights[topology.getEndNode(i)] += 1 + streets.get(i).getNumberOfCars();
+            totalWeight += 1 + streets.get(i).getNumberOfCars();
+        }
+
+        // Neighbouring nodes follow each other in breadth-first order, so few streets are cut
+        int[] owners = new int[numberOfNodes];
+        long visitedWeight = 0;
+        long shareWeight = Math.max(1, totalWeight);
+        for (int node : getBreadthFirstOrder(topology)) {
+            owners[node] = (int) Math.min(numberPartitions - 1, visitedWeight * numberPartitions / shareWeight);
+            visitedWeight += nodeWeights[node];
+        }
+
+        List<NetworkPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < numberPartitions; i++) {
+            partitions.add(new NetworkPartition(network, true));
+        }
+        // A partition also keeps a copy of every street it enters cars into and the nodes around it
+        boolean[][] kept = new boolean[numberPartitions][numberOfNodes];
+        for (int i = 0; i < streets.size(); i++) {
+            int owner = owners[topology.getEndNode(i)];
+            int startOwner = owners[topology.getStartNode(i)];
+            partitions.get(owner).streets.add(streets.get(i));
+            kept[owner][topology.getStartNode(i)] = true;
+            if (startOwner != owner && topology.getDirection(i) != NetworkTopology.NO_DIRECTION) {
+                partitions.get(startOwner).streets.add(streets.get(i));
+                kept[startOwner][topology.getEndNode(i)] = true;
+            }
+        }
+        List<Node> nodes = network.getNodes();
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int j = 0; j < numberPartitions; j++) {
+                if (owners[i] == j) {
+                    partitions.get(j).nodes.add(nodes.get(i));
+                } else if (kept[j][i]) {
+                    partitions.get(j).nodes.add(nodes.get(i));
+                    partitions.get(j).copiedNodes.add(nodes.get(i).getId());
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static List<Integer> getBreadthFirstOrder(NetworkTopology topology) {
+        List<Integer> order = new ArrayList<>();
+        boolean[] visited = new boolean[topology.getNumberOfNodes()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int start = 0; start < visited.length; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            visited[start] = true;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                order.add(node);
+                for (int i = topology.getOutgoingBegin(node); i < topology.getOutgoingEnd(node); i++) {
+                    visit(topology.getEndNode(topology.getOutgoingStreet(i)), visited, queue);
+                }
+                for (int i = topology.getIncomingBegin(node); i < topology.getIncomingEnd(node); i++) {
+                    visit(topology.getStartNode(topology.getIncomingStreet(i)), visited, queue);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static void visit(int node, boolean[] visited, Queue<Integer> queue) {
+        if (!visited[node]) {
+            visited[node] = true;
+            queue.add(node);
+        }
+    }
+
+    private static List<NetworkPartition> splitIntoComponents(Network network, int numberPartitions) {
+        List<Node> nodes = network.getNodes();
+        List<Street> streets = network.getStreets();
+        NetworkTopology topology = network.getTopology();
+
+        // Union find over the nodes of the network
+        int[] parents = new int[nodes.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int i = 0; i < streets.size(); i++) {
+            int startRoot = findRoot(parents, topology.getStartNode(i));
+            int endRoot = findRoot(parents, topology.getEndNode(i));
+            parents[startRoot] = endRoot;
+        }
+
+        int[] componentWeights = new int[nodes.size()];
+        for (int i = 0; i < streets.size(); i++) {
+            int root = findRoot(parents, topology.getStartNode(i));
+            componentWeights[root] += 1 + streets.get(i).getNumberOfCars();
+        }
+
+        // Assign the heaviest components first, each to the lightest partition
+        List<Integer> roots = new ArrayList<>();
+        for (int i = 0; i < parents.length; i++) {
+            if (parents[i] == i) {
+                roots.add(i);
+            }
+        }
+        roots.sort((first, second) -> Integer.compare(componentWeights[second], componentWeights[first]));
+        List<NetworkPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, numberPartitions); i++) {
+            partitions.add(new NetworkPartition(network, false));
+        }
+        NetworkPartition[] partitionByRoot = new NetworkPartition[nodes.size()];
+        for (int root : roots) {
+            NetworkPartition lightest = Collections.min(partitions, Comparator.comparingInt(part -> part.weight));
+            lightest.weight += componentWeights[root];
+            partitionByRoot[root] = lightest;
+        }
+
+        // Nodes and streets are still added in order of their ID
+        for (int i = 0; i < nodes.size(); i++) {
+            partitionByRoot[findRoot(parents, i)].nodes.add(nodes.get(i));
+        }
+        for (int i = 0; i < streets.size(); i++) {
+            partitionByRoot[findRoot(parents, topology.getStartNode(i))].streets.add(streets.get(i));
+        }
+        return partitions;
+    }
+
+    private static int findRoot(int[] parents, int index) {
+        int root = index;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        // Path compression
+        int current = index;
+        while (parents[current] != root) {
+            int next = parents[current];
+            parents[current] = root;
+            current = next;
+        }
+        return root;
+    }
+
+    /**
+     * This method returns the number of streets in this partition, including
+     * the copies of streets of other partitions.
+     * 
+     * @return Number of streets in this partition
+     */
+    public int getNumberOfStreets() {
+        return this.streets.size();
+    }
+
+    /**
+     * This method checks whether this partition was cut from its network between
+     * nodes, so it has to exchange cars with the other partitions after every
+     * tick.
+     * 
+     * @return True if this partition exchanges cars with other partitions
+     */
+    public boolean isCut() {
+        return this.cut;
+    }
+
+    /**
+     * This method writes the topology, the current state and the routes of this
+     * partition, such that it can be read again with
+     * {@link #read(DataInput, BoundaryExchange)}.
+     * 
+     * @param output Stream to write to
+     * @throws IOException if writing to the stream failed
+     */
+    public void write(DataOutput output) throws IOException {
+        NetworkSerializer.writeNetwork(output, this.nodes, this.streets, this.network.getRoutingMetric(),
+                this.network.getEngineMode());
+        output.writeBoolean(this.cut);
+        if (this.cut) {
+            output.writeInt(this.copiedNodes.size());
+            for (int id : this.copiedNodes) {
+                output.writeInt(id);
+            }
+        }
+        NetworkTopology topology = this.network.getTopology();
+        RoutingTable routingTable = this.network.getRoutingTable();
+        output.writeInt(routingTable.getNumberOfTables());
+        for (int i = 0; i < routingTable.getNumberOfTables(); i++) {
+            output.writeInt(routingTable.getDestination(i));
+            for (Node node : this.nodes) {
+                output.writeByte(routingTable.getTable(i)[topology.getNodeIndex(node.getId())]);
+            }
+        }
+    }
+
+    /**
+     * This method reads a partition that was written by
+     * {@link #write(DataOutput)} as a network of its own.
+     * 
+     * @param input    Stream to read from
+     * @param exchange Connection to the other partitions, which is used after
+     *                 every tick if the partition was cut between nodes
+     * @return The network of the partition
+     * @throws IOException          if reading from the stream failed or the stream
+     *                              is inconsistent
+     * @throws FailedBuildException if the stream describes an invalid network
+     */
+    public static Network read(DataInput input, BoundaryExchange exchange)
+            throws IOException, FailedBuildException {
+        Network network = NetworkSerializer.readNetwork(input);
+        if (input.readBoolean()) {
+            Set<Integer> copiedNodes = new HashSet<>();
+            int numberOfCopiedNodes = input.readInt();
+            for (int i = 0; i < numberOfCopiedNodes; i++) {
+                copiedNodes.add(input.readInt());
+            }
+            network.setBoundary(new PartitionBoundary(network, exchange, copiedNodes));
+        }
+        int numberOfTables = input.readInt();
+        for (int i = 0; i < numberOfTables; i++) {
+            int destination = input.readInt();
+            byte[] table = new byte[network.getNodes().size()];
+            input.readFully(table);
+            network.getRoutingTable().putTable(destination, table);
+        }
+        return network;
+    }
+
+    /**
+     * This method writes the state of the nodes and streets a partition owns,
+     * such that it can be applied to the whole network with
+     * {@link NetworkSerializer#readState(DataInput, Network)}.
+     * 
+     * @param output  Stream to write to
+     * @param network Network of the partition
+     * @throws IOException if writing to the stream failed
+     */
+    public static void writeState(DataOutput output, Network network) throws IOException {
+        PartitionBoundary boundary = network.getBoundary();
+        if (boundary == null) {
+            NetworkSerializer.writeState(output, network);
+        } else {
+            NetworkSerializer.writeState(output, boundary.getOwnNodes(), boundary.getOwnStreets());
+        }
+    }
+
+}
@@ -0,0 +1,337 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+
+/**
+ * This class provides methods to write a network or a part of it to a binary
+ * stream and to read it back. The topology (nodes and streets) and the state
+ * (signal phases and cars) are written separately, so that the state of an
+ * already existing network can be replaced without rebuilding it.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class NetworkSerializer {
+
+    private static final int ROUNDABOUT_DURATION = 0;
+
+    private static final String ERROR_UNKNOWN_NODE = "Stream references unknown node %d. ";
+    private static final String ERROR_UNKNOWN_STREET = "Stream references unknown street %d. ";
+    private static final String ERROR_UNKNOWN_CAR = "Stream references unknown car %d. ";
+    private static final String ERROR_UNKNOWN_ROUTING_METRIC = "Stream references unknown routing metric %d. ";
+    private static final String ERROR_UNKNOWN_ENGINE_MODE = "Stream references unknown engine mode %d. ";
+
+    private NetworkSerializer() {
+
+    }
+
+    /**
+     * This method writes the topology and the state of a whole network.
+     * 
+     * @param output  Stream to write to
+     * @param network Network to be written
+     * @throws IOException if writing to the stream failed
+     */
+    public static void writeNetwork(DataOutput output, Network network) throws IOException {
+        writeNetwork(output, network.getNodes(), network.getStreets(), network.getRoutingMetric(),
+                network.getEngineMode());
+    }
+
+    /**
+     * This method writes the topology and the state of a part of a network. The
+     * given streets must be all streets that start or end at the given nodes and
+     * both must be ordered by their ID.
+     * 
+     * @param output        Stream to write to
+     * @param nodes         Nodes to be written
+     * @param streets       Streets to be written
+     * @param routingMetric Metric by which the routes of cars are calculated
+     * @param engineMode    Way in which the streets are updated
+     * @throws IOException if writing to the stream failed
+     */
+    static void writeNetwork(DataOutput output, Collection<Node> nodes, Collection<Street> streets,
+            RoutingMetric routingMetric, EngineMode engineMode) throws IOException {
+        output.writeInt(routingMetric.ordinal());
+        output.writeInt(engineMode.ordinal());
+        output.writeInt(nodes.size());
+        for (Node node : nodes) {
+            output.writeInt(node.getId());
+            if (node instanceof Intersection intersection) {
+                output.writeInt(intersection.getDuration());
+            } else {
+                output.writeInt(ROUNDABOUT_DURATION);
+            }
+        }
+        output.writeInt(streets.size());
+        for (Street street : streets) {
+            output.writeInt(street.getId());
+            output.writeInt(street.getStartNode().getId());
+            output.writeInt(street.getEndNode().getId());
+            output.writeInt(street.getLength());
+            output.writeInt(street.getNumberOfLanes());
+            output.writeInt(street.getSpeedLimit());
+            output.writeBoolean(street.isClosed());
+        }
+        writeState(output, nodes, streets);
+    }
+
+    /**
+     * This method reads a network that was written by
+     * {@link #writeNetwork(DataOutput, Network)}.
+     * 
+     * @param input Stream to read from
+     * @return The network that was read
+     * @throws IOException          if reading from the stream failed or the stream
+     *                              is inconsistent
+     * @throws FailedBuildException if the stream describes an invalid network
+     */
+    public static Network readNetwork(DataInput input) throws IOException, FailedBuildException {
+        RoutingMetric routingMetric = getRoutingMetric(input.readInt());
+        EngineMode engineMode = getEngineMode(input.readInt());
+        Map<Integer, Node> nodesById = new HashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        int numberOfNodes = input.readInt();
+        for (int i = 0; i < numberOfNodes; i++) {
+            int id = input.readInt();
+            int duration = input.readInt();
+            Node node = duration == ROUNDABOUT_DURATION ? new Roundabout(id) : new Intersection(id, duration);
+            nodesById.put(id, node);
+            nodes.add(node);
+        }
+
+        List<Street> streets = new ArrayList<>();
+        int numberOfStreets = input.readInt();
+        for (int i = 0; i < numberOfStreets; i++) {
+            int id = input.readInt();
+            Node startNode = getNode(nodesById, input.readInt());
+            Node endNode = getNode(nodesById, input.readInt());
+            int length = input.readInt();
+            int numberOfLanes = input.readInt();
+            int speedLimit = input.readInt();
+            Street street = Street.create(id, startNode, endNode, length, numberOfLanes, speedLimit);
+            // A closed street is no outgoing street of its start node anymore
+            if (input.readBoolean()) {
+                street.close();
+            } else {
+                startNode.addOutgoingStreet();
+            }
+            endNode.addIncomingStreet();
+            streets.add(street);
+        }
+
+        Map<Integer, Car> carsById = new HashMap<>();
+        readNodeStates(input, nodesById);
+        int numberOfStreetStates = input.readInt();
+        for (int i = 0; i < numberOfStreetStates; i++) {
+            Street street = getStreet(streets, input.readInt());
+            int numberOfCars = input.readInt();
+            for (int j = 0; j < numberOfCars; j++) {
+                Car car = readCar(input, street);
+                street.placeCar(car);
+                carsById.put(car.getId(), car);
+            }
+        }
+        Network network = new Network(nodes, streets, carsById);
+        network.setRoutingMetric(routingMetric);
+        network.setEngineMode(engineMode);
+        return network;
+    }
+
+    /**
+     * This method writes the state of a whole network.
+     * 
+     * @param output  Stream to write to
+     * @param network Network whose state should be written
+     * @throws IOException if writing to the stream failed
+     */
+    public static void writeState(DataOutput output, Network network) throws IOException {
+        writeState(output, network.getNodes(), network.getStreets());
+    }
+
+    /**
+     * This method writes the state of a part of a network.
+     * 
+     * @param output  Stream to write to
+     * @param nodes   Nodes whose signal phases should be written
+     * @param streets Streets whose cars should be written
+     * @throws IOException if writing to the stream failed
+     */
+    static void writeState(DataOutput output, Collection<Node> nodes, Collection<Street> streets)
+            throws IOException {
+        output.writeInt(nodes.size());
+        for (Node node : nodes) {
+            output.writeInt(node.getId());
+            if (node instanceof Intersection intersection) {
+                output.writeInt(intersection.getCountdown());
+                output.writeInt(intersection.getIndicator());
+            } else {
+                output.writeInt(0);
+                output.writeInt(0);
+            }
+        }
+        output.writeInt(streets.size());
+        for (Street street : streets) {
+            output.writeInt(street.getId());
+            List<Car> cars = street.getCars();
+            output.writeInt(cars.size());
+            for (Car car : cars) {
+                writeCar(output, car);
+            }
+        }
+    }
+
+    /**
+     * This method writes a car together with its state.
+     * 
+     * @param output Stream to write to
+     * @param car    Car to be written
+     * @throws IOException if writing to the stream failed
+     */
+    static void writeCar(DataOutput output, Car car) throws IOException {
+        output.writeInt(car.getId());
+        output.writeInt(car.getTargetSpeed());
+        output.writeInt(car.getAcceleration());
+        output.writeInt(car.getLane());
+        output.writeInt(car.getSpeed());
+        output.writeInt(car.getPosition());
+        output.writeInt(car.getMileage());
+        output.writeInt(car.getNextDirection());
+        output.writeInt(car.getDestination());
+        output.writeBoolean(car.leavesAtDestination());
+        output.writeInt(car.getExitTick());
+        output.writeInt(car.getQueuePosition());
+    }
+
+    /**
+     * This method reads a car that was written by
+     * {@link #writeCar(DataOutput, Car)} as a new car on a street. The car is not
+     * placed on the street yet.
+     * 
+     * @param input  Stream to read from
+     * @param street Street the car drives on
+     * @return The car that was read
+     * @throws IOException          if reading from the stream failed
+     * @throws FailedBuildException if the stream describes an invalid car
+     */
+    static Car readCar(DataInput input, Street street) throws IOException, FailedBuildException {
+        Car car = new Car(input.readInt(), input.readInt(), input.readInt(), street);
+        readCarState(input, car);
+        return car;
+    }
+
+    /**
+     * This method reads a state that was written by
+     * {@link #writeState(DataOutput, Network)} or as part of a network and applies
+     * it to an existing network. The cars of every street contained in the stream
+     * are replaced, all other streets stay as they are. All gridlocks are thawed.
+     * 
+     * @param input   Stream to read from
+     * @param network Network to apply the state to
+     * @throws IOException if reading from the stream failed or the stream
+     *                     references nodes, streets or cars that do not exist in
+     *                     the network
+     */
+    public static void readState(DataInput input, Network network) throws IOException {
+        Map<Integer, Node> nodesById = new HashMap<>();
+        for (Node node : network.getNodes()) {
+            nodesById.put(node.getId(), node);
+        }
+        readNodeStates(input, nodesById);
+
+        int numberOfStreetStates = input.readInt();
+        for (int i = 0; i < numberOfStreetStates; i++) {
+            Street street = getStreet(network.getStreets(), input.readInt());
+            street.clearCars();
+            int numberOfCars = input.readInt();
+            for (int j = 0; j < numberOfCars; j++) {
+                int id = input.readInt();
+                Car car = network.findCar(id);
+                if (car == null) {
+                    throw new IOException(ERROR_UNKNOWN_CAR.formatted(id));
+                }
+                // Target speed and acceleration cannot change
+                input.readInt();
+                input.readInt();
+                readCarState(input, car);
+                street.placeCar(car);
+            }
+        }
+        network.thawGridlocks();
+    }
+
+    private static void readNodeStates(DataInput input, Map<Integer, Node> nodesById) throws IOException {
+        int numberOfNodeStates = input.readInt();
+        for (int i = 0; i < numberOfNodeStates; i++) {
+            Node node = getNode(nodesById, input.readInt());
+            int countdown = input.readInt();
+            int indicator = input.readInt();
+            if (node instanceof Intersection intersection) {
+                intersection.setPhase(countdown, indicator);
+            }
+        }
+    }
+
+    private static void readCarState(DataInput input, Car car) throws IOException {
+        car.setLane(input.readInt());
+        car.setSpeed(input.readInt());
+        car.setPosition(input.readInt());
+        car.setMileage(input.readInt());
+        car.setNextDirection(input.readInt());
+        car.setDestination(input.readInt());
+        car.setLeavesAtDestination(input.readBoolean());
+        // The queue of the mesoscopic engine is kept, its ticks are counted from the last tick
+        car.setQueue(input.readInt(), input.readInt());
+    }
+
+    private static RoutingMetric getRoutingMetric(int ordinal) throws IOException {
+        RoutingMetric[] routingMetrics = RoutingMetric.values();
+        if (ordinal < 0 || ordinal >= routingMetrics.length) {
+            throw new IOException(ERROR_UNKNOWN_ROUTING_METRIC.formatted(ordinal));
+        }
+        return routingMetrics[ordinal];
+    }
+
+    private static EngineMode getEngineMode(int ordinal) throws IOException {
+        EngineMode[] engineModes = EngineMode.values();
+        if (ordinal < 0 || ordinal >= engineModes.length) {
+            throw new IOException(ERROR_UNKNOWN_ENGINE_MODE.formatted(ordinal));
+        }
+        return engineModes[ordinal];
+    }
+
+    private static Node getNode(Map<Integer, Node> nodesById, int id) throws IOException {
+        Node node = nodesById.get(id);
+        if (node == null) {
+            throw new IOException(ERROR_UNKNOWN_NODE.formatted(id));
+        }
+        return node;
+    }
+
+    private static Street getStreet(List<Street> streets, int id) throws IOException {
+        // Streets are ordered by their ID, but a part of a network has gaps
+        int low = 0;
+        int high = streets.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = streets.get(middle).getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return streets.get(middle);
+            }
+        }
+        throw new IOException(ERROR_UNKNOWN_STREET.formatted(id));
+    }
+
+}
@@ -0,0 +1,212 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * This class holds an immutable copy of the state of all cars, streets and
+ * nodes of a network at a tick boundary. It is created on the thread that
+ * simulates the network and can then be read by any number of threads while
+ * the network changes, without ever showing a half-updated tick.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class NetworkSnapshot {
+
+    /**
+     * This is the ID given instead of a street if no street has the right of way.
+     */
+    public static final int NO_STREET = -1;
+
+    private final int tick;
+    private final List<CarState> cars;
+    private final List<StreetState> streets;
+    private final List<NodeState> nodes;
+
+    /**
+     * This constructor copies the state of a network. It must only be called on
+     * the thread that simulates the network and while no tick elapses.
+     * 
+     * @param network Network to be copied
+     * @param tick    Number of ticks since the network was loaded or the
+     *                snapshots were started
+     */
+    protected NetworkSnapshot(Network network, int tick) {
+        this.tick = tick;
+        List<Street> networkStreets = network.getStreets();
+        List<CarState> carStates = new ArrayList<>(network.getNumberOfCars());
+        StreetState[] streetStates = new StreetState[networkStreets.size()];
+        for (int i = 0; i < streetStates.length; i++) {
+            Street street = networkStreets.get(i);
+            int streetCars = street.getNumberOfCars();
+            for (int j = 0; j < streetCars; j++) {
+                Car car = street.getCar(j);
+                carStates.add(new CarState(car.getId(), street.getId(), car.getLane(),
+                        car.getPosition(), car.getSpeed()));
+            }
+            streetStates[i] = new StreetState(street.getId(), street.getStartNode().getId(),
+                    street.getEndNode().getId(), street.getLength(), street.getNumberOfLanes(),
+                    street.getSpeedLimit(), street.isClosed(), streetCars);
+        }
+        carStates.sort(Comparator.comparingInt(CarState::id));
+        this.cars = List.copyOf(carStates);
+        this.streets = List.of(streetStates);
+
+        List<Node> networkNodes = network.getNodes();
+        NodeState[] nodeStates = new NodeState[networkNodes.size()];
+        for (int i = 0; i < nodeStates.length; i++) {
+            nodeStates[i] = createNodeState(networkNodes.get(i));
+        }
+        this.nodes = List.of(nodeStates);
+    }
+
+    private static NodeState createNodeState(Node node) {
+        if (node instanceof Intersection intersection) {
+            int indicator = intersection.getIndicator();
+            int greenStreet = indicator < intersection.getNumberOfIncomingStreets()
+                    ? intersection.getIncomingStreet(indicator).getId()
+                    : NO_STREET;
+            return new NodeState(node.getId(), false, intersection.getDuration(), intersection.getCountdown(),
+                    greenStreet);
+        }
+        return new NodeState(node.getId(), true, 0, 0, NO_STREET);
+    }
+
+    /**
+     * This method returns the number of ticks that had elapsed when this snapshot
+     * was taken, counted since the network was loaded or the snapshots were
+     * started.
+     * 
+     * @return Tick of this snapshot
+     */
+    public int getTick() {
+        return this.tick;
+    }
+
+    /**
+     * This method returns the states of all cars ordered by their ID.
+     * 
+     * @return Unmodifiable list of the states of all cars
+     */
+    public List<CarState> getCars() {
+        return this.cars;
+    }
+
+    /**
+     * This method returns the states of all streets ordered by their ID.
+     * 
+     * @return Unmodifiable list of the states of all streets
+     */
+    public List<StreetState> getStreets() {
+        return this.streets;
+    }
+
+    /**
+     * This method returns the states of all nodes ordered by their ID.
+     * 
+     * @return Unmodifiable list of the states of all nodes
+     */
+    public List<NodeState> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * This method returns the state of the car with the given ID.
+     * 
+     * @param id ID of the car
+     * @return State of the car or null if there was no such car
+     */
+    public CarState findCar(int id) {
+        int index = find(this.cars.size(), i -> this.cars.get(i).id(), id);
+        return index < 0 ? null : this.cars.get(index);
+    }
+
+    /**
+     * This method returns the state of the street with the given ID.
+     * 
+     * @param id ID of the street
+     * @return State of the street or null if there was no such street
+     */
+    public StreetState findStreet(int id) {
+        int index = find(this.streets.size(), i -> this.streets.get(i).id(), id);
+        return index < 0 ? null : this.streets.get(index);
+    }
+
+    /**
+     * This method returns the state of the node with the given ID.
+     * 
+     * @param id ID of the node
+     * @return State of the node or null if there was no such node
+     */
+    public NodeState findNode(int id) {
+        int index = find(this.nodes.size(), i -> this.nodes.get(i).id(), id);
+        return index < 0 ? null : this.nodes.get(index);
+    }
+
+    private static int find(int size, IntUnaryOperator ids, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = ids.applyAsInt(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This record holds the state of a car.
+     * 
+     * @param id       Car ID
+     * @param street   ID of the street the car is on
+     * @param lane     Lane of the car
+     * @param position Position of the car on its street
+     * @param speed    Speed of the car
+     */
+    public record CarState(int id, int street, int lane, int position, int speed) {
+
+    }
+
+    /**
+     * This record holds the state of a street.
+     * 
+     * @param id            Street ID
+     * @param startNode     ID of the start node
+     * @param endNode       ID of the end node
+     * @param length        Length of the street
+     * @param numberOfLanes Number of lanes
+     * @param speedLimit    Speed limit
+     * @param closed        True if no car can turn onto the street
+     * @param numberOfCars  Number of cars on the street
+     */
+    public record StreetState(int id, int startNode, int endNode, int length, int numberOfLanes, int speedLimit,
+            boolean closed, int numberOfCars) {
+
+    }
+
+    /**
+     * This record holds the state of a node.
+     * 
+     * @param id          Node ID
+     * @param roundabout  True if the node is a roundabout, false if it is an
+     *                    intersection
+     * @param duration    Green phase duration of an intersection
+     * @param countdown   Number of ticks until the lights of an intersection
+     *                    switch
+     * @param greenStreet ID of the incoming street that has the right of way at
+     *                    an intersection or {@value NetworkSnapshot#NO_STREET}
+     */
+    public record NodeState(int id, boolean roundabout, int duration, int countdown, int greenStreet) {
+
+    }
+
+}
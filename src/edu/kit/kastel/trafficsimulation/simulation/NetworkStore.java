@@ -0,0 +1,164 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+
+/**
+ * This class saves a snapshot of the topology and the state of a network to
+ * a file and loads it again. The network is written in the format of
+ * {@link NetworkSerializer} directly into the mapped memory of the file and
+ * read from there, so the serialized network is never held on the heap and
+ * the operating system decides when the pages are written to disk. Loading
+ * builds all nodes, streets and cars of the network on the heap again, and
+ * ticks of the loaded network do not change the file until it is saved again.
+ * <p>
+ * A store file starts with a magic number and the length of the serialized
+ * network. The file may be larger than that, so it can be written again
+ * without being truncated.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class NetworkStore {
+
+    private static final int MAGIC = 0x54534E57;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final String ERROR_NO_STORE = "File %s is no network store. ";
+
+    private NetworkStore() {
+
+    }
+
+    /**
+     * This method saves a snapshot of a network to a store file. An existing
+     * file is overwritten.
+     * 
+     * @param file    Path of the store file
+     * @param network Network to be written
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Path file, Network network) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedOutputStream body = new MappedOutputStream(channel);
+            DataOutputStream output = new DataOutputStream(body);
+            NetworkSerializer.writeNetwork(output, network);
+            output.flush();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(output.size());
+            body.force();
+            header.force();
+        }
+    }
+
+    /**
+     * This method loads a network from a store file that was written by
+     * {@link #save(Path, Network)} and builds it on the heap.
+     * 
+     * @param file Path of the store file
+     * @return The network that was read
+     * @throws IOException          if the file cannot be read or is no store file
+     * @throws FailedBuildException if the file describes an invalid network
+     */
+    public static Network load(Path file) throws IOException, FailedBuildException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(ERROR_NO_STORE.formatted(file));
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            int length = header.getInt(Integer.BYTES);
+            if (header.getInt(0) != MAGIC || length < 0 || length > channel.size() - HEADER_SIZE) {
+                throw new IOException(ERROR_NO_STORE.formatted(file));
+            }
+            ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+            return NetworkSerializer.readNetwork(new DataInputStream(new BufferInputStream(body)));
+        }
+    }
+
+    /**
+     * This class writes to the mapped memory of a file behind the header. The
+     * file is grown and mapped again whenever the mapped memory is full.
+     */
+    private static final class MappedOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long offset;
+
+        private MappedOutputStream(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.offset = HEADER_SIZE;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, this.offset,
+                    Math.max(INITIAL_CAPACITY, channel.size() - this.offset));
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            this.ensureRemaining(1);
+            this.buffer.put((byte) value);
+        }
+
+        @Override
+        public void write(byte[] values, int start, int length) throws IOException {
+            this.ensureRemaining(length);
+            this.buffer.put(values, start, length);
+        }
+
+        private void force() {
+            this.buffer.force();
+        }
+
+        private void ensureRemaining(int length) throws IOException {
+            if (this.buffer.remaining() >= length) {
+                return;
+            }
+            // Map the rest of the file again, twice as large as before
+            this.buffer.force();
+            this.offset += this.buffer.position();
+            long capacity = Math.max(2L * this.buffer.capacity(), length);
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, this.offset, capacity);
+        }
+
+    }
+
+    /**
+     * This class reads from a buffer.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] values, int start, int length) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.get(values, start, count);
+            return count;
+        }
+
+    }
+
+}
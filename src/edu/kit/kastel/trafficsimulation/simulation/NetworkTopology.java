@@ -0,0 +1,366 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is the topology of a network compiled into arrays. Nodes and
+ * streets are referred to by their index in the lists of the network, which
+ * are ordered by ID. The outgoing and incoming streets of all nodes are stored
+ * in rows: the streets of a node are the entries of one array from the begin
+ * of the node up to its end, in the order they have at the node. Since a node
+ * has at most {@value Node#MAX_NUMBER_OUTGOING_STREETS} outgoing and
+ * {@value Node#MAX_NUMBER_INCOMING_STREETS} incoming streets, every row is
+ * reserved with that length. Algorithms on the whole network run on these
+ * arrays without looking up nodes or streets and without allocating lists.
+ * <p>
+ * The topology does not change with the ticks. It is the only place where the
+ * streets of a node are kept, so an edit of the network patches the rows of
+ * the nodes it changes, which takes constant time.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class NetworkTopology {
+
+    /**
+     * This is the direction of a street that is no outgoing street of its start
+     * node anymore, because it was closed.
+     */
+    public static final int NO_DIRECTION = -1;
+
+    /**
+     * This is the duration stored for a roundabout, which has no signals.
+     */
+    public static final int ROUNDABOUT_DURATION = 0;
+
+    private static final int NOT_FOUND = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int[] nodeIds;
+    private final int[] durations;
+    private final int[] numbersOfOutgoingStreets;
+    private final int[] outgoingStreets;
+    private final int[] numbersOfIncomingStreets;
+    private final int[] incomingStreets;
+    private int numberOfStreets;
+    private int[] streetIds;
+    private int[] startNodes;
+    private int[] endNodes;
+    private int[] directions;
+    private int[] lengths;
+    private int[] speedLimits;
+    private int[] updateOrder;
+
+    private NetworkTopology(int numberOfNodes, int streetCapacity) {
+        this.nodeIds = new int[numberOfNodes];
+        this.durations = new int[numberOfNodes];
+        this.numbersOfOutgoingStreets = new int[numberOfNodes];
+        this.outgoingStreets = new int[numberOfNodes * Node.MAX_NUMBER_OUTGOING_STREETS];
+        this.numbersOfIncomingStreets = new int[numberOfNodes];
+        this.incomingStreets = new int[numberOfNodes * Node.MAX_NUMBER_INCOMING_STREETS];
+        this.numberOfStreets = 0;
+        this.streetIds = new int[streetCapacity];
+        this.startNodes = new int[streetCapacity];
+        this.endNodes = new int[streetCapacity];
+        this.directions = new int[streetCapacity];
+        this.lengths = new int[streetCapacity];
+        this.speedLimits = new int[streetCapacity];
+        this.updateOrder = null;
+    }
+
+    /**
+     * This method compiles the topology of the given nodes and streets. The
+     * streets of a node are in the order of their IDs, which is the order in
+     * which they were added to the node.
+     * 
+     * @param nodes   Nodes ordered by their ID
+     * @param streets Streets ordered by their ID
+     * @return Topology of the nodes and streets
+     */
+    protected static NetworkTopology compile(List<Node> nodes, List<Street> streets) {
+        NetworkTopology topology = new NetworkTopology(nodes.size(), Math.max(streets.size(), INITIAL_CAPACITY));
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            topology.nodeIds[i] = node.getId();
+            topology.durations[i] = node instanceof Intersection intersection
+                    ? intersection.getDuration()
+                    : ROUNDABOUT_DURATION;
+        }
+        for (Street street : streets) {
+            topology.addStreet(street);
+        }
+        return topology;
+    }
+
+    /**
+     * This method adds a street to this topology. Its ID must be higher than
+     * the IDs of all other streets. It becomes the last incoming street of its
+     * end node and, unless it is closed, the last outgoing street of its start
+     * node.
+     * 
+     * @param street Street to be added
+     */
+    protected void addStreet(Street street) {
+        if (this.numberOfStreets == this.streetIds.length) {
+            int capacity = 2 * this.streetIds.length;
+            this.streetIds = Arrays.copyOf(this.streetIds, capacity);
+            this.startNodes = Arrays.copyOf(this.startNodes, capacity);
+            this.endNodes = Arrays.copyOf(this.endNodes, capacity);
+            this.directions = Arrays.copyOf(this.directions, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+            this.speedLimits = Arrays.copyOf(this.speedLimits, capacity);
+        }
+        int index = this.numberOfStreets++;
+        int startNode = this.getNodeIndex(street.getStartNode().getId());
+        int endNode = this.getNodeIndex(street.getEndNode().getId());
+        this.streetIds[index] = street.getId();
+        this.startNodes[index] = startNode;
+        this.endNodes[index] = endNode;
+        this.lengths[index] = street.getLength();
+        this.speedLimits[index] = street.getSpeedLimit();
+        if (this.updateOrder != null) {
+            this.updateOrder = Arrays.copyOf(this.updateOrder, this.numberOfStreets);
+            this.updateOrder[index] = index;
+        }
+        this.incomingStreets[this.getIncomingEnd(endNode)] = index;
+        this.numbersOfIncomingStreets[endNode]++;
+        if (street.isClosed()) {
+            this.directions[index] = NO_DIRECTION;
+            return;
+        }
+        this.directions[index] = this.numbersOfOutgoingStreets[startNode];
+        this.outgoingStreets[this.getOutgoingEnd(startNode)] = index;
+        this.numbersOfOutgoingStreets[startNode]++;
+    }
+
+    /**
+     * This method removes a street from the outgoing streets of its start node.
+     * The outgoing streets behind it move up by one direction. It stays an
+     * incoming street of its end node.
+     * 
+     * @param street Index of the street
+     */
+    protected void closeStreet(int street) {
+        int node = this.startNodes[street];
+        int end = this.getOutgoingEnd(node);
+        for (int i = this.getOutgoingBegin(node) + this.directions[street]; i < end - 1; i++) {
+            this.outgoingStreets[i] = this.outgoingStreets[i + 1];
+            this.directions[this.outgoingStreets[i]]--;
+        }
+        this.numbersOfOutgoingStreets[node]--;
+        this.directions[street] = NO_DIRECTION;
+    }
+
+    /**
+     * This method changes the green phase duration of a node.
+     * 
+     * @param node     Index of the node
+     * @param duration New green phase duration
+     */
+    protected void setDuration(int node, int duration) {
+        this.durations[node] = duration;
+    }
+
+    /**
+     * This method returns the number of nodes.
+     * 
+     * @return Number of nodes
+     */
+    public int getNumberOfNodes() {
+        return this.nodeIds.length;
+    }
+
+    /**
+     * This method returns the number of streets.
+     * 
+     * @return Number of streets
+     */
+    public int getNumberOfStreets() {
+        return this.numberOfStreets;
+    }
+
+    /**
+     * This method returns the order in which the streets are visited wherever
+     * the order does not change the result, see {@link LocalityOrder}. Streets
+     * added later are visited last.
+     * 
+     * @return Indices of the streets in the order they should be visited or
+     *         null if they are visited in order of their ID
+     */
+    protected int[] getUpdateOrder() {
+        return this.updateOrder;
+    }
+
+    /**
+     * This method sets the order in which the streets are visited wherever the
+     * order does not change the result.
+     * 
+     * @param updateOrder Indices of the streets in the order they should be
+     *                    visited or null to visit them in order of their ID
+     */
+    protected void setUpdateOrder(int[] updateOrder) {
+        this.updateOrder = updateOrder;
+    }
+
+    /**
+     * This method returns the number of streets the arrays of the streets have
+     * room for before they grow.
+     * 
+     * @return Capacity of the arrays of the streets
+     */
+    protected int getStreetCapacity() {
+        return this.streetIds.length;
+    }
+
+    /**
+     * This method returns the index of the node with the given ID.
+     * 
+     * @param id ID of the node
+     * @return Index of the node or -1 if there is no such node
+     */
+    public int getNodeIndex(int id) {
+        int index = Arrays.binarySearch(this.nodeIds, id);
+        return index >= 0 ? index : NOT_FOUND;
+    }
+
+    /**
+     * This method returns the index of the street with the given ID.
+     * 
+     * @param id ID of the street
+     * @return Index of the street or -1 if there is no such street
+     */
+    public int getStreetIndex(int id) {
+        int index = Arrays.binarySearch(this.streetIds, 0, this.numberOfStreets, id);
+        return index >= 0 ? index : NOT_FOUND;
+    }
+
+    /**
+     * This method returns the green phase duration of a node.
+     * 
+     * @param node Index of the node
+     * @return Green phase duration of the node or {@value #ROUNDABOUT_DURATION}
+     *         if the node is a roundabout
+     */
+    public int getDuration(int node) {
+        return this.durations[node];
+    }
+
+    /**
+     * This method returns the first position of the outgoing streets of a node
+     * in {@link #getOutgoingStreet(int)}.
+     * 
+     * @param node Index of the node
+     * @return First position of the outgoing streets of the node
+     */
+    public int getOutgoingBegin(int node) {
+        return node * Node.MAX_NUMBER_OUTGOING_STREETS;
+    }
+
+    /**
+     * This method returns the position behind the last outgoing street of a
+     * node in {@link #getOutgoingStreet(int)}.
+     * 
+     * @param node Index of the node
+     * @return Position behind the last outgoing street of the node
+     */
+    public int getOutgoingEnd(int node) {
+        return this.getOutgoingBegin(node) + this.numbersOfOutgoingStreets[node];
+    }
+
+    /**
+     * This method returns the outgoing street at a position of the rows.
+     * 
+     * @param position Position between the begin and the end of a node
+     * @return Index of the street
+     */
+    public int getOutgoingStreet(int position) {
+        return this.outgoingStreets[position];
+    }
+
+    /**
+     * This method returns the first position of the incoming streets of a node
+     * in {@link #getIncomingStreet(int)}.
+     * 
+     * @param node Index of the node
+     * @return First position of the incoming streets of the node
+     */
+    public int getIncomingBegin(int node) {
+        return node * Node.MAX_NUMBER_INCOMING_STREETS;
+    }
+
+    /**
+     * This method returns the position behind the last incoming street of a
+     * node in {@link #getIncomingStreet(int)}.
+     * 
+     * @param node Index of the node
+     * @return Position behind the last incoming street of the node
+     */
+    public int getIncomingEnd(int node) {
+        return this.getIncomingBegin(node) + this.numbersOfIncomingStreets[node];
+    }
+
+    /**
+     * This method returns the incoming street at a position of the rows.
+     * Closed streets are still incoming streets of their end node.
+     * 
+     * @param position Position between the begin and the end of a node
+     * @return Index of the street
+     */
+    public int getIncomingStreet(int position) {
+        return this.incomingStreets[position];
+    }
+
+    /**
+     * This method returns the start node of a street.
+     * 
+     * @param street Index of the street
+     * @return Index of the start node
+     */
+    public int getStartNode(int street) {
+        return this.startNodes[street];
+    }
+
+    /**
+     * This method returns the end node of a street.
+     * 
+     * @param street Index of the street
+     * @return Index of the end node
+     */
+    public int getEndNode(int street) {
+        return this.endNodes[street];
+    }
+
+    /**
+     * This method returns the direction a car has to turn at the start node of
+     * a street to get onto the street.
+     * 
+     * @param street Index of the street
+     * @return Index of the street among the outgoing streets of its start node
+     *         or {@value #NO_DIRECTION} if the street is closed
+     */
+    public int getDirection(int street) {
+        return this.directions[street];
+    }
+
+    /**
+     * This method returns the length of a street.
+     * 
+     * @param street Index of the street
+     * @return Length of the street in meters
+     */
+    public int getLength(int street) {
+        return this.lengths[street];
+    }
+
+    /**
+     * This method returns the speed limit of a street.
+     * 
+     * @param street Index of the street
+     * @return Speed limit of the street
+     */
+    public int getSpeedLimit(int street) {
+        return this.speedLimits[street];
+    }
+
+}
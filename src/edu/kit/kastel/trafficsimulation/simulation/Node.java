@@ -1,12 +1,11 @@
 package edu.kit.kastel.trafficsimulation.simulation;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
 
 /**
- * This class represents a street node. It acts as a link between streets.
+ * This class represents a street node. It acts as a link between streets. The
+ * streets of a node are kept by the {@link NetworkTopology} of its network,
+ * the node itself only counts them while the network is built or edited.
  * 
  * @author ulqch
  * @version 1.0
@@ -18,17 +17,24 @@ public abstract class Node implements Entity {
      */
     public static final int MAX_NUMBER_OUTGOING_STREETS = 4;
 
+    /**
+     * This is the maximum number of incoming streets a node can have.
+     */
+    public static final int MAX_NUMBER_INCOMING_STREETS = 4;
+
     private static final int MIN_NUMBER_OUTGOING_STREETS = 1;
     private static final int MIN_NUMBER_INCOMING_STREETS = 1;
-    private static final int MAX_NUMBER_INCOMING_STREETS = 4;
     private static final int MIN_ID = 0;
 
     private static final String ERROR_TO_MANY_STREETS = "Cannot add more than %d incoming and %d outgoing streets. ";
     private static final String ERROR_ID_INVALID = "Id must be higher than %d";
+    private static final String ERROR_NOT_ENOUGH_STREETS = "Node %d does not have enough streets. ";
 
     private final int id;
-    private final List<Street> outgoingStreets;
-    private final List<Street> incomingStreets;
+    private int numberOfOutgoingStreets;
+    private int numberOfIncomingStreets;
+    private Network network;
+    private int index;
 
     /**
      * This constructor creates a new node. It takes an ID that is used to identify
@@ -42,38 +48,71 @@ public abstract class Node implements Entity {
             throw new FailedBuildException(ERROR_ID_INVALID.formatted(MIN_ID));
         }
         this.id = id;
-        this.outgoingStreets = new ArrayList<>();
-        this.incomingStreets = new ArrayList<>();
+        this.numberOfOutgoingStreets = 0;
+        this.numberOfIncomingStreets = 0;
     }
 
     /**
-     * This method adds an outgoing street to this node.
+     * This method counts a new outgoing street of this node.
      * 
-     * @param street Street to be added as an outgoing street to this node.
      * @throws FailedBuildException if there are too many outgoing streets at this
      *                              node
      */
-    public void addOutgoingStreet(Street street) throws FailedBuildException {
-        if (this.outgoingStreets.size() + 1 > MAX_NUMBER_OUTGOING_STREETS) {
+    public void addOutgoingStreet() throws FailedBuildException {
+        if (this.numberOfOutgoingStreets + 1 > MAX_NUMBER_OUTGOING_STREETS) {
             String message = ERROR_TO_MANY_STREETS.formatted(MAX_NUMBER_INCOMING_STREETS, MAX_NUMBER_OUTGOING_STREETS);
             throw new FailedBuildException(message);
         }
-        this.outgoingStreets.add(street);
+        this.numberOfOutgoingStreets++;
     }
 
     /**
-     * This method adds an incoming street to this node.
+     * This method counts a new incoming street of this node.
      * 
-     * @param street Street to be added as an incoming street to this node
      * @throws FailedBuildException if there are too many incoming streets at this
      *                              node
      */
-    public void addIncomingStreet(Street street) throws FailedBuildException {
-        if (this.incomingStreets.size() + 1 > MAX_NUMBER_INCOMING_STREETS) {
+    public void addIncomingStreet() throws FailedBuildException {
+        if (this.numberOfIncomingStreets + 1 > MAX_NUMBER_INCOMING_STREETS) {
             String message = ERROR_TO_MANY_STREETS.formatted(MAX_NUMBER_INCOMING_STREETS, MAX_NUMBER_OUTGOING_STREETS);
             throw new FailedBuildException(message);
         }
-        this.incomingStreets.add(street);
+        this.numberOfIncomingStreets++;
+    }
+
+    /**
+     * This method counts an outgoing street less, because cars no longer turn
+     * onto it.
+     * 
+     * @throws FailedBuildException if this node would not have enough outgoing
+     *                              streets anymore
+     */
+    public void removeOutgoingStreet() throws FailedBuildException {
+        if (this.numberOfOutgoingStreets - 1 < MIN_NUMBER_OUTGOING_STREETS) {
+            throw new FailedBuildException(ERROR_NOT_ENOUGH_STREETS.formatted(this.id));
+        }
+        this.numberOfOutgoingStreets--;
+    }
+
+    /**
+     * This method counts an incoming street less. It must only be used to undo
+     * {@link #addIncomingStreet()} before the street is added to the network.
+     */
+    protected void removeIncomingStreet() {
+        this.numberOfIncomingStreets--;
+    }
+
+    /**
+     * This method sets the network this node belongs to. Its topology tells
+     * which streets meet at this node and its routing table leads cars with a
+     * destination along the shortest route.
+     * 
+     * @param network Network this node belongs to
+     * @param index   Index of this node in the topology of the network
+     */
+    protected void setNetwork(Network network, int index) {
+        this.network = network;
+        this.index = index;
     }
 
     /**
@@ -86,12 +125,25 @@ public abstract class Node implements Entity {
     }
 
     /**
-     * This method returns the list of incoming streets.
+     * This method returns the number of incoming streets of this node.
      * 
-     * @return List of incoming streets
+     * @return Number of incoming streets
      */
-    protected List<Street> getIncomingStreets() {
-        return new ArrayList<>(this.incomingStreets);
+    protected int getNumberOfIncomingStreets() {
+        NetworkTopology topology = this.network.getTopology();
+        return topology.getIncomingEnd(this.index) - topology.getIncomingBegin(this.index);
+    }
+
+    /**
+     * This method returns an incoming street of this node.
+     * 
+     * @param index Index of the incoming street
+     * @return Incoming street with the given index
+     */
+    protected Street getIncomingStreet(int index) {
+        NetworkTopology topology = this.network.getTopology();
+        int street = topology.getIncomingStreet(topology.getIncomingBegin(this.index) + index);
+        return this.network.getStreets().get(street);
     }
 
     /**
@@ -101,8 +153,8 @@ public abstract class Node implements Entity {
      * @return True if this node has enough incoming and outgoing streets
      */
     public boolean hasEnoughStreets() {
-        return this.incomingStreets.size() >= MIN_NUMBER_INCOMING_STREETS
-                && this.outgoingStreets.size() >= MIN_NUMBER_OUTGOING_STREETS;
+        return this.numberOfIncomingStreets >= MIN_NUMBER_INCOMING_STREETS
+                && this.numberOfOutgoingStreets >= MIN_NUMBER_OUTGOING_STREETS;
     }
 
     /**
@@ -114,30 +166,54 @@ public abstract class Node implements Entity {
     protected abstract boolean hasRightOfWay(Street street);
 
     /**
-     * This method returns the street that a car should to turn onto. If the street
-     * the car is traveling on does not have priority or the car does not fit in the
-     * new street, null is returned.
+     * This method returns the street that a car should to turn onto. A car with a
+     * destination turns onto the next street of the shortest route to it, all
+     * other cars turn in every direction one after the other. If the street the
+     * car is traveling on does not have priority, the car does not fit in the
+     * new street or the car leaves the network at this node, null is returned.
      * 
      * @param car The car to calculate which road to turn onto
      * @return Street that the car should to turn onto or null if the street the car
-     *         is traveling on does not have priority or if the car does not fit in
-     *         the new street
+     *         is traveling on does not have priority, if the car does not fit in
+     *         the new street or if the car leaves the network at this node
      */
     public Street getStreetToTurn(Car car) {
         Street street = car.getStreet();
-        if (!hasRightOfWay(street))
+        if (!hasRightOfWay(street) || car.leavesAt(this))
             return null;
 
-        int direction = car.getNextDirection();
-        if (direction >= this.outgoingStreets.size()) {
-            direction = 0;
-        }
-
-        Street nextStreet = this.outgoingStreets.get(direction);
+        Street nextStreet = this.getNextStreet(car);
 
         if (nextStreet.isFull())
             return null;
         return nextStreet;
     }
 
+    /**
+     * This method returns the street that a car wants to turn onto, regardless
+     * of whether it has the right of way and fits into that street.
+     * 
+     * @param car Car at the end of one of the incoming streets of this node
+     * @return Street that the car wants to turn onto
+     */
+    protected Street getNextStreet(Car car) {
+        NetworkTopology topology = this.network.getTopology();
+        int position = topology.getOutgoingBegin(this.index) + this.getDirection(car, topology);
+        return this.network.getStreets().get(topology.getOutgoingStreet(position));
+    }
+
+    private int getDirection(Car car, NetworkTopology topology) {
+        if (car.getDestination() != Car.NO_DESTINATION) {
+            int direction = this.network.getRoutingTable().getDirection(this.index, car.getDestination());
+            if (direction != RoutingTable.NO_DIRECTION) {
+                return direction;
+            }
+        }
+        int direction = car.getNextDirection();
+        if (direction >= topology.getOutgoingEnd(this.index) - topology.getOutgoingBegin(this.index)) {
+            direction = 0;
+        }
+        return direction;
+    }
+
 }
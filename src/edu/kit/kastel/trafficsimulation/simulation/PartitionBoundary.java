@@ -0,0 +1,227 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+
+/**
+ * This class represents the boundary of a network partition that was cut
+ * between its nodes. The partition owns its nodes and the streets that end at
+ * them, since the end node of a street decides when its last car leaves. A
+ * street that leads from a node of the partition to a node of another one is
+ * kept as a copy: the partition decides which of its cars may enter that
+ * street, but does not let any car leave it. The end nodes of the copies and
+ * the start nodes of the streets entered from other partitions are kept as
+ * well, but their state belongs to the other partitions.
+ * <p>
+ * After every tick the partition exchanges a batch with all other partitions.
+ * The batch contains the cars that entered the copies and the streets whose
+ * last car left to another partition. Since a partition only enters cars into
+ * its copies and only lets cars leave its own streets, both are found by
+ * comparing the numbers of cars on the streets with the previous tick.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+final class PartitionBoundary {
+
+    private final Network network;
+    private final BoundaryExchange exchange;
+    private final boolean[] copies;
+    private final List<Node> ownNodes;
+    private final List<Street> ownStreets;
+    private final List<Street> exits;
+    private final List<Street> entrances;
+    private final int[] exitSizes;
+    private final int[] entranceSizes;
+
+    /**
+     * This constructor creates the boundary of a partition.
+     * 
+     * @param network     Network of the partition including the copies
+     * @param exchange    Connection to the other partitions
+     * @param copiedNodes IDs of the nodes owned by other partitions
+     */
+    protected PartitionBoundary(Network network, BoundaryExchange exchange, Set<Integer> copiedNodes) {
+        this.network = network;
+        this.exchange = exchange;
+        this.copies = new boolean[network.getStreets().size()];
+        this.ownNodes = new ArrayList<>();
+        this.ownStreets = new ArrayList<>();
+        this.exits = new ArrayList<>();
+        this.entrances = new ArrayList<>();
+        for (Node node : network.getNodes()) {
+            if (!copiedNodes.contains(node.getId())) {
+                this.ownNodes.add(node);
+            }
+        }
+        List<Street> streets = network.getStreets();
+        for (int i = 0; i < streets.size(); i++) {
+            Street street = streets.get(i);
+            if (copiedNodes.contains(street.getEndNode().getId())) {
+                this.copies[i] = true;
+                this.exits.add(street);
+                continue;
+            }
+            this.ownStreets.add(street);
+            if (!street.isClosed() && copiedNodes.contains(street.getStartNode().getId())) {
+                this.entrances.add(street);
+            }
+        }
+        this.exitSizes = new int[this.exits.size()];
+        this.entranceSizes = new int[this.entrances.size()];
+        this.remember();
+    }
+
+    /**
+     * This method checks whether a street is the copy of a street of another
+     * partition.
+     * 
+     * @param street Index of the street
+     * @return True if the street is a copy
+     */
+    protected boolean isCopy(int street) {
+        return this.copies[street];
+    }
+
+    /**
+     * This method returns the nodes owned by this partition.
+     * 
+     * @return Nodes ordered by their ID
+     */
+    protected List<Node> getOwnNodes() {
+        return this.ownNodes;
+    }
+
+    /**
+     * This method returns the streets owned by this partition.
+     * 
+     * @return Streets ordered by their ID
+     */
+    protected List<Street> getOwnStreets() {
+        return this.ownStreets;
+    }
+
+    /**
+     * This method exchanges the cars that crossed the boundary in the last tick
+     * with all other partitions. It blocks until the batches of all of them
+     * arrived.
+     * 
+     * @throws UncheckedIOException if the batches could not be exchanged
+     */
+    protected void exchange() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            this.writeBatch(new DataOutputStream(bytes));
+            List<DataInputStream> inputs = new ArrayList<>();
+            for (byte[] batch : this.exchange.exchange(bytes.toByteArray())) {
+                inputs.add(new DataInputStream(new ByteArrayInputStream(batch)));
+            }
+            // A car may come back in the same tick, so it has to leave its copy first
+            for (DataInputStream input : inputs) {
+                this.readLeaving(input);
+            }
+            for (DataInputStream input : inputs) {
+                this.readEntering(input);
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+        this.remember();
+    }
+
+    private void writeBatch(DataOutputStream output) throws IOException {
+        List<Street> left = new ArrayList<>();
+        for (int i = 0; i < this.entrances.size(); i++) {
+            // Cars of other partitions only enter after the exchange, so a missing car left
+            if (this.entrances.get(i).getNumberOfCars() < this.entranceSizes[i]) {
+                left.add(this.entrances.get(i));
+            }
+        }
+        output.writeInt(left.size());
+        for (Street street : left) {
+            output.writeInt(street.getId());
+        }
+
+        int numberOfEntered = 0;
+        for (int i = 0; i < this.exits.size(); i++) {
+            if (this.exits.get(i).getNumberOfCars() > this.exitSizes[i]) {
+                numberOfEntered++;
+            }
+        }
+        output.writeInt(numberOfEntered);
+        for (int i = 0; i < this.exits.size(); i++) {
+            Street street = this.exits.get(i);
+            int entered = street.getNumberOfCars() - this.exitSizes[i];
+            if (entered > 0) {
+                // Partitions that do not know the street skip its cars
+                ByteArrayOutputStream cars = new ByteArrayOutputStream();
+                DataOutputStream carOutput = new DataOutputStream(cars);
+                for (int j = 0; j < entered; j++) {
+                    NetworkSerializer.writeCar(carOutput, street.getCars().get(j));
+                }
+                output.writeInt(street.getId());
+                output.writeInt(entered);
+                output.writeInt(cars.size());
+                cars.writeTo(output);
+            }
+        }
+    }
+
+    private void readLeaving(DataInputStream input) throws IOException {
+        int numberOfLeft = input.readInt();
+        for (int i = 0; i < numberOfLeft; i++) {
+            Street street = this.network.findStreet(input.readInt());
+            if (street != null && this.isCopy(this.network.getTopology().getStreetIndex(street.getId()))) {
+                Car car = street.getCars().get(street.getNumberOfCars() - 1);
+                street.removeCar(car);
+                this.network.removeCar(car);
+            }
+        }
+    }
+
+    private void readEntering(DataInputStream input) throws IOException {
+        int numberOfEntered = input.readInt();
+        for (int i = 0; i < numberOfEntered; i++) {
+            Street street = this.network.findStreet(input.readInt());
+            int entered = input.readInt();
+            int length = input.readInt();
+            if (street == null || this.isCopy(this.network.getTopology().getStreetIndex(street.getId()))) {
+                input.skipBytes(length);
+                continue;
+            }
+            // The cars entered at the start of the street, behind all cars on it
+            List<Car> cars = new ArrayList<>();
+            try {
+                for (int j = 0; j < entered; j++) {
+                    cars.add(NetworkSerializer.readCar(input, street));
+                }
+            } catch (FailedBuildException failedBuildException) {
+                throw new IOException(failedBuildException.getMessage());
+            }
+            cars.addAll(street.getCars());
+            street.replaceCars(cars);
+            for (int j = 0; j < entered; j++) {
+                this.network.addCar(cars.get(j));
+            }
+        }
+    }
+
+    private void remember() {
+        for (int i = 0; i < this.exits.size(); i++) {
+            this.exitSizes[i] = this.exits.get(i).getNumberOfCars();
+        }
+        for (int i = 0; i < this.entrances.size(); i++) {
+            this.entranceSizes[i] = this.entrances.get(i).getNumberOfCars();
+        }
+    }
+
+}
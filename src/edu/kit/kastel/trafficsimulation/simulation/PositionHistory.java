@@ -0,0 +1,226 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class records the recent positions of the cars of a network in a ring
+ * buffer. Every car that is seen gets a slot that holds the last entries of
+ * (tick, street, position, speed) of that car, older entries are overwritten.
+ * All memory is allocated when the history is created: the slots are found by
+ * an open addressing table of primitive car IDs, so recording a tick neither
+ * boxes nor allocates anything. The slot of a car that left the network keeps
+ * its entries until all slots are taken, then the slots of the cars that left
+ * first are given to new cars. Only if no car left, further cars are not
+ * recorded.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class PositionHistory implements TickListener {
+
+    private static final int TICK = 0;
+    private static final int STREET = 1;
+    private static final int POSITION = 2;
+    private static final int SPEED = 3;
+    private static final int ENTRY_SIZE = 4;
+    private static final int NO_SLOT = -1;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private final int capacity;
+    private final int interval;
+    private final int[] entries;
+    private final int[] nextEntries;
+    private final int[] sizes;
+    private final int[] slotIds;
+    private final boolean[] left;
+    private final int[] freeSlots;
+    private final int[] ids;
+    private final int[] slots;
+    private final int mask;
+    private int numberOfSlots;
+    private int firstFreeSlot;
+    private int numberOfFreeSlots;
+    private int tick;
+
+    /**
+     * This constructor creates a new empty history.
+     * 
+     * @param capacity      Number of entries kept per car
+     * @param interval      Number of ticks between two entries
+     * @param numberOfSlots Maximum number of cars that are recorded at a time
+     */
+    public PositionHistory(int capacity, int interval, int numberOfSlots) {
+        this.capacity = capacity;
+        this.interval = interval;
+        this.entries = new int[numberOfSlots * capacity * ENTRY_SIZE];
+        this.nextEntries = new int[numberOfSlots];
+        this.sizes = new int[numberOfSlots];
+        this.slotIds = new int[numberOfSlots];
+        this.left = new boolean[numberOfSlots];
+        this.freeSlots = new int[numberOfSlots];
+        // At most half of the table is used, so every probe ends quickly
+        int tableSize = Integer.highestOneBit(Math.max(numberOfSlots, 1) * 4 - 1);
+        this.ids = new int[tableSize];
+        this.slots = new int[tableSize];
+        Arrays.fill(this.slots, NO_SLOT);
+        this.mask = tableSize - 1;
+        this.numberOfSlots = 0;
+        this.firstFreeSlot = 0;
+        this.numberOfFreeSlots = 0;
+        this.tick = 0;
+    }
+
+    /**
+     * This method returns the number of entries kept per car.
+     * 
+     * @return Number of entries kept per car
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * This method returns the number of ticks that were recorded, which is also
+     * the tick of the newest entry.
+     * 
+     * @return Number of recorded ticks
+     */
+    public int getTick() {
+        return this.tick;
+    }
+
+    @Override
+    public void tickElapsed(Network network) {
+        this.tick++;
+        if (this.tick % this.interval != 0) {
+            return;
+        }
+        List<Street> streets = network.getStreets();
+        for (int i = 0; i < streets.size(); i++) {
+            Street street = streets.get(i);
+            for (int j = 0; j < street.getNumberOfCars(); j++) {
+                this.record(street.getCar(j), street.getId());
+            }
+        }
+    }
+
+    @Override
+    public void carLeft(Car car) {
+        int slot = this.findSlot(car.getId());
+        if (slot == NO_SLOT || this.left[slot]) {
+            return;
+        }
+        // The slots are queued in the order the cars left, so the oldest entries are overwritten first
+        this.left[slot] = true;
+        this.freeSlots[(this.firstFreeSlot + this.numberOfFreeSlots) % this.freeSlots.length] = slot;
+        this.numberOfFreeSlots++;
+    }
+
+    /**
+     * This method returns the recorded entries of a car, beginning with the
+     * oldest one. Every entry consists of the tick, the ID of the street, the
+     * position and the speed of the car.
+     * 
+     * @param id              ID of the car
+     * @param numberOfEntries Maximum number of newest entries to be returned
+     * @return Entries of the car, empty if the car was not recorded
+     */
+    public int[][] getEntries(int id, int numberOfEntries) {
+        int slot = this.findSlot(id);
+        if (slot == NO_SLOT) {
+            return new int[0][];
+        }
+        int size = Math.min(this.sizes[slot], numberOfEntries);
+        int[][] result = new int[size][];
+        for (int i = 0; i < size; i++) {
+            // The newest entry is right before the next entry to be written
+            int entry = Math.floorMod(this.nextEntries[slot] - size + i, this.capacity);
+            int offset = (slot * this.capacity + entry) * ENTRY_SIZE;
+            result[i] = Arrays.copyOfRange(this.entries, offset, offset + ENTRY_SIZE);
+        }
+        return result;
+    }
+
+    private void record(Car car, int streetId) {
+        int slot = this.findSlot(car.getId());
+        if (slot != NO_SLOT && this.left[slot]) {
+            // A car with the ID of a car that left entered the network again
+            this.removeId(car.getId());
+            slot = NO_SLOT;
+        }
+        if (slot == NO_SLOT) {
+            slot = this.addSlot(car.getId());
+            if (slot == NO_SLOT) {
+                return;
+            }
+        }
+        int offset = (slot * this.capacity + this.nextEntries[slot]) * ENTRY_SIZE;
+        this.entries[offset + TICK] = this.tick;
+        this.entries[offset + STREET] = streetId;
+        this.entries[offset + POSITION] = car.getPosition();
+        this.entries[offset + SPEED] = car.getSpeed();
+        this.nextEntries[slot] = (this.nextEntries[slot] + 1) % this.capacity;
+        this.sizes[slot] = Math.min(this.sizes[slot] + 1, this.capacity);
+    }
+
+    private int findSlot(int id) {
+        int index = (id * HASH_MULTIPLIER) & this.mask;
+        while (this.slots[index] != NO_SLOT) {
+            if (this.ids[index] == id) {
+                return this.slots[index];
+            }
+            index = (index + 1) & this.mask;
+        }
+        return NO_SLOT;
+    }
+
+    private int addSlot(int id) {
+        int slot;
+        if (this.numberOfSlots < this.sizes.length) {
+            slot = this.numberOfSlots++;
+        } else if (this.numberOfFreeSlots > 0) {
+            slot = this.freeSlots[this.firstFreeSlot];
+            this.firstFreeSlot = (this.firstFreeSlot + 1) % this.freeSlots.length;
+            this.numberOfFreeSlots--;
+            // The ID may already have been given a new slot when its car entered again
+            if (this.findSlot(this.slotIds[slot]) == slot) {
+                this.removeId(this.slotIds[slot]);
+            }
+        } else {
+            return NO_SLOT;
+        }
+        this.slotIds[slot] = id;
+        this.left[slot] = false;
+        this.sizes[slot] = 0;
+        this.nextEntries[slot] = 0;
+        int index = (id * HASH_MULTIPLIER) & this.mask;
+        while (this.slots[index] != NO_SLOT) {
+            index = (index + 1) & this.mask;
+        }
+        this.ids[index] = id;
+        this.slots[index] = slot;
+        return slot;
+    }
+
+    private void removeId(int id) {
+        int index = (id * HASH_MULTIPLIER) & this.mask;
+        while (this.ids[index] != id || this.slots[index] == NO_SLOT) {
+            index = (index + 1) & this.mask;
+        }
+        // Later IDs of the same probe sequence are moved into the gap, so every probe still finds them
+        int gap = index;
+        int next = (gap + 1) & this.mask;
+        while (this.slots[next] != NO_SLOT) {
+            int home = (this.ids[next] * HASH_MULTIPLIER) & this.mask;
+            if (((next - home) & this.mask) >= ((next - gap) & this.mask)) {
+                this.ids[gap] = this.ids[next];
+                this.slots[gap] = this.slots[next];
+                gap = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        this.slots[gap] = NO_SLOT;
+    }
+
+}
@@ -0,0 +1,247 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+
+/**
+ * This class manages what is recorded while ticks elapse in the loaded network
+ * of a simulation: a bounded history of the positions of the cars in memory and
+ * a trajectory file with the states of all cars at every tick. Both are
+ * dropped or stopped when another network is loaded.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class Recordings {
+
+    private static final String ERROR_NO_NETWORK = "Please load a network first. ";
+    private static final String ERROR_NO_HISTORY = "Please start recording the history first. ";
+    private static final String ERROR_NO_HISTORY_OF_CAR = "There is no history of car %d. ";
+    private static final String ERROR_HISTORY_NOT_POSITIVE = "Number of ticks, interval and cars must be positive. ";
+    private static final String ERROR_HISTORY_TOO_LARGE = "A history of %d ticks for %d cars is too large. ";
+    private static final String ERROR_NO_TRAJECTORY = "Please record or open a trajectory first. ";
+    private static final String ERROR_INTERVAL_NOT_POSITIVE = "Keyframe interval must be positive. ";
+    private static final String ERROR_TICK_NOT_RECORDED = "Tick %d was not recorded, the last tick is %d. ";
+    private static final String ERROR_CAR_NOT_RECORDED = "Car %d was not in the network at tick %d. ";
+    private static final String ERROR_TRAJECTORY_FILE = "Trajectory file '%s' cannot be used: %s";
+    private static final long MAX_HISTORY_ENTRIES = 1L << 26;
+    private static final int MIN_HISTORY_CARS = 1024;
+
+    private Network network;
+    private PositionHistory history;
+    private TrajectoryStore trajectory;
+    private Path trajectoryPath;
+
+    /**
+     * This constructor creates new recordings without a network.
+     */
+    protected Recordings() {
+        this.network = null;
+        this.history = null;
+        this.trajectory = null;
+        this.trajectoryPath = null;
+    }
+
+    /**
+     * This method replaces the network that is recorded. The history is detached
+     * from the previous network and dropped, and the recording of a trajectory
+     * is stopped, but it can still be looked up.
+     * 
+     * @param network Newly loaded network
+     */
+    protected void setNetwork(Network network) {
+        // The previous network may be kept by a session and simulated again later
+        if (this.history != null) {
+            this.network.removeTickListener(this.history);
+            this.history = null;
+        }
+        try {
+            this.stopTrajectory();
+        } catch (ParseException parseException) {
+            // The file is incomplete, so there is nothing left to look up
+            this.trajectory = null;
+        }
+        this.network = network;
+    }
+
+    /**
+     * This method checks whether anything is recorded on every tick, in which
+     * case the ticks must elapse in this process.
+     * 
+     * @return True if anything is recorded
+     */
+    protected boolean isRecording() {
+        return this.history != null || this.trajectory != null && this.trajectory.isRecording();
+    }
+
+    /**
+     * This method starts recording the history of the positions of the cars of
+     * the loaded network. The memory of the history is allocated at once. A
+     * history that was recorded before is dropped.
+     * 
+     * @param ticks        Number of entries kept per car
+     * @param interval     Number of ticks between two entries
+     * @param numberOfCars Maximum number of cars that are recorded at a time or
+     *                     0 to record twice the current number of cars, but at
+     *                     least {@value #MIN_HISTORY_CARS}
+     * @throws ParseException if there is no network loaded or the history would
+     *                        be too large
+     */
+    public void recordHistory(int ticks, int interval, int numberOfCars) throws ParseException {
+        Network loadedNetwork = this.getNetwork();
+        int cars = numberOfCars == 0
+                ? Math.max(2 * loadedNetwork.getNumberOfCars(), MIN_HISTORY_CARS)
+                : numberOfCars;
+        if (ticks <= 0 || interval <= 0 || cars <= 0) {
+            throw new ParseException(ERROR_HISTORY_NOT_POSITIVE);
+        }
+        if ((long) ticks * cars > MAX_HISTORY_ENTRIES) {
+            throw new ParseException(ERROR_HISTORY_TOO_LARGE.formatted(ticks, cars));
+        }
+        this.stopHistory();
+        this.history = new PositionHistory(ticks, interval, cars);
+        loadedNetwork.addTickListener(this.history);
+    }
+
+    /**
+     * This method stops recording the history and drops it.
+     * 
+     * @throws ParseException if there is no network loaded
+     */
+    public void stopHistory() throws ParseException {
+        Network loadedNetwork = this.getNetwork();
+        if (this.history != null) {
+            loadedNetwork.removeTickListener(this.history);
+            this.history = null;
+        }
+    }
+
+    /**
+     * This method returns the newest recorded entries of a car, beginning with
+     * the oldest one. Every entry consists of the tick since the recording
+     * started, the ID of the street, the position and the speed of the car.
+     * 
+     * @param id    ID of the car
+     * @param ticks Maximum number of entries to be returned
+     * @return Entries of the car
+     * @throws ParseException if no history is recorded or there is no entry of
+     *                        the car
+     */
+    public int[][] getHistory(int id, int ticks) throws ParseException {
+        this.getNetwork();
+        if (this.history == null) {
+            throw new ParseException(ERROR_NO_HISTORY);
+        }
+        int[][] entries = this.history.getEntries(id, ticks);
+        if (entries.length == 0) {
+            throw new ParseException(ERROR_NO_HISTORY_OF_CAR.formatted(id));
+        }
+        return entries;
+    }
+
+    /**
+     * This method starts recording the trajectories of the cars of the loaded
+     * network to a file. The current state is recorded as tick 0. A trajectory
+     * recorded or opened before is closed.
+     * 
+     * @param path     Path of the trajectory file, an existing file is overwritten
+     * @param interval Number of ticks between two keyframes
+     * @throws ParseException if there is no network loaded, the interval is not
+     *                        positive or the file cannot be written
+     */
+    public void recordTrajectory(String path, int interval) throws ParseException {
+        Network loadedNetwork = this.getNetwork();
+        if (interval <= 0) {
+            throw new ParseException(ERROR_INTERVAL_NOT_POSITIVE);
+        }
+        this.stopTrajectory();
+        try {
+            this.trajectory = TrajectoryStore.record(Path.of(path), interval, loadedNetwork);
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_TRAJECTORY_FILE.formatted(path, ioException.getMessage()));
+        }
+        this.trajectoryPath = Path.of(path);
+        loadedNetwork.addTickListener(this.trajectory);
+    }
+
+    /**
+     * This method opens a trajectory file that was recorded before, so its ticks
+     * can be looked up. A trajectory recorded or opened before is closed. No
+     * network has to be loaded.
+     * 
+     * @param path Path of the trajectory file
+     * @throws ParseException if the file cannot be read or is no trajectory file
+     */
+    public void openTrajectory(String path) throws ParseException {
+        this.stopTrajectory();
+        try {
+            this.trajectory = TrajectoryStore.open(Path.of(path));
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_TRAJECTORY_FILE.formatted(path, ioException.getMessage()));
+        }
+        this.trajectoryPath = Path.of(path);
+    }
+
+    /**
+     * This method stops recording the trajectory and completes its file. The
+     * ticks recorded so far can still be looked up.
+     * 
+     * @throws ParseException if writing the file failed at any time during the
+     *                        recording
+     */
+    public void stopTrajectory() throws ParseException {
+        if (this.trajectory == null) {
+            return;
+        }
+        if (this.network != null) {
+            this.network.removeTickListener(this.trajectory);
+        }
+        try {
+            this.trajectory.close();
+        } catch (IOException ioException) {
+            this.trajectory = null;
+            throw new ParseException(ERROR_TRAJECTORY_FILE.formatted(this.trajectoryPath,
+                    ioException.getMessage()));
+        }
+    }
+
+    /**
+     * This method looks up the state of a car at a tick of the trajectory that
+     * is recorded or was opened.
+     * 
+     * @param id   ID of the car
+     * @param tick Tick since the recording started
+     * @return The street, position and speed of the car
+     * @throws ParseException if there is no trajectory, the tick was not recorded
+     *                        or the car was not in the network at that tick
+     */
+    public int[] getStateAt(int id, int tick) throws ParseException {
+        if (this.trajectory == null) {
+            throw new ParseException(ERROR_NO_TRAJECTORY);
+        }
+        if (tick > this.trajectory.getLastTick()) {
+            throw new ParseException(ERROR_TICK_NOT_RECORDED.formatted(tick, this.trajectory.getLastTick()));
+        }
+        int[] state;
+        try {
+            state = this.trajectory.getState(id, tick);
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_TRAJECTORY_FILE.formatted(this.trajectoryPath,
+                    ioException.getMessage()));
+        }
+        if (state == null) {
+            throw new ParseException(ERROR_CAR_NOT_RECORDED.formatted(id, tick));
+        }
+        return state;
+    }
+
+    private Network getNetwork() throws ParseException {
+        if (this.network == null) {
+            throw new ParseException(ERROR_NO_NETWORK);
+        }
+        return this.network;
+    }
+
+}
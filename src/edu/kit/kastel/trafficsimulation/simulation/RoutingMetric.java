@@ -0,0 +1,42 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This enum represents the metrics by which the shortest routes to the
+ * destinations of cars are calculated.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public enum RoutingMetric {
+
+    /**
+     * Routes with the shortest total length of their streets.
+     */
+    LENGTH {
+        @Override
+        protected double getCost(int length, int speedLimit) {
+            return length;
+        }
+    },
+
+    /**
+     * Routes with the shortest travel time if every street is passed at its speed
+     * limit.
+     */
+    TRAVEL_TIME {
+        @Override
+        protected double getCost(int length, int speedLimit) {
+            return (double) length / speedLimit;
+        }
+    };
+
+    /**
+     * This method returns the cost of passing a street.
+     * 
+     * @param length     Length of the street
+     * @param speedLimit Speed limit of the street
+     * @return Cost of passing the street
+     */
+    protected abstract double getCost(int length, int speedLimit);
+
+}
@@ -0,0 +1,341 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This class provides the next hop on the shortest route from every node of a
+ * network to a destination node. For every destination a table is computed
+ * once by a backwards search from the destination. The table stores for every
+ * node the index of the outgoing street to turn onto in a single byte, so a
+ * turning car only needs a constant time lookup. The costs of the routes are
+ * kept beside the table, so an added street only causes a new search if it
+ * shortens a route. The searches run on the
+ * compiled {@link NetworkTopology} of the network. Tables of different
+ * destinations are computed in parallel and are only computed again if the
+ * network changes.
+ * <p>
+ * The tables are only computed by {@link #computeRoutes()} before a tick, so
+ * looking up a direction while the streets are updated in parallel neither
+ * blocks nor searches. Every table has a slot, which is found by the ID of its
+ * destination in an open addressing hash table of primitive integers.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class RoutingTable {
+
+    /**
+     * This is the direction returned for nodes from which the destination cannot
+     * be reached and for the destination itself.
+     */
+    public static final int NO_DIRECTION = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_SLOT = -1;
+
+    private final NetworkTopology topology;
+    private final List<Integer> missingSlots;
+    private byte[][] tables;
+    private double[][] costs;
+    private int[] destinations;
+    private int[] hashedSlots;
+    private int numberOfTables;
+    private RoutingMetric metric;
+
+    /**
+     * This constructor creates a new routing table for the given topology. No
+     * table is computed yet.
+     * 
+     * @param topology Topology of the network
+     */
+    protected RoutingTable(NetworkTopology topology) {
+        this.topology = topology;
+        this.missingSlots = new ArrayList<>();
+        this.tables = new byte[INITIAL_CAPACITY][];
+        this.costs = new double[INITIAL_CAPACITY][];
+        this.destinations = new int[INITIAL_CAPACITY];
+        this.hashedSlots = new int[2 * INITIAL_CAPACITY];
+        this.numberOfTables = 0;
+        this.metric = RoutingMetric.LENGTH;
+    }
+
+    /**
+     * This method returns the metric by which the routes are calculated.
+     * 
+     * @return Metric by which the routes are calculated
+     */
+    public RoutingMetric getMetric() {
+        return this.metric;
+    }
+
+    /**
+     * This method changes the metric by which the routes are calculated. All
+     * tables computed so far are computed again.
+     * 
+     * @param metric Metric by which the routes should be calculated
+     */
+    protected void setMetric(RoutingMetric metric) {
+        this.metric = metric;
+        this.invalidate();
+    }
+
+    /**
+     * This method returns the number of destinations whose table has been
+     * computed or is computed by the next call of {@link #computeRoutes()}.
+     * 
+     * @return Number of tables
+     */
+    protected int getNumberOfTables() {
+        return this.numberOfTables;
+    }
+
+    /**
+     * This method returns the ID of the destination of a table.
+     * 
+     * @param slot Slot of the table between 0 and the number of tables
+     * @return ID of the destination node
+     */
+    protected int getDestination(int slot) {
+        return this.destinations[slot];
+    }
+
+    /**
+     * This method returns a table. The direction of a node is stored at its
+     * index in the topology.
+     * 
+     * @param slot Slot of the table between 0 and the number of tables
+     * @return Table that must not be modified
+     */
+    protected byte[] getTable(int slot) {
+        return this.tables[slot];
+    }
+
+    /**
+     * This method stores a table that was computed elsewhere, for example on
+     * the whole network a partition of this network was cut from.
+     * 
+     * @param destination ID of the destination node
+     * @param table       Direction of every node to the destination
+     */
+    protected void putTable(int destination, byte[] table) {
+        int slot = this.findSlot(destination);
+        if (slot == NO_SLOT) {
+            slot = this.addSlot(destination);
+        }
+        this.tables[slot] = table;
+        // Without the costs the table is computed again after any change
+        this.costs[slot] = null;
+    }
+
+    /**
+     * This method remembers the destination of a car that was added to the
+     * network, such that its table is computed by the next call of
+     * {@link #computeRoutes()}.
+     * 
+     * @param destination ID of the destination node or
+     *                    {@value Car#NO_DESTINATION}
+     */
+    protected void addDestination(int destination) {
+        if (destination != Car.NO_DESTINATION && this.findSlot(destination) == NO_SLOT) {
+            this.missingSlots.add(this.addSlot(destination));
+        }
+    }
+
+    /**
+     * This method computes the tables for the destinations of the given cars that
+     * have not been computed yet.
+     * 
+     * @param cars Cars whose destinations are needed
+     */
+    protected void computeRoutes(Collection<Car> cars) {
+        for (Car car : cars) {
+            this.addDestination(car.getDestination());
+        }
+        this.computeRoutes();
+    }
+
+    /**
+     * This method computes the tables for all destinations that were added since
+     * the last call.
+     */
+    protected void computeRoutes() {
+        if (!this.missingSlots.isEmpty()) {
+            this.compute(this.missingSlots);
+            this.missingSlots.clear();
+        }
+    }
+
+    /**
+     * This method returns the direction a car at the given node has to turn to
+     * follow the shortest route to its destination. The direction is the index of
+     * the outgoing street at the node.
+     * 
+     * @param node        Index of the node in the topology at which the car
+     *                    turns
+     * @param destination ID of the destination node of the car
+     * @return Direction to turn or {@value #NO_DIRECTION} if the node is the
+     *         destination, the destination cannot be reached or its table has
+     *         not been computed
+     */
+    protected int getDirection(int node, int destination) {
+        int slot = this.findSlot(destination);
+        byte[] table = slot == NO_SLOT ? null : this.tables[slot];
+        return table == null ? NO_DIRECTION : table[node];
+    }
+
+    /**
+     * This method updates the tables after an outgoing street of a node was
+     * removed. Only tables whose route leads over the removed street are computed
+     * again, in all other tables the directions behind the removed street are
+     * shifted.
+     * 
+     * @param node      Index of the node in the topology whose outgoing street
+     *                  was removed
+     * @param direction Index the removed street had at the node
+     */
+    protected void removeDirection(int node, int direction) {
+        List<Integer> affectedSlots = new ArrayList<>();
+        for (int slot = 0; slot < this.numberOfTables; slot++) {
+            byte[] table = this.tables[slot];
+            if (table == null) {
+                continue;
+            }
+            if (table[node] == direction) {
+                affectedSlots.add(slot);
+            } else if (table[node] > direction) {
+                table[node]--;
+            }
+        }
+        this.compute(affectedSlots);
+    }
+
+    /**
+     * This method updates the tables after a street was added. The street is
+     * the last outgoing street of its start node, so it only changes the routes
+     * of a table if it is cheaper to drive over it than the route from its start
+     * node so far. Only these tables are computed again.
+     * 
+     * @param street Index of the added street in the topology
+     */
+    protected void addStreet(int street) {
+        int startIndex = this.topology.getStartNode(street);
+        int endIndex = this.topology.getEndNode(street);
+        double cost = this.metric.getCost(this.topology.getLength(street), this.topology.getSpeedLimit(street));
+        List<Integer> affectedSlots = new ArrayList<>();
+        for (int slot = 0; slot < this.numberOfTables; slot++) {
+            double[] costs = this.costs[slot];
+            if (this.tables[slot] != null && (costs == null || costs[endIndex] + cost < costs[startIndex])) {
+                affectedSlots.add(slot);
+            }
+        }
+        this.compute(affectedSlots);
+    }
+
+    /**
+     * This method computes all tables computed so far again. It has to be called
+     * after the metric changed.
+     */
+    protected void invalidate() {
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < this.numberOfTables; slot++) {
+            slots.add(slot);
+        }
+        this.compute(slots);
+        this.missingSlots.clear();
+    }
+
+    private void compute(Collection<Integer> slots) {
+        // The tables are independent of each other
+        slots.parallelStream().forEach(this::computeTable);
+    }
+
+    private int findSlot(int destination) {
+        int mask = this.hashedSlots.length - 1;
+        for (int i = hash(destination) & mask;; i = (i + 1) & mask) {
+            int slot = this.hashedSlots[i] - 1;
+            if (slot == NO_SLOT || this.destinations[slot] == destination) {
+                return slot;
+            }
+        }
+    }
+
+    private int addSlot(int destination) {
+        int slot = this.numberOfTables;
+        if (slot == this.destinations.length) {
+            this.tables = Arrays.copyOf(this.tables, 2 * slot);
+            this.costs = Arrays.copyOf(this.costs, 2 * slot);
+            this.destinations = Arrays.copyOf(this.destinations, 2 * slot);
+            // The hash table stays at most half full
+            this.hashedSlots = new int[4 * slot];
+            for (int i = 0; i < slot; i++) {
+                this.insert(i);
+            }
+        }
+        this.destinations[slot] = destination;
+        this.numberOfTables++;
+        this.insert(slot);
+        return slot;
+    }
+
+    private void insert(int slot) {
+        int mask = this.hashedSlots.length - 1;
+        int i = hash(this.destinations[slot]) & mask;
+        while (this.hashedSlots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        // Zero marks an empty entry
+        this.hashedSlots[i] = slot + 1;
+    }
+
+    private static int hash(int destination) {
+        int hash = destination * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void computeTable(int slot) {
+        NetworkTopology topology = this.topology;
+        byte[] table = new byte[topology.getNumberOfNodes()];
+        Arrays.fill(table, (byte) NO_DIRECTION);
+        double[] costs = new double[topology.getNumberOfNodes()];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        this.tables[slot] = table;
+        this.costs[slot] = costs;
+        int destinationIndex = topology.getNodeIndex(this.destinations[slot]);
+        if (destinationIndex < 0) {
+            return;
+        }
+        costs[destinationIndex] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((first, second) -> Double.compare(first[0], second[0]));
+        queue.add(new double[] {0, destinationIndex});
+
+        // Dijkstra on the reversed streets, starting at the destination
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int index = (int) entry[1];
+            if (entry[0] > costs[index]) {
+                continue;
+            }
+            for (int i = topology.getIncomingBegin(index); i < topology.getIncomingEnd(index); i++) {
+                int street = topology.getIncomingStreet(i);
+                int direction = topology.getDirection(street);
+                // Closed streets are no outgoing streets anymore
+                if (direction == NetworkTopology.NO_DIRECTION) {
+                    continue;
+                }
+                int startIndex = topology.getStartNode(street);
+                double cost = costs[index] + this.metric.getCost(topology.getLength(street),
+                        topology.getSpeedLimit(street));
+                if (cost < costs[startIndex] || cost == costs[startIndex] && direction < table[startIndex]) {
+                    costs[startIndex] = cost;
+                    table[startIndex] = (byte) direction;
+                    queue.add(new double[] {cost, startIndex});
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This class updates the streets of a network one after the other in order of
+ * their ID. A car that turns onto a street that is updated later in the same
+ * tick is not moved again. Frozen streets are skipped, since none of their cars
+ * could move. This is the reference engine, all other engines are compared
+ * with it.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class SequentialEngine implements SimulationEngine {
+
+    private final Network network;
+
+    /**
+     * This constructor creates a new sequential engine for a network.
+     * 
+     * @param network Network to be updated
+     */
+    protected SequentialEngine(Network network) {
+        this.network = network;
+    }
+
+    @Override
+    public void updateStreets() {
+        for (Car car : this.network.getCars()) {
+            car.setHasBeenUpdated(false);
+        }
+
+        for (Street street : this.network.getStreets()) {
+            if (!street.isFrozen()) {
+                street.update();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+import edu.kit.kastel.trafficsimulation.io.DemandReader;
+import edu.kit.kastel.trafficsimulation.io.NetworkParser;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+
+/**
+ * This class represents a network loaded into a simulation together with the
+ * path it was loaded from, its files and its demand. A session that is not in
+ * use can be spilled: its network is written to a temporary store file with
+ * {@link NetworkStore} and dropped from the heap. It is read from that file
+ * again when the session is used the next time, which is faster than parsing
+ * the configuration files.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class Session {
+
+    private static final String ERROR_PATH_NOT_VALID = "Path '%s' is not valid. ";
+    private static final String ERROR_CANNOT_SPILL = "Session %s could not be spilled to disk. ";
+    private static final String ERROR_CANNOT_RESTORE = "Session %s could not be restored from disk. ";
+    private static final String SPILL_PREFIX = "session-";
+    private static final String SPILL_SUFFIX = ".store";
+
+    private final String name;
+    private final String path;
+    private final SimulationFileLoader fileLoader;
+    private Network network;
+    private CarDemand demand;
+    private Path spillFile;
+    private long estimatedBytes;
+
+    private Session(String name, String path, SimulationFileLoader fileLoader, Network network,
+            CarDemand demand) {
+        this.name = name;
+        this.path = path;
+        this.fileLoader = fileLoader;
+        this.network = network;
+        this.demand = demand;
+        this.spillFile = null;
+        this.estimatedBytes = 0;
+    }
+
+    /**
+     * This method loads a network into a new session. If the folder contains a
+     * demand file, its trips are read while the ticks elapse. If the path is a
+     * file instead of a folder, the network is restored from a store file
+     * written by {@link Simulation#save(String)}.
+     * 
+     * @param name   Name of the session or null if it has no name
+     * @param path   Path to the files that contain network information
+     * @param metric Metric by which the routes of a network loaded from a folder
+     *               are calculated
+     * @return The new session
+     * @throws ParseException       if the information in the files could not be
+     *                              interpreted correctly
+     * @throws FailedBuildException if the network described by the given files
+     *                              resulted in an invalid network
+     */
+    protected static Session open(String name, String path, RoutingMetric metric)
+            throws ParseException, FailedBuildException {
+        try {
+            if (Files.isRegularFile(Path.of(path))) {
+                Network restoredNetwork = NetworkStore.load(Path.of(path));
+                return new Session(name, path, null, restoredNetwork, createRestoredDemand(restoredNetwork));
+            }
+            SimulationFileLoader simulationFileLoader = new SimulationFileLoader(path);
+            Network loadedNetwork;
+            try (BufferedReader nodes = simulationFileLoader.openCrossings();
+                    BufferedReader streets = simulationFileLoader.openStreets();
+                    BufferedReader cars = simulationFileLoader.openCars()) {
+                loadedNetwork = new NetworkParser().parse(nodes, streets, cars);
+            }
+            loadedNetwork.setRoutingMetric(metric);
+            BufferedReader demandReader = simulationFileLoader.openDemand();
+            return new Session(name, path, simulationFileLoader, loadedNetwork,
+                    demandReader == null ? null : new CarDemand(new DemandReader(demandReader)));
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_PATH_NOT_VALID.formatted(path));
+        }
+    }
+
+    private static CarDemand createRestoredDemand(Network network) {
+        // Cars of trips still leave the network at their destination, but no trips follow
+        return network.hasLeavingCars()
+                ? new CarDemand(new DemandReader(new BufferedReader(new StringReader(""))))
+                : null;
+    }
+
+    /**
+     * This method returns the name of this session.
+     * 
+     * @return Name of this session or null if it has no name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * This method returns the path the network of this session was loaded from.
+     * 
+     * @return Path the network was loaded from
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * This method returns the loader of the configuration files of this session.
+     * 
+     * @return Loader of the configuration files or null if the network was
+     *         restored from a store file
+     */
+    protected SimulationFileLoader getFileLoader() {
+        return this.fileLoader;
+    }
+
+    /**
+     * This method returns the network of this session. It must not be called
+     * while this session is spilled.
+     * 
+     * @return Network of this session
+     */
+    protected Network getNetwork() {
+        return this.network;
+    }
+
+    /**
+     * This method returns the demand of the network of this session.
+     * 
+     * @return Demand of the network or null if no cars enter or leave it
+     */
+    protected CarDemand getDemand() {
+        return this.demand;
+    }
+
+    /**
+     * This method checks whether the network of this session is only stored in
+     * its spill file.
+     * 
+     * @return True if this session is spilled
+     */
+    public boolean isSpilled() {
+        return this.network == null;
+    }
+
+    /**
+     * This method returns the memory retained by the network of this session, as
+     * estimated by {@link MemoryReport} when it was last measured.
+     * 
+     * @return Estimated number of bytes
+     */
+    public long getEstimatedBytes() {
+        return this.estimatedBytes;
+    }
+
+    /**
+     * This method estimates the memory retained by the network of this session
+     * again. It must not be called while this session is spilled.
+     */
+    protected void measure() {
+        this.estimatedBytes = new MemoryReport(this.network, 0).getTotalBytes();
+    }
+
+    /**
+     * This method checks whether this session can be spilled. The store file
+     * does not contain the demand, so a session whose trips are still read from
+     * a demand file stays on the heap.
+     * 
+     * @return True if this session can be spilled
+     */
+    protected boolean canSpill() {
+        return !this.isSpilled() && (this.demand == null || this.fileLoader == null);
+    }
+
+    /**
+     * This method writes the network of this session to a temporary spill file
+     * and drops it from the heap.
+     * 
+     * @throws ParseException if the spill file could not be written
+     */
+    protected void spill() throws ParseException {
+        try {
+            this.spillFile = Files.createTempFile(SPILL_PREFIX, SPILL_SUFFIX);
+            NetworkStore.save(this.spillFile, this.network);
+        } catch (IOException ioException) {
+            this.deleteSpillFile();
+            throw new ParseException(ERROR_CANNOT_SPILL.formatted(this.name));
+        }
+        if (this.demand != null) {
+            this.demand.close();
+            this.demand = null;
+        }
+        this.network = null;
+    }
+
+    /**
+     * This method reads the network of this session from its spill file again,
+     * if it was spilled, and deletes the file.
+     * 
+     * @throws ParseException       if the spill file could not be read
+     * @throws FailedBuildException if the spill file resulted in an invalid
+     *                              network
+     */
+    protected void restore() throws ParseException, FailedBuildException {
+        if (!this.isSpilled()) {
+            return;
+        }
+        try {
+            this.network = NetworkStore.load(this.spillFile);
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_CANNOT_RESTORE.formatted(this.name));
+        }
+        this.demand = createRestoredDemand(this.network);
+        this.deleteSpillFile();
+    }
+
+    /**
+     * This method stops watching the configuration files of this session.
+     */
+    protected void stopWatching() {
+        if (this.fileLoader != null) {
+            this.fileLoader.stopWatching();
+        }
+    }
+
+    /**
+     * This method ends this session. Its files are no longer watched, its demand
+     * file is closed and its spill file is deleted.
+     */
+    protected void close() {
+        this.stopWatching();
+        if (this.demand != null) {
+            this.demand.close();
+        }
+        this.deleteSpillFile();
+    }
+
+    private void deleteSpillFile() {
+        if (this.spillFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(this.spillFile);
+        } catch (IOException ioException) {
+            // A spill file left behind in the temporary folder does no harm
+            this.spillFile.toFile().deleteOnExit();
+        }
+        this.spillFile = null;
+    }
+
+}
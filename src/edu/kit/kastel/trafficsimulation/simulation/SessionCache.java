@@ -0,0 +1,177 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
+import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
+
+/**
+ * This class keeps the named sessions of a simulation, so a network can be
+ * used again without loading it. The sessions are kept in the order they were
+ * last used. Whenever the memory estimated for all networks on the heap
+ * exceeds the budget, the least recently used sessions are spilled to disk
+ * until it does not anymore. The session in use is never spilled.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public final class SessionCache {
+
+    private static final int DEFAULT_BUDGET_DIVISOR = 2;
+    private static final String ERROR_SESSION_NOT_EXIST = "Session %s does not exist. ";
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, Session> sessions;
+    private Session active;
+    private long budget;
+
+    /**
+     * This constructor creates a new empty session cache whose budget is a
+     * share of the maximum heap size.
+     */
+    protected SessionCache() {
+        // Iterating over a map in access order visits the least recently used session first
+        this.sessions = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        this.active = null;
+        this.budget = Runtime.getRuntime().maxMemory() / DEFAULT_BUDGET_DIVISOR;
+    }
+
+    /**
+     * This method returns the number of bytes the networks on the heap may
+     * retain before sessions are spilled.
+     * 
+     * @return Budget in bytes
+     */
+    public long getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * This method sets the number of bytes the networks on the heap may retain
+     * before sessions are spilled. Sessions are spilled at once if the
+     * networks on the heap exceed the new budget.
+     * 
+     * @param budget Budget in bytes
+     * @throws ParseException if a session could not be spilled
+     */
+    public void setBudget(long budget) throws ParseException {
+        this.budget = budget;
+        if (this.active != null) {
+            this.evict();
+        }
+    }
+
+    /**
+     * This method returns the sessions from the least to the most recently used
+     * one.
+     * 
+     * @return Sessions in the order they were used
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(this.sessions.values());
+    }
+
+    /**
+     * This method checks whether a session is kept by this cache.
+     * 
+     * @param session Session to be checked
+     * @return True if the session is kept by this cache
+     */
+    protected boolean contains(Session session) {
+        // Looking the session up by its name would count as using it
+        return this.sessions.containsValue(session);
+    }
+
+    /**
+     * This method adds a session as the most recently used one. A session with
+     * the same name is ended.
+     * 
+     * @param session Session with a name
+     */
+    protected void put(Session session) {
+        Session previous = this.sessions.put(session.getName(), session);
+        if (previous != null && previous != session) {
+            previous.close();
+        }
+    }
+
+    /**
+     * This method returns a session, which becomes the most recently used one.
+     * If it was spilled, its network is restored first.
+     * 
+     * @param name Name of the session
+     * @return Session with the given name
+     * @throws ParseException       if there is no such session or it could not
+     *                              be restored
+     * @throws FailedBuildException if the network restored from disk is invalid
+     */
+    protected Session get(String name) throws ParseException, FailedBuildException {
+        Session session = this.sessions.get(name);
+        if (session == null) {
+            throw new ParseException(ERROR_SESSION_NOT_EXIST.formatted(name));
+        }
+        session.restore();
+        return session;
+    }
+
+    /**
+     * This method checks whether a session is the one in use.
+     * 
+     * @param session Session to be checked
+     * @return True if the session is in use
+     */
+    public boolean isActive(Session session) {
+        return session == this.active;
+    }
+
+    /**
+     * This method sets the session in use, which may have no name. Then the
+     * least recently used sessions are spilled until the memory estimated for
+     * all networks on the heap is within the budget. The session in use counts
+     * towards the budget, but is never spilled.
+     * 
+     * @param session Session in use
+     * @throws ParseException if a session could not be spilled, it then stays
+     *                        on the heap
+     */
+    protected void activate(Session session) throws ParseException {
+        this.active = session;
+        this.evict();
+    }
+
+    private void evict() throws ParseException {
+        this.active.measure();
+        long bytes = this.active.getEstimatedBytes();
+        for (Session session : this.sessions.values()) {
+            if (session != this.active && !session.isSpilled()) {
+                session.measure();
+                bytes += session.getEstimatedBytes();
+            }
+        }
+        for (Session session : this.sessions.values()) {
+            if (bytes <= this.budget) {
+                return;
+            }
+            if (session != this.active && session.canSpill()) {
+                session.spill();
+                bytes -= session.getEstimatedBytes();
+            }
+        }
+    }
+
+    /**
+     * This method ends all sessions of this cache.
+     */
+    protected void close() {
+        for (Session session : this.sessions.values()) {
+            session.close();
+        }
+        this.sessions.clear();
+        this.active = null;
+    }
+
+}
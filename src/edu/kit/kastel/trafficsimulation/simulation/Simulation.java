@@ -1,11 +1,17 @@
 package edu.kit.kastel.trafficsimulation.simulation;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 
+import edu.kit.kastel.trafficsimulation.distributed.Coordinator;
+import edu.kit.kastel.trafficsimulation.exceptions.DistributionException;
 import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
 import edu.kit.kastel.trafficsimulation.exceptions.ParseException;
 import edu.kit.kastel.trafficsimulation.io.NetworkParser;
+import edu.kit.kastel.trafficsimulation.io.QueryServer;
 import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
 
 /**
@@ -20,36 +26,198 @@ public class Simulation {
 
     private static final String ERROR_NO_NETWORK = "Please load a network first. ";
     private static final String ERROR_PATH_NOT_VALID = "Path '%s' is not valid. ";
+    private static final String ERROR_PATH_NOT_WATCHABLE = "Path '%s' cannot be watched. ";
+    private static final String ERROR_CANNOT_SERVE = "Cannot serve on port %d: %s";
+    private static final String MESSAGE_RELOADED_NETWORK = "Reloaded network from %s";
+    private static final String MESSAGE_RELOADED_CARS = "Reloaded cars from %s";
 
-    private Network network;
+    private Session session;
+    private final SessionCache sessions;
+    private Coordinator coordinator;
+    private boolean watching;
+    private final Recordings recordings;
+    private final SnapshotPublisher snapshots;
+    private final BackgroundSimulation background;
+    private QueryServer server;
+    private RoutingMetric routingMetric;
 
     /**
-     * This constructor creates a new simulation. There is no network loaded yet.
+     * This constructor creates a new simulation. There is no network loaded yet
+     * and ticks are simulated in this process.
      */
     public Simulation() {
-        this.network = null;
+        this.session = null;
+        this.sessions = new SessionCache();
+        this.coordinator = null;
+        this.watching = false;
+        this.recordings = new Recordings();
+        this.snapshots = new SnapshotPublisher();
+        this.background = new BackgroundSimulation();
+        this.server = null;
+        this.routingMetric = RoutingMetric.LENGTH;
     }
 
     /**
-     * This method loads a new network from a file to this simulation.
+     * This method loads a new network from a file to this simulation. If the
+     * folder contains a demand file, its trips are read while the ticks elapse.
+     * If the files of the previous network were watched, the files of the new
+     * network are watched instead. The history of the previous network is
+     * dropped and its trajectory is no longer recorded. If the path is a file instead of a folder, the
+     * network is restored from a store file written by {@link #save(String)}.
+     * <p>
+     * A network loaded with a name is kept as a session that can be used again
+     * with {@link #use(String)} after another network was loaded. A network
+     * without a name is dropped once another network is loaded or used.
      * 
      * @param path Path to a files that contain network information
+     * @param name Name of the session, which replaces a session with the same
+     *             name, or null if the network should not be kept
      * @throws ParseException       if the information in the files could not be
-     *                              interpreted correctly
+     *                              interpreted correctly or ticks elapse in the
+     *                              background
      * @throws FailedBuildException if the network described by the given files
      *                              resulted in an invalid network
      */
-    public void load(String path) throws ParseException, FailedBuildException {
+    public void load(String path, String name) throws ParseException, FailedBuildException {
+        this.background.checkIdle();
+        Session loadedSession = Session.open(name, path, this.routingMetric);
+        if (name != null) {
+            this.sessions.put(loadedSession);
+        }
+        this.activate(loadedSession);
+    }
+
+    /**
+     * This method continues with the network of a session that was loaded with
+     * a name. A session that was spilled to disk is restored first. The network
+     * used before is kept only if it has a name.
+     * 
+     * @param name Name of the session
+     * @throws ParseException       if there is no such session, it could not be
+     *                              restored or ticks elapse in the background
+     * @throws FailedBuildException if the restored network is invalid
+     */
+    public void use(String name) throws ParseException, FailedBuildException {
+        this.background.checkIdle();
+        this.activate(this.sessions.get(name));
+    }
+
+    /**
+     * This method returns the named sessions of this simulation.
+     * 
+     * @return Sessions of this simulation
+     */
+    public SessionCache getSessions() {
+        return this.sessions;
+    }
+
+    /**
+     * This method writes the topology and the state of the loaded network to a
+     * store file, so it can be loaded again later. The demand of the network is
+     * not stored.
+     * 
+     * @param path Path of the store file, an existing file is overwritten
+     * @throws ParseException if there is no network loaded or the file cannot be
+     *                        written
+     */
+    public void save(String path) throws ParseException {
+        Network loadedNetwork = this.getLoadedNetwork();
+        try {
+            NetworkStore.save(Path.of(path), loadedNetwork);
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_PATH_NOT_VALID.formatted(path));
+        }
+    }
+
+    private void activate(Session next) throws ParseException {
+        if (next == this.session) {
+            return;
+        }
+        if (this.session != null) {
+            this.session.stopWatching();
+            if (!this.sessions.contains(this.session)) {
+                this.session.close();
+            }
+        }
+        this.session = next;
+        Network network = next.getNetwork();
+        network.setDemand(next.getDemand());
+        this.recordings.setNetwork(network);
+        this.snapshots.setNetwork(network);
+        this.background.setNetwork(network, next.getDemand());
+        this.routingMetric = network.getRoutingMetric();
+        if (next.getFileLoader() == null) {
+            this.watching = false;
+        } else if (this.watching) {
+            try {
+                next.getFileLoader().startWatching();
+            } catch (IOException ioException) {
+                throw new ParseException(ERROR_PATH_NOT_VALID.formatted(next.getPath()));
+            }
+        }
+        this.sessions.activate(next);
+    }
+
+    /**
+     * This method enables or disables watching the files of the loaded network.
+     * While the files are watched, {@link #reloadChangedFiles()} applies changes
+     * of the files to the network.
+     * 
+     * @param enabled True if the files should be watched
+     * @throws ParseException if there is no network loaded, it was restored from
+     *                        a store file or the files cannot be watched
+     */
+    public void watch(boolean enabled) throws ParseException {
+        this.getLoadedNetwork();
+        SimulationFileLoader fileLoader = this.session.getFileLoader();
+        if (fileLoader == null) {
+            throw new ParseException(ERROR_PATH_NOT_WATCHABLE.formatted(this.session.getPath()));
+        }
+        if (!enabled) {
+            fileLoader.stopWatching();
+        } else {
+            try {
+                fileLoader.startWatching();
+            } catch (IOException ioException) {
+                throw new ParseException(ERROR_PATH_NOT_WATCHABLE.formatted(this.session.getPath()));
+            }
+        }
+        this.watching = enabled;
+    }
+
+    /**
+     * This method applies changes of the watched files to the network. If only
+     * the car file changed, the nodes and streets of the network are kept and only
+     * the cars are placed again, otherwise the whole network and its demand are
+     * loaded again. If
+     * the files are invalid, the network stays unchanged.
+     * 
+     * @return A message describing what was reloaded, or null if no file changed
+     */
+    public String reloadChangedFiles() {
+        if (!this.watching) {
+            return null;
+        }
+        Set<String> changedFiles = this.session.getFileLoader().pollChangedFiles();
+        if (changedFiles.isEmpty()) {
+            return null;
+        }
+        String path = this.session.getPath();
         try {
-            SimulationFileLoader simulationFileLoader = new SimulationFileLoader(path);
-            List<String> stringsNodes = simulationFileLoader.loadCrossings();
-            List<String> stringsStreets = simulationFileLoader.loadStreets();
-            List<String> stringsCars = simulationFileLoader.loadCars();
-            NetworkParser parser = new NetworkParser();
-            this.network = parser.parse(stringsNodes, stringsStreets, stringsCars);
+            if (changedFiles.contains(SimulationFileLoader.FILENAME_CROSSINGS)
+                    || changedFiles.contains(SimulationFileLoader.FILENAME_STREETS)
+                    || changedFiles.contains(SimulationFileLoader.FILENAME_DEMAND)) {
+                this.load(path, this.session.getName());
+                return MESSAGE_RELOADED_NETWORK.formatted(path);
+            }
+            try (BufferedReader cars = this.session.getFileLoader().openCars()) {
+                new NetworkParser().replaceCars(this.session.getNetwork(), cars);
+            }
+            return MESSAGE_RELOADED_CARS.formatted(path);
+        } catch (ParseException | FailedBuildException exception) {
+            return exception.getMessage();
         } catch (IOException ioException) {
-            String message = ERROR_PATH_NOT_VALID.formatted(path);
-            throw new ParseException(message);
+            return new ParseException(ERROR_PATH_NOT_VALID.formatted(path)).getMessage();
         }
     }
 
@@ -62,23 +230,270 @@ public class Simulation {
      *                        the specified ID.
      */
     public Car getCar(int id) throws ParseException {
-        if (this.network == null) {
-            throw new ParseException(ERROR_NO_NETWORK);
+        return this.getLoadedNetwork().getCar(id);
+    }
+
+    /**
+     * This method starts serving snapshots of the loaded network over HTTP on
+     * the local machine. A server started before is stopped. While snapshots are
+     * served, ticks elapse in this process.
+     * 
+     * @param port Port to listen on or 0 to choose a free port
+     * @return Port the server listens on
+     * @throws ParseException if the server cannot listen on the port
+     */
+    public int serve(int port) throws ParseException {
+        this.stopServing();
+        try {
+            this.server = new QueryServer(port, this.snapshots);
+        } catch (IOException ioException) {
+            throw new ParseException(ERROR_CANNOT_SERVE.formatted(port, ioException.getMessage()));
         }
-        return this.network.getCar(id);
+        this.snapshots.start();
+        return this.server.getPort();
     }
 
     /**
-     * this method lets a number of ticks elapse in the network.
+     * This method stops serving snapshots of the loaded network.
+     */
+    public void stopServing() {
+        if (this.server != null) {
+            this.server.close();
+            this.server = null;
+        }
+        this.snapshots.stop();
+    }
+
+    /**
+     * This method publishes the current state of the loaded network to the
+     * readers of its snapshots, if snapshots are served. It should be called after
+     * every command.
+     */
+    public void publishSnapshot() {
+        this.snapshots.publish();
+    }
+
+    /**
+     * This method ends this simulation. Ticks that elapse in the background are
+     * cancelled, the recording of a trajectory is completed, no more snapshots
+     * are served, the demand file is closed and the worker processes terminate.
      * 
-     * @param ticks Number of ticks to elapse in the network
+     * @throws ParseException if writing the trajectory failed
+     */
+    public void close() throws ParseException {
+        this.background.close();
+        this.stopServing();
+        if (this.session != null) {
+            this.session.close();
+        }
+        this.sessions.close();
+        if (this.coordinator != null) {
+            this.coordinator.close();
+        }
+        this.recordings.stopTrajectory();
+    }
+
+    /**
+     * This method returns what is recorded while ticks elapse in the loaded
+     * network.
+     * 
+     * @return Recordings of this simulation
+     */
+    public Recordings getRecordings() {
+        return this.recordings;
+    }
+
+    /**
+     * This method returns the engine thread on which ticks can elapse in the
+     * background while commands are executed.
+     * 
+     * @return Background simulation of this simulation
+     */
+    public BackgroundSimulation getBackground() {
+        return this.background;
+    }
+
+    /**
+     * This method estimates the memory retained by the loaded network.
+     * 
+     * @param numberOfLargestStreets Number of streets with the most cars to be
+     *                               listed
+     * @return Estimate of the memory retained by the loaded network
      * @throws ParseException if there is no network loaded
      */
-    public void simulate(int ticks) throws ParseException {
-        if (this.network == null) {
+    public MemoryReport getMemoryReport(int numberOfLargestStreets) throws ParseException {
+        return new MemoryReport(this.getLoadedNetwork(), numberOfLargestStreets);
+    }
+
+    /**
+     * This method detects the gridlocks of the loaded network in its current
+     * state.
+     * 
+     * @return Gridlocks ordered by the lowest ID of their streets
+     * @throws ParseException if there is no network loaded
+     */
+    public List<Gridlock> getGridlocks() throws ParseException {
+        return this.getLoadedNetwork().findGridlocks();
+    }
+
+    /**
+     * this method lets a number of ticks elapse in the network. If the simulation
+     * is distributed, the ticks are simulated by the worker processes. A network
+     * with a demand is always simulated in this process, since cars enter it
+     * before every tick, and so is a network whose history or trajectory is
+     * recorded or whose snapshots are served.
+     * 
+     * @param ticks Number of ticks to elapse in the network
+     * @throws ParseException        if there is no network loaded, ticks elapse
+     *                               in the background or a trip of the demand
+     *                               could not be read
+     * @throws FailedBuildException  if the car of a trip could not be placed, the
+     *                               ticks stop at that trip and the remaining
+     *                               trips are dropped
+     * @throws DistributionException if a worker process failed, the simulation
+     *                               is then no longer distributed and the network
+     *                               is left unchanged
+     */
+    public void simulate(int ticks) throws ParseException, FailedBuildException, DistributionException {
+        Network network = this.getLoadedNetwork();
+        this.background.checkIdle();
+        CarDemand demand = this.session.getDemand();
+        if (this.coordinator == null || demand != null || this.recordings.isRecording()
+                || this.snapshots.isActive()) {
+            network.simulate(ticks);
+            if (demand != null) {
+                demand.throwError();
+            }
+            return;
+        }
+        try {
+            this.coordinator.simulate(network, ticks);
+        } catch (DistributionException distributionException) {
+            this.coordinator = null;
+            throw distributionException;
+        }
+    }
+
+    /**
+     * This method puts a new car on a street of the loaded network.
+     * 
+     * @param id              Car ID
+     * @param streetId        ID of the street on which the car should be placed
+     * @param desiredVelocity Desired velocity of the car
+     * @param acceleration    Acceleration of the car
+     * @param destination     ID of the node the car should drive to or
+     *                        {@value Car#NO_DESTINATION}
+     * @throws ParseException       if there is no network loaded
+     * @throws FailedBuildException if the car would lead to an invalid network
+     */
+    public void addCar(int id, int streetId, int desiredVelocity, int acceleration, int destination)
+            throws ParseException, FailedBuildException {
+        NetworkEditor editor = new NetworkEditor(this.getLoadedNetwork());
+        editor.addCar(id, streetId, desiredVelocity, acceleration, destination);
+    }
+
+    /**
+     * This method removes a car from the loaded network.
+     * 
+     * @param id ID of the car to be removed
+     * @throws ParseException if there is no network loaded or there is no car with
+     *                        the specified ID
+     */
+    public void removeCar(int id) throws ParseException {
+        new NetworkEditor(this.getLoadedNetwork()).removeCar(id);
+    }
+
+    /**
+     * This method adds a new street to the loaded network.
+     * 
+     * @param startNodeId   Start node ID
+     * @param endNodeId     End node ID
+     * @param length        Length of the street in meters
+     * @param numberOfLanes Number of lanes
+     * @param speedLimit    Speed limit
+     * @return ID of the new street
+     * @throws ParseException       if there is no network loaded
+     * @throws FailedBuildException if the street would lead to an invalid network
+     */
+    public int addStreet(int startNodeId, int endNodeId, int length, int numberOfLanes, int speedLimit)
+            throws ParseException, FailedBuildException {
+        NetworkEditor editor = new NetworkEditor(this.getLoadedNetwork());
+        return editor.addStreet(startNodeId, endNodeId, length, numberOfLanes, speedLimit);
+    }
+
+    /**
+     * This method closes a street of the loaded network.
+     * 
+     * @param id ID of the street to be closed
+     * @throws ParseException       if there is no network loaded
+     * @throws FailedBuildException if the street cannot be closed
+     */
+    public void closeStreet(int id) throws ParseException, FailedBuildException {
+        new NetworkEditor(this.getLoadedNetwork()).closeStreet(id);
+    }
+
+    /**
+     * This method changes the green phase duration of an intersection of the
+     * loaded network.
+     * 
+     * @param nodeId   ID of the intersection
+     * @param duration New green phase duration
+     * @throws ParseException       if there is no network loaded
+     * @throws FailedBuildException if the green phase duration cannot be changed
+     */
+    public void setPhase(int nodeId, int duration) throws ParseException, FailedBuildException {
+        new NetworkEditor(this.getLoadedNetwork()).setPhase(nodeId, duration);
+    }
+
+    /**
+     * This method sets whether the streets of the loaded network are updated at
+     * the same time by a {@link SynchronousEngine} or one after the other.
+     * Loading another network updates its streets one after the other again.
+     * 
+     * @param engineMode Way in which the streets should be updated
+     * @throws ParseException       if there is no network loaded
+     * @throws FailedBuildException if a street has more lanes than the engine
+     *                              of the mode supports
+     */
+    public void setEngineMode(EngineMode engineMode) throws ParseException, FailedBuildException {
+        this.getLoadedNetwork().setEngineMode(engineMode);
+    }
+
+    /**
+     * This method changes the metric by which the routes of cars with a
+     * destination are calculated. The metric is kept when another network is
+     * loaded.
+     * 
+     * @param metric Metric by which the routes should be calculated
+     */
+    public void setRoutingMetric(RoutingMetric metric) {
+        this.routingMetric = metric;
+        if (this.session != null) {
+            this.session.getNetwork().setRoutingMetric(metric);
+        }
+    }
+
+    /**
+     * This method distributes the simulation of ticks across a number of worker
+     * processes on the local machine. Previously started workers are terminated.
+     * With zero workers ticks are simulated in this process again.
+     * 
+     * @param numberOfWorkers Number of worker processes to be started
+     * @throws DistributionException if the worker processes could not be started
+     */
+    public void distribute(int numberOfWorkers) throws DistributionException {
+        if (this.coordinator != null) {
+            this.coordinator.close();
+            this.coordinator = null;
+        }
+        this.coordinator = numberOfWorkers > 0 ? new Coordinator(numberOfWorkers) : null;
+    }
+
+    private Network getLoadedNetwork() throws ParseException {
+        if (this.session == null) {
             throw new ParseException(ERROR_NO_NETWORK);
         }
-        this.network.simulate(ticks);
+        return this.session.getNetwork();
     }
 
 }
@@ -0,0 +1,34 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This interface represents an engine that moves the cars on the streets of a
+ * network during a tick. The network lets cars of its demand enter before and
+ * leave after the engine moved the cars, updates its nodes and notifies its
+ * listeners, so an engine only has to implement the movement of the cars.
+ * <p>
+ * The {@link SequentialEngine} is the reference engine. Other engines are
+ * selected with an {@link EngineMode} and can be compared with the reference
+ * engine by the differential harness in the benchmark package.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public interface SimulationEngine {
+
+    /**
+     * This method moves all cars on the streets of the network of this engine
+     * for one tick.
+     */
+    void updateStreets();
+
+    /**
+     * This method places all cars of the network of this engine where they are
+     * after the last tick. An engine that only places some of the cars during a
+     * tick places the others here, so their positions, speeds and mileages can
+     * be read.
+     */
+    default void updateCars() {
+        // Most engines place every car during a tick
+    }
+
+}
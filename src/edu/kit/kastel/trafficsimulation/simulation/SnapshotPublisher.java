@@ -0,0 +1,166 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This class publishes snapshots of the loaded network of a simulation for
+ * threads that read them while ticks elapse. A new snapshot is taken on the
+ * thread that simulates the network, either at a tick boundary or after a
+ * command, and replaces the previous one at once, so readers never block the
+ * simulation and never see a half-updated tick.
+ * <p>
+ * To keep the ticks fast, a snapshot is only taken at a tick boundary if a
+ * reader asked for one since the last snapshot, and at most once every
+ * {@value #MIN_INTERVAL_MILLIS} milliseconds. Since nobody asked during a quiet
+ * period, a reader whose snapshot is older than that while ticks elapse waits
+ * for the next tick boundary, but at most {@value #MAX_WAIT_MILLIS}
+ * milliseconds.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class SnapshotPublisher implements TickListener {
+
+    private static final int MIN_INTERVAL_MILLIS = 20;
+    private static final long MIN_INTERVAL_NANOS = MIN_INTERVAL_MILLIS * 1_000_000L;
+    private static final int MAX_WAIT_MILLIS = 100;
+    private static final long MAX_WAIT_NANOS = MAX_WAIT_MILLIS * 1_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Object publication;
+    private Network network;
+    private boolean active;
+    private volatile int tick;
+    private volatile long lastPublication;
+    private volatile boolean requested;
+    private volatile NetworkSnapshot snapshot;
+
+    /**
+     * This constructor creates a new publisher that does not publish anything
+     * until it is started.
+     */
+    protected SnapshotPublisher() {
+        this.publication = new Object();
+        this.network = null;
+        this.active = false;
+        this.tick = 0;
+        this.lastPublication = 0;
+        this.requested = false;
+        this.snapshot = null;
+    }
+
+    /**
+     * This method replaces the network of which snapshots are published. The
+     * ticks are counted from zero again.
+     * 
+     * @param network Newly loaded network
+     */
+    protected void setNetwork(Network network) {
+        if (this.active && this.network != null) {
+            this.network.removeTickListener(this);
+        }
+        this.network = network;
+        this.tick = 0;
+        if (this.active) {
+            network.addTickListener(this);
+            this.publish();
+        }
+    }
+
+    /**
+     * This method starts publishing snapshots and publishes the current state at
+     * once. The ticks are counted from zero.
+     */
+    protected void start() {
+        if (this.active) {
+            return;
+        }
+        this.active = true;
+        this.tick = 0;
+        if (this.network != null) {
+            this.network.addTickListener(this);
+        }
+        this.publish();
+    }
+
+    /**
+     * This method stops publishing snapshots and drops the last one.
+     */
+    protected void stop() {
+        if (this.active && this.network != null) {
+            this.network.removeTickListener(this);
+        }
+        this.active = false;
+        this.snapshot = null;
+    }
+
+    /**
+     * This method checks whether snapshots are published, in which case the ticks
+     * must elapse in this process.
+     * 
+     * @return True if snapshots are published
+     */
+    protected boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * This method publishes a snapshot of the current state of the network if
+     * snapshots are published. It must only be called on the thread that
+     * simulates the network.
+     */
+    protected void publish() {
+        if (!this.active) {
+            return;
+        }
+        this.requested = false;
+        this.lastPublication = System.nanoTime();
+        this.snapshot = this.network == null ? null : new NetworkSnapshot(this.network, this.tick);
+        synchronized (this.publication) {
+            this.publication.notifyAll();
+        }
+    }
+
+    /**
+     * This method returns the last published snapshot and asks for a new one at
+     * the next tick boundary. If ticks elapsed since the last snapshot and it is
+     * older than {@value #MIN_INTERVAL_MILLIS} milliseconds, the next one is
+     * awaited for a bounded time. It can be called by any thread.
+     * 
+     * @return The last published snapshot or null if there is none
+     */
+    public NetworkSnapshot getSnapshot() {
+        if (!this.requested) {
+            this.requested = true;
+        }
+        NetworkSnapshot current = this.snapshot;
+        if (current != null && current.getTick() != this.tick
+                && System.nanoTime() - this.lastPublication >= MIN_INTERVAL_NANOS) {
+            this.awaitPublication(current);
+        }
+        return this.snapshot;
+    }
+
+    private void awaitPublication(NetworkSnapshot current) {
+        long deadline = System.nanoTime() + MAX_WAIT_NANOS;
+        synchronized (this.publication) {
+            long remaining = deadline - System.nanoTime();
+            while (this.snapshot == current && remaining > 0) {
+                try {
+                    this.publication.wait(remaining / NANOS_PER_MILLI + 1);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+        }
+    }
+
+    @Override
+    public void tickElapsed(Network network) {
+        this.tick++;
+        if (this.requested && System.nanoTime() - this.lastPublication >= MIN_INTERVAL_NANOS) {
+            this.publish();
+        }
+    }
+
+}
@@ -15,14 +15,18 @@ import edu.kit.kastel.trafficsimulation.exceptions.FailedBuildException;
  */
 public class Street implements Entity {
 
+    /**
+     * This is the distance (in meters) that a car keeps to the car ahead of it.
+     */
+    protected static final int SAFE_DISTANCE = 10;
+
     private static final int MIN_LENGTH = 10;
     private static final int MAX_LENGTH = 10000;
     private static final int MIN_SPEED_LIMIT = 5;
     private static final int MAX_SPEED_LIMIT = 40;
     private static final int MIN_NUMBER_LANES = 1;
-    private static final int MAX_NUMBER_LANES = 2;
-
-    private static final int SAFE_DISTANCE = 10;
+    private static final int MAX_NUMBER_LANES = 6;
+    private static final int MAX_NUMBER_LANES_SINGLE_FILE = 2;
 
     private static final String ERROR_LENGTH_INVALID = "Length of street must be between %d and %d. ";
     private static final String ERROR_SPEED_LIMIT_INVALID = "Speed limit of street must be between %d and %d. ";
@@ -40,17 +44,21 @@ public class Street implements Entity {
     private final int speedLimit;
     private final int numberOfLanes;
 
+    private final Node startNode;
     private final Node endNode;
 
     private final List<Car> cars;
+    private boolean closed;
+    private boolean frozen;
 
     /**
      * This constructor creates a new street. It takes an ID that is used to
-     * identify this entity, the end node of this street, the length, the number of
-     * lanes and the speed limit. The number of lanes determine whether a car is
-     * allowed to overtake another car.
+     * identify this entity, the start and end node of this street, the length, the
+     * number of lanes and the speed limit. The number of lanes determine whether a
+     * car is allowed to overtake another car.
      * 
      * @param id            ID that is used to identify this entity
+     * @param startNode     Start node of this street
      * @param endNode       End node of this street
      * @param length        Length of this street
      * @param numberOfLanes Number of lanes that determine whether a car is allowed
@@ -59,7 +67,7 @@ public class Street implements Entity {
      * @throws FailedBuildException if ID, length, number of lanes or speed limit
      *                              were not valid
      */
-    public Street(int id, Node endNode, int length, int numberOfLanes, int speedLimit)
+    public Street(int id, Node startNode, Node endNode, int length, int numberOfLanes, int speedLimit)
             throws FailedBuildException {
         if (length < MIN_LENGTH || length > MAX_LENGTH) {
             String message = ERROR_LENGTH_INVALID.formatted(MIN_LENGTH, MAX_LENGTH);
@@ -75,11 +83,38 @@ public class Street implements Entity {
         }
 
         this.id = id;
+        this.startNode = startNode;
         this.endNode = endNode;
         this.length = length;
         this.numberOfLanes = numberOfLanes;
         this.speedLimit = speedLimit;
         this.cars = new ArrayList<>();
+        this.closed = false;
+        this.frozen = false;
+    }
+
+    /**
+     * This method creates a new street. Streets with up to
+     * {@value #MAX_NUMBER_LANES_SINGLE_FILE} lanes keep their cars in single file
+     * and let them overtake one car at a time, wider streets are represented by a
+     * {@link MultiLaneStreet}.
+     * 
+     * @param id            ID that is used to identify this entity
+     * @param startNode     Start node of the street
+     * @param endNode       End node of the street
+     * @param length        Length of the street
+     * @param numberOfLanes Number of lanes of the street
+     * @param speedLimit    Speed limit of the street
+     * @return The new street
+     * @throws FailedBuildException if ID, length, number of lanes or speed limit
+     *                              were not valid
+     */
+    public static Street create(int id, Node startNode, Node endNode, int length, int numberOfLanes, int speedLimit)
+            throws FailedBuildException {
+        if (numberOfLanes > MAX_NUMBER_LANES_SINGLE_FILE) {
+            return new MultiLaneStreet(id, startNode, endNode, length, numberOfLanes, speedLimit);
+        }
+        return new Street(id, startNode, endNode, length, numberOfLanes, speedLimit);
     }
 
     /**
@@ -100,6 +135,112 @@ public class Street implements Entity {
         return this.speedLimit;
     }
 
+    /**
+     * This method returns the length of this street in meters.
+     * 
+     * @return Length of this street in meters
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * This method returns the number of lanes of this street.
+     * 
+     * @return Number of lanes of this street
+     */
+    public int getNumberOfLanes() {
+        return this.numberOfLanes;
+    }
+
+    /**
+     * This method returns the node at which this street starts.
+     * 
+     * @return Node at which this street starts
+     */
+    public Node getStartNode() {
+        return this.startNode;
+    }
+
+    /**
+     * This method returns the node at which this street ends.
+     * 
+     * @return Node at which this street ends
+     */
+    public Node getEndNode() {
+        return this.endNode;
+    }
+
+    /**
+     * This method checks whether this street is closed. No car can turn onto or be
+     * placed on a closed street, but the cars already on it can still leave it.
+     * 
+     * @return True if this street is closed
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * This method marks this street as closed. It must already have been removed
+     * from the outgoing streets of its start node.
+     */
+    protected void close() {
+        this.closed = true;
+    }
+
+    /**
+     * This method checks whether this street is part of a gridlock, so that its
+     * cars cannot move until the network is changed. A frozen street is not
+     * updated.
+     * 
+     * @return True if this street is frozen
+     */
+    protected boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * This method sets whether this street is part of a gridlock.
+     * 
+     * @param frozen True if this street should no longer be updated
+     */
+    protected void setFrozen(boolean frozen) {
+        this.frozen = frozen;
+    }
+
+    /**
+     * This method returns the cars on this street ordered by their position,
+     * beginning with the car at the start of the street. The returned list is
+     * backed by this street and must not be modified.
+     * 
+     * @return Cars on this street ordered by their position
+     */
+    protected List<Car> getCars() {
+        return this.cars;
+    }
+
+    /**
+     * This method returns the number of cars on this street.
+     * 
+     * @return Number of cars on this street
+     */
+    protected int getNumberOfCars() {
+        return this.cars.size();
+    }
+
+    /**
+     * This method returns a car on this street without creating a list of all
+     * cars. Together with {@link #getNumberOfCars()} it visits every car once,
+     * but not necessarily ordered by position.
+     * 
+     * @param index Index of the car between 0 and the number of cars
+     * @return Car with the given index
+     */
+    protected Car getCar(int index) {
+        return this.cars.get(index);
+    }
+
     /**
      * This method checks whether this street allows a car to overtake another car.
      * 
@@ -116,12 +257,13 @@ public class Street implements Entity {
      * 
      * @param car Car that should enter this street.
      */
-    private void enter(Car car) {
+    protected void enter(Car car) {
         if (this.isFull()) {
             throw new IllegalStateException(ERROR_STREET_FULL);
         }
 
         car.setStreet(this);
+        car.setLane(0);
         car.resetPosition();
         this.cars.add(0, car);
         this.advance(0, false, false);
@@ -149,6 +291,68 @@ public class Street implements Entity {
         return car;
     }
 
+    /**
+     * This method places an existing car in front of all other cars on this street.
+     * The position of the car is kept as it is. It is used to restore a street from
+     * a serialized state, so the cars must be placed in ascending order of their
+     * position.
+     * 
+     * @param car Car to be placed in front of all other cars on this street
+     */
+    protected void placeCar(Car car) {
+        car.setStreet(this);
+        this.cars.add(car);
+    }
+
+    /**
+     * This method removes a car from this street.
+     * 
+     * @param car Car to be removed from this street
+     */
+    protected void removeCar(Car car) {
+        // Cars mostly leave at the end of the street, which is the end of the list
+        int index = this.cars.lastIndexOf(car);
+        if (index < 0) {
+            throw new IllegalArgumentException(ERROR_CAR_DOES_NOT_EXIST);
+        }
+        this.cars.remove(index);
+    }
+
+    /**
+     * This method replaces the cars on this street. The cars must already be on
+     * this street and ordered by their position.
+     * 
+     * @param cars Cars on this street ordered by their position
+     */
+    protected void replaceCars(List<Car> cars) {
+        this.cars.clear();
+        this.cars.addAll(cars);
+    }
+
+    /**
+     * This method removes all cars from this street.
+     */
+    protected void clearCars() {
+        this.cars.clear();
+    }
+
+    /**
+     * This method returns a car that reached the end of this street and leaves
+     * the network at the end node.
+     * 
+     * @return A car that leaves the network or null if there is no such car
+     */
+    protected Car getLeavingCar() {
+        if (this.cars.isEmpty()) {
+            return null;
+        }
+        Car lastCar = this.cars.get(this.cars.size() - 1);
+        if (lastCar.getPosition() == this.length && lastCar.leavesAt(this.endNode)) {
+            return lastCar;
+        }
+        return null;
+    }
+
     private Car getCarAt(int index) {
         if (index >= this.cars.size() || index < 0) {
             throw new IllegalArgumentException(ERROR_CAR_DOES_NOT_EXIST);
@@ -223,7 +427,7 @@ public class Street implements Entity {
         Street nextStreet = this.endNode.getStreetToTurn(lastCar);
         this.cars.remove(this.cars.size() - 1);
         nextStreet.enter(lastCar);
-        lastCar.updateNextDirection();
+        lastCar.updateNextDirection(this.endNode);
     }
 
     /**
@@ -0,0 +1,354 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class updates all streets of a network at the same time instead of one
+ * after the other. Every tick is split into phases that each run in parallel
+ * for all streets:
+ * <ol>
+ * <li>Compute: every street computes the new speed and position of its cars
+ * from the state of the previous tick without changing anything. A car that
+ * reaches the end of its street requests to enter the street it wants to turn
+ * onto.</li>
+ * <li>Arbitrate: every street decides which requesting cars may enter it.
+ * Requests are granted in ascending order of the ID of the street the car
+ * comes from, as long as the car keeps the safe distance to the car entered
+ * before it. A car whose request is denied waits at the end of its street.</li>
+ * <li>Commit: every street applies the computed moves of its cars, hands over
+ * the cars that leave it and takes the cars that enter it.</li>
+ * </ol>
+ * Frozen streets are left out of all phases, no car on them could move.
+ * Since the phases only look at the streets around a node, a network can be
+ * cut between its nodes into partitions that exchange the cars crossing
+ * between them after every tick, see {@link PartitionBoundary}.
+ * Between the phases all streets wait for each other. Since no phase depends
+ * on the order of the streets, the result does not depend on the number of
+ * threads, and the streets are visited in the update order of the network,
+ * which may be a {@link LocalityOrder}.
+ * Cars on the same street still follow each other as in the sequential
+ * update, including overtaking on streets with two lanes. Streets with more
+ * than two lanes are not supported.
+ * <p>
+ * If the engine is vectorized, the speeds of all cars of a street are computed
+ * and the cars are moved up to the headway to their leader by a
+ * {@link LaneKernel} first. Only the cars that the headway stopped before they
+ * drove their whole speed are moved one after the other, which includes every
+ * car that may turn or overtake. The result is the same as without the kernel.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class SynchronousEngine implements SimulationEngine {
+
+    /**
+     * This is the maximum number of lanes of a street that can be updated by this
+     * engine.
+     */
+    public static final int MAX_NUMBER_LANES = 2;
+
+    private final Network network;
+    private final boolean vectorized;
+    private StreetPlan[] plans;
+    private int[] order;
+    private final List<List<StreetPlan>> requestsByTarget;
+
+    /**
+     * This constructor creates a new synchronous engine for a network. All streets
+     * of the network must have at most {@value #MAX_NUMBER_LANES} lanes.
+     * 
+     * @param network    Network to be updated
+     * @param vectorized True if the speeds and headways of the cars should be
+     *                   computed by a {@link LaneKernel}
+     */
+    protected SynchronousEngine(Network network, boolean vectorized) {
+        this.network = network;
+        this.vectorized = vectorized;
+        this.plans = new StreetPlan[0];
+        this.order = new int[0];
+        this.requestsByTarget = new ArrayList<>();
+    }
+
+    @Override
+    public void updateStreets() {
+        List<Street> streets = this.network.getStreets();
+        this.preparePlans(streets);
+
+        IntStream.range(0, this.plans.length).parallel()
+                .forEach(i -> compute(this.plans[this.order[i]], this.vectorized));
+
+        // Requests are collected in ascending order of the ID of their street
+        for (List<StreetPlan> requests : this.requestsByTarget) {
+            requests.clear();
+        }
+        for (StreetPlan plan : this.plans) {
+            if (plan.target != null) {
+                this.requestsByTarget.get(this.getIndex(streets, plan.target)).add(plan);
+            }
+        }
+
+        IntStream.range(0, this.plans.length).parallel()
+                .forEach(i -> arbitrate(this.plans[this.order[i]], this.requestsByTarget.get(this.order[i])));
+        IntStream.range(0, this.plans.length).parallel()
+                .forEach(i -> commit(this.plans[this.order[i]], this.requestsByTarget.get(this.order[i])));
+    }
+
+    private void preparePlans(List<Street> streets) {
+        if (this.plans.length == streets.size()) {
+            return;
+        }
+        int[] updateOrder = this.network.getTopology().getUpdateOrder();
+        this.order = updateOrder != null ? updateOrder : IntStream.range(0, streets.size()).toArray();
+        // Streets are only ever added, so the existing plans stay valid
+        StreetPlan[] newPlans = Arrays.copyOf(this.plans, streets.size());
+        PartitionBoundary boundary = this.network.getBoundary();
+        for (int index : this.order) {
+            // Plans are created in the order they are visited, so they are likely close to each other in memory
+            if (index >= this.plans.length) {
+                newPlans[index] = new StreetPlan(streets.get(index), boundary != null && boundary.isCopy(index));
+            }
+        }
+        for (int i = this.plans.length; i < newPlans.length; i++) {
+            this.requestsByTarget.add(new ArrayList<>());
+        }
+        this.plans = newPlans;
+    }
+
+    private int getIndex(List<Street> streets, Street street) {
+        int low = 0;
+        int high = streets.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (streets.get(middle).getId() < street.getId()) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * This method computes the moves of the cars on a street without changing
+     * the street or its cars. The cars are moved from the car nearest to the end
+     * of the street to the car at its start, like in the sequential update.
+     * 
+     * @param plan       Plan of the street
+     * @param vectorized True if the speeds and headways should be computed by a
+     *                   {@link LaneKernel} first
+     */
+    private static void compute(StreetPlan plan, boolean vectorized) {
+        Street street = plan.street;
+        if (street.isFrozen()) {
+            plan.target = null;
+            return;
+        }
+        plan.load(street.getCars(), vectorized);
+        if (vectorized) {
+            LaneKernel.accelerate(plan.speeds, plan.accelerations, plan.targetSpeeds, street.getSpeedLimit(),
+                    plan.size);
+            LaneKernel.driveWithinHeadway(plan.positions, plan.speeds, plan.headways, plan.distancesToDrive,
+                    street.getLength(), plan.size);
+        }
+        for (int i = plan.size - 1; i >= 0; i--) {
+            if (!vectorized) {
+                Car car = plan.cars.get(i);
+                plan.speeds[i] = Math.min(Math.min(car.getSpeed() + car.getAcceleration(), car.getTargetSpeed()),
+                        street.getSpeedLimit());
+                plan.distancesToDrive[i] = plan.speeds[i];
+            } else if (plan.distancesToDrive[i] == 0) {
+                // The kernel already moved the car by its whole speed
+                continue;
+            }
+            // The leader has moved already, so a car stopped by the kernel may get further
+            plan.drive(i);
+
+            if (plan.distancesToDrive[i] > 0) {
+                if (i == plan.size - 1 && plan.positions[i] == street.getLength()) {
+                    // The partition that owns the end node lets the last car of a copy leave
+                    if (!plan.copy) {
+                        plan.target = street.getEndNode().getStreetToTurn(plan.cars.get(i));
+                    }
+                } else if (street.getNumberOfLanes() > 1
+                        && plan.distancesToDrive[i] >= 2 * Street.SAFE_DISTANCE
+                        && plan.getDistanceAheadOf(i + 1) >= Street.SAFE_DISTANCE) {
+                    plan.overtake(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method decides which of the requesting cars may enter a street. The
+     * requests are granted in the given order as long as there is enough space
+     * at the start of the street.
+     * 
+     * @param plan     Plan of the street to be entered
+     * @param requests Plans of the streets whose last car wants to enter
+     */
+    private static void arbitrate(StreetPlan plan, List<StreetPlan> requests) {
+        // The car at the start of the street after all moves of this tick
+        int lastPosition = plan.size == 0 ? Integer.MAX_VALUE : plan.positions[0];
+        for (StreetPlan request : requests) {
+            int leavingIndex = request.size - 1;
+            int distance = request.distancesToDrive[leavingIndex];
+            if (lastPosition == Integer.MAX_VALUE) {
+                request.entryPosition = Math.min(distance, plan.street.getLength());
+            } else if (lastPosition >= Street.SAFE_DISTANCE) {
+                request.entryPosition = Math.min(distance, lastPosition - Street.SAFE_DISTANCE);
+            } else {
+                request.granted = false;
+                continue;
+            }
+            request.granted = true;
+            lastPosition = request.entryPosition;
+        }
+    }
+
+    /**
+     * This method applies the computed moves of the cars on a street. The car
+     * that was granted to leave the street is removed and the cars that were
+     * granted to enter the street are added at its start.
+     * 
+     * @param plan     Plan of the street
+     * @param requests Plans of the streets whose last car wanted to enter
+     */
+    private static void commit(StreetPlan plan, List<StreetPlan> requests) {
+        Street street = plan.street;
+        // Nobody can enter a frozen street, since it is full
+        if (street.isFrozen()) {
+            return;
+        }
+        List<Car> cars = plan.committedCars;
+        cars.clear();
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            StreetPlan request = requests.get(i);
+            if (request.granted) {
+                Car car = request.cars.get(request.size - 1);
+                int mileage = car.getMileage() + request.street.getLength() - car.getPosition()
+                        + request.entryPosition;
+                apply(car, request.speeds[request.size - 1], mileage);
+                car.setStreet(street);
+                car.setLane(0);
+                car.setPosition(request.entryPosition);
+                car.updateNextDirection(request.street.getEndNode());
+                cars.add(car);
+            }
+        }
+
+        int remaining = plan.target != null && plan.granted ? plan.size - 1 : plan.size;
+        for (int i = 0; i < remaining; i++) {
+            Car car = plan.cars.get(i);
+            apply(car, plan.speeds[i], car.getMileage() + plan.positions[i] - car.getPosition());
+            car.setPosition(plan.positions[i]);
+            cars.add(car);
+        }
+        street.replaceCars(cars);
+    }
+
+    private static void apply(Car car, int speed, int mileage) {
+        // Like in the sequential update a car that did not move stops
+        car.setSpeed(mileage == car.getMileage() ? 0 : speed);
+        car.setMileage(mileage);
+    }
+
+    /**
+     * This class holds the moves of the cars on a street computed during a tick.
+     */
+    private static final class StreetPlan {
+
+        private final Street street;
+        private final boolean copy;
+        private final List<Car> cars;
+        private final List<Car> committedCars;
+        private int size;
+        private int[] speeds;
+        private int[] accelerations;
+        private int[] targetSpeeds;
+        private int[] positions;
+        private int[] headways;
+        private int[] distancesToDrive;
+        private Street target;
+        private boolean granted;
+        private int entryPosition;
+
+        private StreetPlan(Street street, boolean copy) {
+            this.street = street;
+            this.copy = copy;
+            this.cars = new ArrayList<>();
+            this.committedCars = new ArrayList<>();
+            this.speeds = new int[0];
+            this.accelerations = new int[0];
+            this.targetSpeeds = new int[0];
+            this.positions = new int[0];
+            this.headways = new int[0];
+            this.distancesToDrive = new int[0];
+        }
+
+        private void load(List<Car> streetCars, boolean vectorized) {
+            this.cars.clear();
+            this.cars.addAll(streetCars);
+            this.size = streetCars.size();
+            if (this.positions.length < this.size) {
+                this.speeds = new int[this.size * 2];
+                this.accelerations = new int[this.size * 2];
+                this.targetSpeeds = new int[this.size * 2];
+                this.positions = new int[this.size * 2];
+                this.headways = new int[this.size * 2];
+                this.distancesToDrive = new int[this.size * 2];
+            }
+            for (int i = 0; i < this.size; i++) {
+                Car car = streetCars.get(i);
+                this.positions[i] = car.getPosition();
+                if (vectorized) {
+                    this.speeds[i] = car.getSpeed();
+                    this.accelerations[i] = car.getAcceleration();
+                    this.targetSpeeds[i] = car.getTargetSpeed();
+                }
+            }
+            this.target = null;
+            this.granted = false;
+        }
+
+        private int getDistanceAheadOf(int index) {
+            if (index + 1 >= this.size) {
+                return this.street.getLength() - this.positions[index];
+            }
+            return this.positions[index + 1] - this.positions[index] - Street.SAFE_DISTANCE;
+        }
+
+        private void drive(int index) {
+            int distance = Math.min(this.distancesToDrive[index], this.getDistanceAheadOf(index));
+            this.positions[index] += distance;
+            this.distancesToDrive[index] -= distance;
+        }
+
+        private void overtake(int index) {
+            int distance = this.getDistanceAheadOf(index) + 2 * Street.SAFE_DISTANCE;
+            this.positions[index] += distance;
+            this.distancesToDrive[index] -= distance;
+            this.swap(index, index + 1);
+            this.drive(index + 1);
+        }
+
+        private void swap(int first, int second) {
+            Car car = this.cars.get(first);
+            this.cars.set(first, this.cars.get(second));
+            this.cars.set(second, car);
+            swap(this.speeds, first, second);
+            swap(this.positions, first, second);
+            swap(this.distancesToDrive, first, second);
+        }
+
+        private static void swap(int[] values, int first, int second) {
+            int value = values[first];
+            values[first] = values[second];
+            values[second] = value;
+        }
+
+    }
+
+}
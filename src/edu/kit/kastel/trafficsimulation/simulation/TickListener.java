@@ -0,0 +1,30 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This interface represents a listener that is notified after every tick that
+ * elapsed in a network in this process and whenever a car left that network.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public interface TickListener {
+
+    /**
+     * This method is called after a tick elapsed. It is called on the thread that
+     * simulates the network and must not change the network.
+     * 
+     * @param network Network in which the tick elapsed
+     */
+    void tickElapsed(Network network);
+
+    /**
+     * This method is called when a car left the network, either at its
+     * destination or because it was removed. It is called on the thread that
+     * simulates the network and must not change the network.
+     * 
+     * @param car Car that left the network
+     */
+    default void carLeft(Car car) {
+    }
+
+}
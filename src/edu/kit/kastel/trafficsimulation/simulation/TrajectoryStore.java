@@ -0,0 +1,405 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class stores the trajectories of all cars of a network in a file, so the
+ * state of a car at any recorded tick can be looked up without simulating
+ * again. Every interval ticks a keyframe with the street, position and speed of
+ * all cars is written, every other tick only the cars whose state changed since
+ * the tick before are written as a delta. The records of a keyframe or a delta
+ * are ordered by car ID.
+ * <p>
+ * The positions of the keyframes are kept in an index that is appended to the
+ * file when the recording is closed. A lookup finds the last keyframe before
+ * the tick by a binary search in the index and then applies at most interval
+ * deltas, each of them searched by a binary search as well. The file is read
+ * through a memory mapping.
+ * 
+ * @author ulqch
+ * @version 1.0
+ */
+public class TrajectoryStore implements TickListener, Closeable {
+
+    /**
+     * This is the street of a car in a delta if the car left the network.
+     */
+    public static final int NO_STREET = -1;
+
+    private static final int MAGIC = 0x54535452;
+    private static final byte KEYFRAME = 1;
+    private static final byte DELTA = 2;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = 1 + 2 * Integer.BYTES;
+    private static final int CAR_RECORD_SIZE = 4 * Integer.BYTES;
+    private static final int INDEX_ENTRY_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int FOOTER_SIZE = 3 * Integer.BYTES;
+    private static final int UNSORTED_SIZE = 3;
+    private static final String ERROR_NO_TRAJECTORY = "File %s is no trajectory file. ";
+    private static final String ERROR_CORRUPT = "Trajectory file %s is corrupt at tick %d. ";
+
+    private final Path file;
+    private final int interval;
+    private DataOutputStream output;
+    private long size;
+    private int[] keyframeTicks;
+    private long[] keyframeOffsets;
+    private int numberOfKeyframes;
+    private int lastTick;
+    private IOException error;
+    private CarStates previous;
+    private CarStates current;
+    private FileChannel channel;
+
+    private TrajectoryStore(Path file, int interval) {
+        this.file = file;
+        this.interval = interval;
+        this.keyframeTicks = new int[16];
+        this.keyframeOffsets = new long[16];
+        this.numberOfKeyframes = 0;
+        this.lastTick = -1;
+        this.error = null;
+        this.previous = new CarStates();
+        this.current = new CarStates();
+    }
+
+    /**
+     * This method starts recording the trajectories of the cars of a network to
+     * a file. The current state of the network is recorded as tick 0. An existing
+     * file is overwritten.
+     * 
+     * @param file     Path of the trajectory file
+     * @param interval Number of ticks between two keyframes
+     * @param network  Network to be recorded
+     * @return The recording trajectory store
+     * @throws IOException if the file cannot be written
+     */
+    public static TrajectoryStore record(Path file, int interval, Network network) throws IOException {
+        TrajectoryStore store = new TrajectoryStore(file, interval);
+        store.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        store.output.writeInt(MAGIC);
+        store.output.writeInt(interval);
+        store.size = HEADER_SIZE;
+        store.recordTick(network);
+        return store;
+    }
+
+    /**
+     * This method opens a trajectory file that was recorded and closed before,
+     * so its ticks can be looked up.
+     * 
+     * @param file Path of the trajectory file
+     * @return The trajectory store of the file
+     * @throws IOException if the file cannot be read or is no trajectory file
+     */
+    public static TrajectoryStore open(Path file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = fileChannel.size();
+            if (fileSize < HEADER_SIZE + FOOTER_SIZE) {
+                throw new IOException(ERROR_NO_TRAJECTORY.formatted(file));
+            }
+            MappedByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            MappedByteBuffer footer = fileChannel.map(FileChannel.MapMode.READ_ONLY, fileSize - FOOTER_SIZE,
+                    FOOTER_SIZE);
+            int numberOfKeyframes = footer.getInt(0);
+            long indexOffset = fileSize - FOOTER_SIZE - (long) numberOfKeyframes * INDEX_ENTRY_SIZE;
+            if (header.getInt(0) != MAGIC || footer.getInt(2 * Integer.BYTES) != MAGIC || numberOfKeyframes <= 0
+                    || indexOffset < HEADER_SIZE) {
+                throw new IOException(ERROR_NO_TRAJECTORY.formatted(file));
+            }
+            TrajectoryStore store = new TrajectoryStore(file, header.getInt(Integer.BYTES));
+            MappedByteBuffer index = fileChannel.map(FileChannel.MapMode.READ_ONLY, indexOffset,
+                    (long) numberOfKeyframes * INDEX_ENTRY_SIZE);
+            store.keyframeTicks = new int[numberOfKeyframes];
+            store.keyframeOffsets = new long[numberOfKeyframes];
+            for (int i = 0; i < numberOfKeyframes; i++) {
+                store.keyframeTicks[i] = index.getInt();
+                store.keyframeOffsets[i] = index.getLong();
+            }
+            store.numberOfKeyframes = numberOfKeyframes;
+            store.lastTick = footer.getInt(Integer.BYTES);
+            store.size = indexOffset;
+            return store;
+        }
+    }
+
+    /**
+     * This method returns the last tick that was recorded.
+     * 
+     * @return Last recorded tick
+     */
+    public int getLastTick() {
+        return this.lastTick;
+    }
+
+    /**
+     * This method checks whether this store still records ticks.
+     * 
+     * @return True if this store records ticks
+     */
+    public boolean isRecording() {
+        return this.output != null;
+    }
+
+    @Override
+    public void tickElapsed(Network network) {
+        if (this.output == null || this.error != null) {
+            return;
+        }
+        try {
+            this.recordTick(network);
+        } catch (IOException ioException) {
+            // Reported when the recording is closed
+            this.error = ioException;
+        }
+    }
+
+    /**
+     * This method looks up the state of a car at a recorded tick.
+     * 
+     * @param id   ID of the car
+     * @param tick Recorded tick
+     * @return The street, position and speed of the car or null if the car was
+     *         not in the network at that tick
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public int[] getState(int id, int tick) throws IOException {
+        if (tick < 0 || tick > this.lastTick) {
+            return null;
+        }
+        int keyframe = Arrays.binarySearch(this.keyframeTicks, 0, this.numberOfKeyframes, tick);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        // Only the keyframe and the deltas up to the next keyframe are mapped
+        MappedByteBuffer buffer = this.map(this.keyframeOffsets[keyframe], keyframe + 1 < this.numberOfKeyframes
+                ? this.keyframeOffsets[keyframe + 1]
+                : this.size);
+        int offset = 0;
+        int[] state = null;
+        for (int recordTick = this.keyframeTicks[keyframe]; recordTick <= tick; recordTick++) {
+            byte type = buffer.get(offset);
+            int numberOfCars = buffer.getInt(offset + 1 + Integer.BYTES);
+            if (buffer.getInt(offset + 1) != recordTick || type != (recordTick == this.keyframeTicks[keyframe]
+                    ? KEYFRAME : DELTA)) {
+                throw new IOException(ERROR_CORRUPT.formatted(this.file, recordTick));
+            }
+            int carOffset = findCar(buffer, offset + RECORD_HEADER_SIZE, numberOfCars, id);
+            if (carOffset >= 0) {
+                int street = buffer.getInt(carOffset + Integer.BYTES);
+                state = street == NO_STREET ? null : new int[] {street,
+                    buffer.getInt(carOffset + 2 * Integer.BYTES), buffer.getInt(carOffset + 3 * Integer.BYTES)};
+            } else if (type == KEYFRAME) {
+                state = null;
+            }
+            offset += RECORD_HEADER_SIZE + numberOfCars * CAR_RECORD_SIZE;
+        }
+        return state;
+    }
+
+    /**
+     * This method stops recording and appends the index of the keyframes to the
+     * file. The recorded ticks can still be looked up afterwards, the file is
+     * then opened again.
+     * 
+     * @throws IOException if writing the file failed at any time during the
+     *                     recording
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+        if (this.output == null) {
+            return;
+        }
+        DataOutputStream stream = this.output;
+        this.output = null;
+        try (stream) {
+            if (this.error != null) {
+                throw this.error;
+            }
+            for (int i = 0; i < this.numberOfKeyframes; i++) {
+                stream.writeInt(this.keyframeTicks[i]);
+                stream.writeLong(this.keyframeOffsets[i]);
+            }
+            stream.writeInt(this.numberOfKeyframes);
+            stream.writeInt(this.lastTick);
+            stream.writeInt(MAGIC);
+        }
+    }
+
+    private void recordTick(Network network) throws IOException {
+        int tick = this.lastTick + 1;
+        this.current.load(network.getStreets());
+        if (tick % this.interval == 0) {
+            if (this.numberOfKeyframes == this.keyframeTicks.length) {
+                this.keyframeTicks = Arrays.copyOf(this.keyframeTicks, this.numberOfKeyframes * 2);
+                this.keyframeOffsets = Arrays.copyOf(this.keyframeOffsets, this.numberOfKeyframes * 2);
+            }
+            this.keyframeTicks[this.numberOfKeyframes] = tick;
+            this.keyframeOffsets[this.numberOfKeyframes] = this.size;
+            this.numberOfKeyframes++;
+            this.writeRecord(KEYFRAME, tick, this.current);
+        } else {
+            this.writeRecord(DELTA, tick, this.current.getChangesSince(this.previous));
+        }
+        CarStates states = this.previous;
+        this.previous = this.current;
+        this.current = states;
+        this.lastTick = tick;
+    }
+
+    private void writeRecord(byte type, int tick, CarStates states) throws IOException {
+        this.output.writeByte(type);
+        this.output.writeInt(tick);
+        this.output.writeInt(states.size);
+        for (int i = 0; i < states.size; i++) {
+            this.output.writeInt(states.ids[i]);
+            this.output.writeInt(states.streets[i]);
+            this.output.writeInt(states.positions[i]);
+            this.output.writeInt(states.speeds[i]);
+        }
+        this.size += RECORD_HEADER_SIZE + (long) states.size * CAR_RECORD_SIZE;
+    }
+
+    private MappedByteBuffer map(long start, long end) throws IOException {
+        if (this.output != null) {
+            this.output.flush();
+        }
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.file, StandardOpenOption.READ);
+        }
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    private static int findCar(MappedByteBuffer buffer, int start, int numberOfCars, int id) {
+        int low = 0;
+        int high = numberOfCars - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = start + middle * CAR_RECORD_SIZE;
+            int middleId = buffer.getInt(offset);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This class holds the states of cars ordered by their ID.
+     */
+    private static final class CarStates {
+
+        private int size;
+        private int[] ids;
+        private int[] streets;
+        private int[] positions;
+        private int[] speeds;
+        private long[] keys;
+        private int[] unsorted;
+        private CarStates changes;
+
+        private CarStates() {
+            this.ids = new int[0];
+            this.streets = new int[0];
+            this.positions = new int[0];
+            this.speeds = new int[0];
+            this.keys = new long[0];
+            this.unsorted = new int[0];
+        }
+
+        private void load(List<Street> networkStreets) {
+            // The cars are collected unsorted, the lower half of a key is their index
+            int numberOfCars = 0;
+            for (int i = 0; i < networkStreets.size(); i++) {
+                Street street = networkStreets.get(i);
+                for (int j = 0; j < street.getNumberOfCars(); j++) {
+                    Car car = street.getCar(j);
+                    this.ensureCapacity(numberOfCars + 1);
+                    this.keys[numberOfCars] = (long) car.getId() << Integer.SIZE | numberOfCars;
+                    this.unsorted[UNSORTED_SIZE * numberOfCars] = street.getId();
+                    this.unsorted[UNSORTED_SIZE * numberOfCars + 1] = car.getPosition();
+                    this.unsorted[UNSORTED_SIZE * numberOfCars + 2] = car.getSpeed();
+                    numberOfCars++;
+                }
+            }
+            Arrays.sort(this.keys, 0, numberOfCars);
+            for (int i = 0; i < numberOfCars; i++) {
+                int index = (int) this.keys[i];
+                this.ids[i] = (int) (this.keys[i] >>> Integer.SIZE);
+                this.streets[i] = this.unsorted[UNSORTED_SIZE * index];
+                this.positions[i] = this.unsorted[UNSORTED_SIZE * index + 1];
+                this.speeds[i] = this.unsorted[UNSORTED_SIZE * index + 2];
+            }
+            this.size = numberOfCars;
+        }
+
+        private CarStates getChangesSince(CarStates before) {
+            if (this.changes == null) {
+                this.changes = new CarStates();
+            }
+            CarStates result = this.changes;
+            result.size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.size || j < before.size) {
+                if (j == before.size || i < this.size && this.ids[i] < before.ids[j]) {
+                    result.add(this.ids[i], this.streets[i], this.positions[i], this.speeds[i]);
+                    i++;
+                } else if (i == this.size || before.ids[j] < this.ids[i]) {
+                    result.add(before.ids[j], NO_STREET, 0, 0);
+                    j++;
+                } else {
+                    if (this.streets[i] != before.streets[j] || this.positions[i] != before.positions[j]
+                            || this.speeds[i] != before.speeds[j]) {
+                        result.add(this.ids[i], this.streets[i], this.positions[i], this.speeds[i]);
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        private void add(int id, int street, int position, int speed) {
+            this.ensureCapacity(this.size + 1);
+            this.ids[this.size] = id;
+            this.streets[this.size] = street;
+            this.positions[this.size] = position;
+            this.speeds[this.size] = speed;
+            this.size++;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= this.ids.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, this.ids.length * 2);
+            this.ids = Arrays.copyOf(this.ids, newCapacity);
+            this.streets = Arrays.copyOf(this.streets, newCapacity);
+            this.positions = Arrays.copyOf(this.positions, newCapacity);
+            this.speeds = Arrays.copyOf(this.speeds, newCapacity);
+            this.keys = Arrays.copyOf(this.keys, newCapacity);
+            this.unsorted = Arrays.copyOf(this.unsorted, UNSORTED_SIZE * newCapacity);
+        }
+
+    }
+
+}
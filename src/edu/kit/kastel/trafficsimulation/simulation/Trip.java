@@ -0,0 +1,15 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This record describes a car that should enter the network at the start of a
+ * street after a number of ticks and leave it again at its destination.
+ * 
+ * @author ulqch
+ * @version 1.0
+ * @param tick Number of ticks since the network was loaded after which the car
+ *             should enter the network
+ * @param car  Car that should enter the network, its destination must be set
+ */
+public record Trip(int tick, CarConfiguration car) {
+
+}